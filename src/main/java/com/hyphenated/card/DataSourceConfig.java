@@ -2,6 +2,7 @@ package com.hyphenated.card;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
@@ -9,7 +10,9 @@ import javax.sql.DataSource;
 @Configuration
 public class DataSourceConfig {
 
+    //Start loading the hand evaluator first, it is read in parallel with the database setup
     @Bean
+    @DependsOn("handRankEvaluatorLoader")
     public DataSource dataSource() {
         DriverManagerDataSource dataSource = new DriverManagerDataSource();
         dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
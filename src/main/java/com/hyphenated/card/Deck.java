@@ -24,10 +24,13 @@ THE SOFTWARE.
 package com.hyphenated.card;
 
 import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.holder.CardSet;
 import jakarta.persistence.Embeddable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -47,6 +50,24 @@ public class Deck {
         initDeck();
     }
 
+    /**
+     * Create a deck which deals the given cards first, in their order, then the other cards in a random order.
+     *
+     * @param firstCards cards to deal first, null where any card not given may be dealt
+     */
+    public Deck(List<Card> firstCards) {
+        List<Card> others = new ArrayList<>(Arrays.asList(Card.values()));
+        others.removeAll(firstCards);
+        Collections.shuffle(others);
+        Iterator<Card> other = others.iterator();
+        List<Card> stacked = new ArrayList<>(Card.values().length);
+        //The first card of the list is never dealt
+        stacked.add(other.next());
+        firstCards.forEach(card -> stacked.add(card != null ? card : other.next()));
+        other.forEachRemaining(stacked::add);
+        cards = List.copyOf(stacked);
+    }
+
     public void initDeck() {
         Collections.shuffle(cards);
         cards = cards.stream().toList();
@@ -61,4 +82,17 @@ public class Deck {
         numberOfCard++;
         return cards.get(numberOfCard);
     }
+
+    /**
+     * The cards that can still be dealt, for dead card checks without scanning the deck.
+     *
+     * @return {@link CardSet} of the cards after the last dealt card
+     */
+    public CardSet remainingCards() {
+        long bits = 0;
+        for (int i = numberOfCard + 1; i < cards.size(); i++) {
+            bits |= CardSet.bit(cards.get(i));
+        }
+        return CardSet.ofBits(bits);
+    }
 }
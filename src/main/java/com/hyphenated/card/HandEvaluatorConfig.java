@@ -0,0 +1,89 @@
+package com.hyphenated.card;
+
+import com.hyphenated.card.eval.ConfigurationLoader;
+import com.hyphenated.card.eval.HandRankEvaluator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the hand evaluator in the background while the DataSource and Hibernate start up.
+ * <br /><br />
+ * The {@link HandRankEvaluator} bean waits for the loader, which only completes once the evaluator has been
+ * warmed up, so the context is never up with a cold evaluator.  Readiness is set to
+ * {@link ReadinessState#REFUSING_TRAFFIC} while loading.
+ */
+@Configuration
+public class HandEvaluatorConfig {
+
+    private static final Logger log = LogManager.getLogger();
+    //Enough evaluations for the JIT to compile the lookup loops
+    private static final int WARM_UP_HANDS = 200_000;
+
+    /**
+     * Start loading the evaluator.  Beans which take long to initialize should depend on this bean, so
+     * the table is read in parallel with them instead of after them.
+     */
+    @Bean
+    public CompletableFuture<HandRankEvaluator> handRankEvaluatorLoader(ApplicationEventPublisher publisher) {
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        CompletableFuture<HandRankEvaluator> loader = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                HandRankEvaluator evaluator = new ConfigurationLoader().loadHandRankEvaluator();
+                warmUp(evaluator);
+                log.info("Loaded and warmed up " + evaluator.getClass().getSimpleName() + " in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                loader.complete(evaluator);
+            } catch (Throwable e) {
+                loader.completeExceptionally(e);
+            }
+        }, "hand-evaluator-loader");
+        thread.setDaemon(true);
+        thread.start();
+        return loader;
+    }
+
+    /**
+     * Readiness is only switched to {@link ReadinessState#ACCEPTING_TRAFFIC} once startup completes,
+     * which cannot happen before this bean got the warm evaluator.
+     */
+    @Bean
+    public HandRankEvaluator handRankEvaluator(CompletableFuture<HandRankEvaluator> handRankEvaluatorLoader) {
+        return handRankEvaluatorLoader.join();
+    }
+
+    /**
+     * Evaluate random river showdowns so that the first real hand runs compiled code.
+     */
+    static void warmUp(HandRankEvaluator evaluator) {
+        SplittableRandom random = new SplittableRandom(WARM_UP_HANDS);
+        int[] cards = new int[7];
+        int checksum = 0;
+        for (int n = 0; n < WARM_UP_HANDS; n++) {
+            long used = 0;
+            for (int i = 0; i < cards.length; i++) {
+                int card;
+                do {
+                    card = random.nextInt(1, 53);
+                } while ((used & 1L << card) != 0);
+                used |= 1L << card;
+                cards[i] = card;
+            }
+            int prefix = evaluator.evaluateBoardPrefix(cards[0], cards[1], cards[2], cards[3], cards[4]);
+            checksum += evaluator.finish(prefix, cards[5], cards[6]);
+            checksum += evaluator.evaluate(cards, 0);
+        }
+        if (checksum == 0) {
+            throw new IllegalStateException("Hand evaluator returned no ranks during warm up");
+        }
+    }
+}
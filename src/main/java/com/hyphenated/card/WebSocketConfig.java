@@ -18,6 +18,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker();
+        //Messages to /app go to the @MessageMapping methods of the controllers
+        registry.setApplicationDestinationPrefixes("/app");
     }
 }
 
@@ -0,0 +1,352 @@
+package com.hyphenated.card.batch;
+
+import com.hyphenated.card.holder.Combinations;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Every combination of k cards out of the deck, with an optional computed result, stored in a directory of
+ * chunk files instead of a database table.
+ * <br /><br />
+ * Rows are in colex order, so row r is the combination with {@link Combinations#rank(long) rank} r and the chunk
+ * holding it is r / rows per chunk.  The directory has a manifest.properties describing the file and one
+ * chunk-NNNNN.bin per chunk.  A chunk is a big endian header followed by its columns:
+ * <pre>
+ *  0  int    magic "CMBC"
+ *  4  short  format version
+ *  6  short  1 if the columns are deflated
+ *  8  int    number of the chunk
+ * 12  int    number of rows
+ * 16  int    length of the columns as stored
+ * 20  int    CRC32C of the columns as stored
+ * 24  byte[] cards: k evaluation indexes per row, ascending
+ *     int[]  results, one per row, if the file has results
+ * </pre>
+ * Chunks are written in parallel, each by its own writer into a temporary file which is then renamed,
+ * so a chunk file either is complete or does not exist.
+ */
+public class CombinationFile {
+
+    public static final int MAGIC = 0x434D4243;
+    public static final short VERSION = 1;
+    public static final int DEFAULT_CHUNK_ROWS = 1 << 20;
+    private static final int HEADER_SIZE = 24;
+    private static final String MANIFEST = "manifest.properties";
+    private static final Logger log = LogManager.getLogger();
+
+    private final Path directory;
+    private final int cards;
+    private final long rows;
+    private final int chunkRows;
+    private final boolean compressed;
+    private final boolean results;
+    private final CombinationFunction function;
+    //Last chunk read, deflated chunks are only inflated once for a run of lookups
+    private volatile Chunk lastChunk;
+
+    private CombinationFile(Path directory, int cards, int chunkRows, boolean compressed, boolean results,
+                            CombinationFunction function) {
+        this.directory = directory;
+        this.cards = cards;
+        this.rows = Combinations.count(52, cards);
+        this.chunkRows = chunkRows;
+        this.compressed = compressed;
+        this.results = results;
+        this.function = function;
+    }
+
+    /**
+     * Prepare a new combination file and write its manifest.  The chunks are written by {@link #writeAll()}
+     * or {@link #writeChunk(int)}.
+     *
+     * @param directory  directory of the file, created if missing
+     * @param cards      number of cards of each combination
+     * @param chunkRows  number of rows of each chunk
+     * @param compressed true to deflate the chunks
+     * @param function   result of each combination, or null to only store the cards
+     * @return the file
+     * @throws RuntimeException If the directory or the manifest cannot be written
+     */
+    public static CombinationFile create(Path directory, int cards, int chunkRows, boolean compressed,
+                                         CombinationFunction function) throws RuntimeException {
+        if (cards < 1 || cards > 7 || chunkRows < 1) {
+            throw new IllegalArgumentException("Cannot store combinations of " + cards + " cards in chunks of "
+                    + chunkRows + " rows");
+        }
+        CombinationFile file = new CombinationFile(directory, cards, chunkRows, compressed, function != null, function);
+        Properties manifest = new Properties();
+        manifest.setProperty("version", Short.toString(VERSION));
+        manifest.setProperty("cards", Integer.toString(cards));
+        manifest.setProperty("rows", Long.toString(file.rows));
+        manifest.setProperty("chunkRows", Integer.toString(chunkRows));
+        manifest.setProperty("chunks", Integer.toString(file.getChunks()));
+        manifest.setProperty("compressed", Boolean.toString(compressed));
+        manifest.setProperty("results", Boolean.toString(file.results));
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(directory.resolve(MANIFEST))) {
+                manifest.store(out, "Combinations of " + cards + " cards in colex order");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("cannot write manifest of " + directory, e);
+        }
+        return file;
+    }
+
+    /**
+     * Open a combination file for lookups.
+     *
+     * @param directory directory holding the manifest and the chunks
+     * @return the file
+     * @throws RuntimeException If the manifest cannot be read or has an unknown version
+     */
+    public static CombinationFile open(Path directory) throws RuntimeException {
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve(MANIFEST))) {
+            manifest.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot read manifest of " + directory, e);
+        }
+        if (!Short.toString(VERSION).equals(manifest.getProperty("version"))) {
+            throw new RuntimeException("Combination file " + directory + " has version "
+                    + manifest.getProperty("version") + ", expected " + VERSION);
+        }
+        return new CombinationFile(directory, Integer.parseInt(manifest.getProperty("cards")),
+                Integer.parseInt(manifest.getProperty("chunkRows")),
+                Boolean.parseBoolean(manifest.getProperty("compressed")),
+                Boolean.parseBoolean(manifest.getProperty("results")), null);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getCards() {
+        return cards;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getChunks() {
+        return (int) ((rows + chunkRows - 1) / chunkRows);
+    }
+
+    /**
+     * @return ranks of the rows of the chunk, from the first to the one after the last
+     */
+    public long[] getChunkRange(int chunk) {
+        long start = (long) chunk * chunkRows;
+        return new long[]{start, Math.min(rows, start + chunkRows)};
+    }
+
+    /**
+     * Write every chunk, in parallel on the fork-join pool.
+     */
+    public void writeAll() throws RuntimeException {
+        IntStream.range(0, getChunks()).parallel().forEach(this::writeChunk);
+    }
+
+    /**
+     * Enumerate the combinations of a chunk and write them with their results.  Chunks are independent,
+     * different chunks can be written by different threads or processes at the same time.
+     *
+     * @throws RuntimeException If the chunk cannot be written
+     */
+    public void writeChunk(int chunk) throws RuntimeException {
+        if (function == null && results) {
+            throw new IllegalStateException("Combination file " + directory + " was opened for reading");
+        }
+        long[] range = getChunkRange(chunk);
+        int count = (int) (range[1] - range[0]);
+        ByteBuffer columns = ByteBuffer.allocate(count * (cards + (results ? 4 : 0)));
+        long combination = Combinations.unrank(range[0], cards);
+        for (int row = 0; row < count; row++) {
+            int i = row * cards;
+            for (long bits = combination; bits != 0; bits &= bits - 1) {
+                columns.put(i++, (byte) (Long.numberOfTrailingZeros(bits) + 1));
+            }
+            if (results) {
+                columns.putInt(count * cards + row * 4, function.apply(combination));
+            }
+            combination = Combinations.next(combination);
+        }
+        byte[] stored = compressed ? deflate(columns.array()) : columns.array();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) (compressed ? 1 : 0)).putInt(chunk).putInt(count)
+                .putInt(stored.length).putInt(checksum(ByteBuffer.wrap(stored))).flip();
+        Path file = chunkPath(chunk);
+        try {
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    ByteBuffer[] buffers = {header, ByteBuffer.wrap(stored)};
+                    while (buffers[1].hasRemaining()) {
+                        channel.write(buffers);
+                    }
+                    channel.force(true);
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("cannot write file " + file, e);
+        }
+        log.debug("Wrote chunk " + chunk + " of " + directory + " with " + count + " combinations");
+    }
+
+    /**
+     * @return true if the chunk file has been written completely
+     */
+    public boolean isChunkWritten(int chunk) {
+        return Files.exists(chunkPath(chunk));
+    }
+
+    Path chunkPath(int chunk) {
+        return directory.resolve(String.format("chunk-%05d.bin", chunk));
+    }
+
+    /**
+     * @param rank position of the combination in colex order
+     * @return mask of the cards of the row, as in a {@link com.hyphenated.card.holder.CardSet}
+     * @throws RuntimeException If the chunk of the row is missing or corrupted
+     */
+    public long getCombination(long rank) throws RuntimeException {
+        Chunk chunk = chunk(rank);
+        int offset = (int) (rank - chunk.start) * cards;
+        long combination = 0;
+        for (int i = 0; i < cards; i++) {
+            combination |= 1L << (chunk.columns.get(offset + i) - 1);
+        }
+        return combination;
+    }
+
+    /**
+     * @param rank position of the combination in colex order, see {@link Combinations#rank(long)}
+     * @return result stored for the combination
+     * @throws RuntimeException If the chunk of the row is missing or corrupted
+     */
+    public int getResult(long rank) throws RuntimeException {
+        if (!results) {
+            throw new IllegalStateException("Combination file " + directory + " has no results");
+        }
+        Chunk chunk = chunk(rank);
+        return chunk.columns.getInt(chunk.rows * cards + (int) (rank - chunk.start) * 4);
+    }
+
+    private Chunk chunk(long rank) {
+        if (rank < 0 || rank >= rows) {
+            throw new IllegalArgumentException("No combination with rank " + rank + " in " + directory);
+        }
+        int number = (int) (rank / chunkRows);
+        Chunk chunk = lastChunk;
+        if (chunk == null || chunk.number != number) {
+            chunk = readChunk(number);
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    private Chunk readChunk(int number) {
+        Path file = chunkPath(number);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.capacity() < HEADER_SIZE || mapped.getInt(0) != MAGIC || mapped.getShort(4) != VERSION
+                    || mapped.getInt(8) != number) {
+                throw new RuntimeException("Chunk file " + file + " has an unknown format");
+            }
+            int count = mapped.getInt(12);
+            int length = mapped.getInt(16);
+            if (mapped.capacity() < HEADER_SIZE + length) {
+                throw new RuntimeException("Chunk file " + file + " has " + mapped.capacity() + " bytes, expected "
+                        + (HEADER_SIZE + length));
+            }
+            ByteBuffer stored = mapped.slice(HEADER_SIZE, length);
+            if (checksum(stored) != mapped.getInt(20)) {
+                throw new RuntimeException("Chunk file " + file + " is corrupted");
+            }
+            ByteBuffer columns = mapped.getShort(6) == 1
+                    ? ByteBuffer.wrap(inflate(stored, count * (cards + (results ? 4 : 0)), file)) : stored;
+            return new Chunk(number, (long) number * chunkRows, count, columns);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot read file " + file, e);
+        }
+    }
+
+    private static byte[] deflate(byte[] columns) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(columns);
+            deflater.finish();
+            ByteBuffer out = ByteBuffer.allocate(columns.length + columns.length / 1000 + 64);
+            while (!deflater.finished()) {
+                if (!out.hasRemaining()) {
+                    out = ByteBuffer.allocate(out.capacity() * 2).put(out.flip());
+                }
+                deflater.deflate(out);
+            }
+            byte[] deflated = new byte[out.position()];
+            out.flip().get(deflated);
+            return deflated;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer stored, int length, Path file) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored.duplicate());
+            byte[] columns = new byte[length];
+            int inflated = inflater.inflate(columns);
+            if (inflated != length || !inflater.finished()) {
+                throw new RuntimeException("Chunk file " + file + " has " + inflated + " bytes of columns, expected "
+                        + length);
+            }
+            return columns;
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Chunk file " + file + " is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int checksum(ByteBuffer stored) {
+        CRC32C crc = new CRC32C();
+        crc.update(stored.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static class Chunk {
+
+        private final int number;
+        private final long start;
+        private final int rows;
+        private final ByteBuffer columns;
+
+        Chunk(int number, long start, int rows, ByteBuffer columns) {
+            this.number = number;
+            this.start = start;
+            this.rows = rows;
+            this.columns = columns;
+        }
+    }
+}
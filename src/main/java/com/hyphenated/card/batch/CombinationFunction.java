@@ -0,0 +1,15 @@
+package com.hyphenated.card.batch;
+
+/**
+ * Result computed for each combination of a {@link CombinationFile}, for example an equity in per mille.
+ * Called from several threads at once.
+ */
+@FunctionalInterface
+public interface CombinationFunction {
+
+    /**
+     * @param cards mask of the cards of the combination, as in a {@link com.hyphenated.card.holder.CardSet}
+     * @return the result stored in the row of the combination
+     */
+    int apply(long cards);
+}
@@ -0,0 +1,212 @@
+package com.hyphenated.card.batch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes the chunks of a {@link CombinationFile} so that a run killed half way resumes where it stopped.
+ * <br /><br />
+ * The chunks written are recorded in checkpoint.bin next to the chunks.  After every chunk the checkpoint is
+ * rewritten into a temporary file, forced to disk and renamed over the old one, so a crash leaves either the
+ * old or the new checkpoint.  A chunk written but not yet recorded is simply written again.
+ * <br /><br />
+ * Chunks are spread over workers by their number: worker w of n takes the chunks c with c % n == w, so
+ * several processes on the host can share a job.  The checkpoint is updated under a file lock and holds the
+ * chunks of every worker.  Each worker writes its chunks in parallel on the fork-join pool.
+ * The checkpoint is big endian:
+ * <pre>
+ *  0  int    magic "CKPT"
+ *  4  int    number of chunks
+ *  8  int    rows per chunk
+ * 12  int    number of longs of the bit set
+ * 16  long[] bit set of the chunks written
+ *     int    CRC32C of everything before
+ * </pre>
+ */
+public class CombinationJob {
+
+    public static final int MAGIC = 0x434B5054;
+    private static final String CHECKPOINT = "checkpoint.bin";
+    private static final String LOCK = "checkpoint.lock";
+    private static final Object CHECKPOINT_LOCK = new Object();
+    private static final Logger log = LogManager.getLogger();
+
+    private final CombinationFile file;
+    private final int chunkRows;
+
+    /**
+     * @param file combination file with the function of the results, from
+     *             {@link CombinationFile#create(Path, int, int, boolean, CombinationFunction)}
+     */
+    public CombinationJob(CombinationFile file) {
+        this.file = file;
+        long[] firstChunk = file.getChunkRange(0);
+        this.chunkRows = (int) (firstChunk[1] - firstChunk[0]);
+    }
+
+    /**
+     * Write every chunk of the worker missing from the checkpoint.
+     *
+     * @param worker   number of this worker, from 0
+     * @param workers  number of workers sharing the job
+     * @param progress called after every chunk, from the thread which wrote it
+     * @throws RuntimeException If a chunk or the checkpoint cannot be written
+     */
+    public void run(int worker, int workers, Consumer<JobProgress> progress) throws RuntimeException {
+        if (worker < 0 || worker >= workers) {
+            throw new IllegalArgumentException("No worker " + worker + " of " + workers);
+        }
+        BitSet completed = readCheckpoint();
+        int[] pending = IntStream.range(0, file.getChunks())
+                .filter(chunk -> chunk % workers == worker && !completed.get(chunk)).toArray();
+        if (!completed.isEmpty()) {
+            log.info("Resuming " + file.getDirectory() + " from chunk " + completed.nextClearBit(0) + ", "
+                    + pending.length + " chunks left for worker " + worker + " of " + workers);
+        }
+        long total = IntStream.of(pending).mapToLong(this::rows).sum();
+        AtomicLong written = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long start = System.nanoTime();
+        //A failed chunk stops the job once the chunks being written are done, nothing keeps running after a failure
+        IntStream.of(pending).parallel().forEach(chunk -> {
+            if (failure.get() != null) {
+                return;
+            }
+            try {
+                file.writeChunk(chunk);
+                int done = markCompleted(chunk);
+                long combinations = written.addAndGet(rows(chunk));
+                progress.accept(new JobProgress(done, file.getChunks(), combinations, total - combinations,
+                        System.nanoTime() - start));
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * @return chunks recorded in the checkpoint, empty if there is no usable checkpoint
+     */
+    public BitSet getCompletedChunks() {
+        return readCheckpoint();
+    }
+
+    /**
+     * @return the first chunk missing from the checkpoint, or the number of chunks if the job is done
+     */
+    public int getFirstMissingChunk() {
+        return Math.min(readCheckpoint().nextClearBit(0), file.getChunks());
+    }
+
+    private long rows(int chunk) {
+        long[] range = file.getChunkRange(chunk);
+        return range[1] - range[0];
+    }
+
+    //Record the chunk, merging with the chunks recorded by other threads and processes
+    private int markCompleted(int chunk) {
+        //File locks are held by the whole JVM, threads have to take turns before locking
+        synchronized (CHECKPOINT_LOCK) {
+            return markCompletedLocked(chunk);
+        }
+    }
+
+    private int markCompletedLocked(int chunk) {
+        try (FileChannel lockChannel = FileChannel.open(file.getDirectory().resolve(LOCK),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = lockChannel.lock();
+            try {
+                BitSet completed = readCheckpoint();
+                completed.set(chunk);
+                writeCheckpoint(completed);
+                return completed.cardinality();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("cannot update checkpoint of " + file.getDirectory(), e);
+        }
+    }
+
+    private BitSet readCheckpoint() {
+        Path path = file.getDirectory().resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return new BitSet(file.getChunks());
+        }
+        try {
+            ByteBuffer checkpoint = ByteBuffer.wrap(Files.readAllBytes(path));
+            int words = checkpoint.capacity() >= 16 ? checkpoint.getInt(12) : -1;
+            if (words < 0 || checkpoint.capacity() != 16 + words * 8 + 4 || checkpoint.getInt(0) != MAGIC
+                    || checksum(checkpoint.slice(0, 16 + words * 8)) != checkpoint.getInt(16 + words * 8)) {
+                throw new RuntimeException("Checkpoint " + path + " is corrupted");
+            }
+            if (checkpoint.getInt(4) != file.getChunks() || checkpoint.getInt(8) != chunkRows) {
+                log.warn("Checkpoint " + path + " is for " + checkpoint.getInt(4) + " chunks of " + checkpoint.getInt(8)
+                        + " rows, starting over");
+                return new BitSet(file.getChunks());
+            }
+            long[] bits = new long[words];
+            checkpoint.position(16).asLongBuffer().get(bits);
+            return BitSet.valueOf(bits);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot read checkpoint " + path, e);
+        }
+    }
+
+    private void writeCheckpoint(BitSet completed) throws IOException {
+        long[] bits = completed.toLongArray();
+        ByteBuffer checkpoint = ByteBuffer.allocate(16 + bits.length * 8 + 4);
+        checkpoint.putInt(MAGIC).putInt(file.getChunks()).putInt(chunkRows).putInt(bits.length);
+        checkpoint.asLongBuffer().put(bits);
+        checkpoint.putInt(16 + bits.length * 8, checksum(checkpoint.slice(0, 16 + bits.length * 8)));
+        checkpoint.rewind();
+        Path directory = file.getDirectory();
+        Path temporary = Files.createTempFile(directory, CHECKPOINT, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (checkpoint.hasRemaining()) {
+                    channel.write(checkpoint);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        forceDirectory(directory);
+    }
+
+    //Make the rename durable, not every platform can open a directory
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot force directory " + directory, e);
+        }
+    }
+
+    private static int checksum(ByteBuffer content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+}
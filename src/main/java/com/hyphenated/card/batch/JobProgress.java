@@ -0,0 +1,70 @@
+package com.hyphenated.card.batch;
+
+import java.time.Duration;
+
+/**
+ * Progress of a {@link CombinationJob} after a chunk: chunks done overall and the speed of this run.
+ */
+public class JobProgress {
+
+    private final int completedChunks;
+    private final int chunks;
+    private final long combinations;
+    private final long remainingCombinations;
+    private final long elapsedNanos;
+
+    public JobProgress(int completedChunks, int chunks, long combinations, long remainingCombinations,
+                       long elapsedNanos) {
+        this.completedChunks = completedChunks;
+        this.chunks = chunks;
+        this.combinations = combinations;
+        this.remainingCombinations = remainingCombinations;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return chunks in the checkpoint, including those of earlier runs and other workers
+     */
+    public int getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return combinations written by this run
+     */
+    public long getCombinations() {
+        return combinations;
+    }
+
+    /**
+     * @return combinations this run still has to write
+     */
+    public long getRemainingCombinations() {
+        return remainingCombinations;
+    }
+
+    /**
+     * @return combinations written per second by this run
+     */
+    public double getCombinationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : combinations * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return time left at the speed of this run so far
+     */
+    public Duration getEstimatedTimeLeft() {
+        double rate = getCombinationsPerSecond();
+        return rate == 0 ? Duration.ZERO : Duration.ofMillis((long) (remainingCombinations / rate * 1000));
+    }
+
+    @Override
+    public String toString() {
+        return completedChunks + "/" + chunks + " chunks (" + completedChunks * 100 / chunks + "%); "
+                + (long) getCombinationsPerSecond() + " combinations/s; ETA " + getEstimatedTimeLeft();
+    }
+}
@@ -0,0 +1,67 @@
+package com.hyphenated.card.controller;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.EquityEstimate;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
+import com.hyphenated.card.service.EquityCacheStatistics;
+import com.hyphenated.card.service.EquityQueryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller answering the odds of a hand, over REST and over STOMP.
+ * <br /><br />
+ * Cards are the names of the {@link Card} values, comma separated in the request parameters, like:
+ * pokerserverurl.com/equity?hand=ACE_OF_SPADES,KING_OF_SPADES&board=TEN_OF_HEARTS,TWO_OF_CLUBS,NINE_OF_SPADES&opponents=2
+ * <br /><br />
+ * Over STOMP an {@link EquityQuery} is sent to /app/equity and the answer comes back on /user/queue/equity.
+ */
+@RestController
+public class EquityController {
+
+    public static final String EQUITY = "/equity";
+    public static final String EQUITY_STATISTICS = "/equity/statistics";
+
+    @Autowired
+    private EquityQueryService equityQueryService;
+
+    /**
+     * @param hand      the two hole cards
+     * @param board     known community cards, none before the flop
+     * @param opponents number of opponents still in the hand
+     * @return {@link EquityEstimate} with the equity and its confidence interval
+     */
+    @GetMapping(EQUITY)
+    public EquityEstimate getEquity(@RequestParam("hand") Card[] hand,
+                                    @RequestParam(value = "board", required = false) Card[] board,
+                                    @RequestParam(value = "opponents", defaultValue = "1") int opponents) {
+        return query(hand, board, opponents);
+    }
+
+    @MessageMapping(EQUITY)
+    @SendToUser("/queue" + EQUITY)
+    public EquityEstimate getEquity(EquityQuery query) {
+        return query(query.getHand(), query.getBoard(), query.getOpponents());
+    }
+
+    /**
+     * @return hits, misses and size of the shared equity cache
+     */
+    @GetMapping(EQUITY_STATISTICS)
+    public EquityCacheStatistics getStatistics() {
+        return equityQueryService.getStatistics();
+    }
+
+    private EquityEstimate query(Card[] hand, Card[] board, int opponents) {
+        if (hand == null || hand.length != 2) {
+            throw new IllegalArgumentException("A hand holds 2 cards");
+        }
+        Board knownBoard = new Board(board == null ? new Card[0] : board);
+        return equityQueryService.query(new Hand(hand[0], hand[1]), knownBoard, opponents);
+    }
+}
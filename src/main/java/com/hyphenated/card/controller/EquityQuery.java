@@ -0,0 +1,17 @@
+package com.hyphenated.card.controller;
+
+import com.hyphenated.card.enums.Card;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Equity question sent over STOMP, the same parameters as the REST endpoint of the {@link EquityController}.
+ */
+@Getter
+@Setter
+public class EquityQuery {
+
+    private Card[] hand;
+    private Card[] board = new Card[0];
+    private int opponents = 1;
+}
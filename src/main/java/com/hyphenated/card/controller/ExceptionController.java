@@ -65,6 +65,22 @@ public class ExceptionController {
         return error;
     }
 
+    /**
+     * Handles any Illegal Argument Exception from a controller method, like invalid cards
+     *
+     * @param e The exception that was thrown
+     * @return JSON Map with error messages specific to the illegal argument exception thrown
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public @ResponseBody Map<String, String> handleIllegalArgumentException(IllegalArgumentException e) {
+        Map<String, String> error = new HashMap<String, String>();
+        error.put("error", "Invalid parameter.");
+        error.put("errorDetails", e.getMessage());
+        log.error("Error: " + e.getMessage());
+        return error;
+    }
+
     /**
      * MissingServletRequestParameterException handler.  This exception will occur whenever
      * a controller method does not receive a required request parameter.
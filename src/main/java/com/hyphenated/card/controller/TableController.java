@@ -31,6 +31,8 @@ import com.hyphenated.card.enums.Payment;
 import com.hyphenated.card.service.GameService;
 import com.hyphenated.card.service.PlayerServiceManager;
 import com.hyphenated.card.service.PokerHandService;
+import com.hyphenated.card.service.TableMailboxService;
+import com.hyphenated.card.service.TableMailboxStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -39,6 +41,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -63,6 +66,8 @@ public class TableController {
     private PokerHandService handService;
     @Autowired
     private PlayerServiceManager playerServiceManager;
+    @Autowired
+    private TableMailboxService tableMailboxService;
 
 
     /**
@@ -76,6 +81,8 @@ public class TableController {
      *
      * @param gameName   Name to identify this game
      * @param blindLevel Type of the game that will be played
+     * @param runItTwice Deal a second board and split each pot between the two runs when every player left in a
+     *                   hand is all-in.  Optional, false by default.
      * @return {"gameId":xxxx}.  The Java Method returns the Map<String,Long> which is converted
      * by Spring to the JSON object.
      */
@@ -84,7 +91,9 @@ public class TableController {
                                              @RequestParam(PASSWORD) String password,
                                              @RequestParam(MAX_PLAYERS) int maxPlayers,
                                              @RequestParam(BLIND_LEVEL) BlindLevel blindLevel,
-                                             @RequestParam(PLAYER_ID_STRING) String playerId) {
+                                             @RequestParam(PLAYER_ID_STRING) String playerId,
+                                             @RequestParam(value = "runItTwice", defaultValue = "false")
+                                             boolean runItTwice) {
         //TODO:evaluate if player is allowed and setTableCoins not linked to playerAccount
 
         Optional<Player> optionalPlayer = playerServiceManager.findPlayerById(playerId);
@@ -92,6 +101,7 @@ public class TableController {
             Player player = optionalPlayer.get();
             if (player.getPayments().getPayments().contains(Payment.GAME_CREATOR)) {
                 Game game = new Game(blindLevel, maxPlayers, gameName, true, password);
+                game.setRunItTwice(runItTwice);
                 game = gameService.saveGame(game);
                 player.setPrivateGameCreator(true);
                 return ResponseEntity.ok(game.getId());
@@ -116,13 +126,23 @@ public class TableController {
             Player player = optionalPlayer.get();
             if (game.getGameStatus().equals(GameStatus.NOT_STARTED) && player.equals(game.getPrivateGameCreator())) {
                 gameService.startGame(game);
-                handService.startNewHand(game);
+                tableMailboxService.execute(game.getId(), () -> handService.startNewHand(game));
                 return ResponseEntity.ok().body(null);
             }
         }
         return ResponseEntity.badRequest().body(null);
     }
 
+    /**
+     * Queue depth and action latency of the mailbox of every table
+     *
+     * @return JSON list with one entry per table
+     */
+    @GetMapping("/tables/statistics")
+    public @ResponseBody List<TableMailboxStatistics> getTableStatistics() {
+        return tableMailboxService.getStatistics();
+    }
+
     /**
      * Sometimes it is nice to know that everything is working
      *
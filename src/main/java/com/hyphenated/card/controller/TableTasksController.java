@@ -17,6 +17,9 @@ import static com.hyphenated.card.WsUrlConstant.*;
 @Controller
 public class TableTasksController {
 
+    public static final String RUNOUT_EQUITIES = "/runout_equities";
+    public static final String SECOND_BOARD = "/second_board";
+
     @Autowired
     private SimpMessagingTemplate template;
     @Setter
@@ -78,6 +81,17 @@ public class TableTasksController {
         getPlayerUuidStream(gameId).forEach(uuid -> template.convertAndSendToUser(uuid, RIVER, river.name()));
     }
 
+    /**
+     * Equities of the players who are all-in over every runout of the board, by player name
+     */
+    public void sendRunoutEquities(Map<String, Double> equities, String gameId) {
+        getPlayerUuidStream(gameId).forEach(uuid -> template.convertAndSendToUser(uuid, RUNOUT_EQUITIES, equities));
+    }
+
+    public void sendSecondBoard(Cards board, String gameId) {
+        getPlayerUuidStream(gameId).forEach(uuid -> template.convertAndSendToUser(uuid, SECOND_BOARD, board.getCards().stream().map(Card::name).toList()));
+    }
+
     public void endGame(PlayerCards playerCards, String gameId, PlayersWonOrderDTO playersWonOrder) {
         getPlayerUuidStream(gameId).forEach(uuid -> template.convertAndSendToUser(uuid, AMOUNTS_WON, new EndGameDTO(playerCards, playersWonOrder)));
     }
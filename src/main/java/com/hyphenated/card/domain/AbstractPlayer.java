@@ -27,11 +27,9 @@ import com.hyphenated.card.SharedUtils;
 import com.hyphenated.card.dto.PlayerDTO;
 import com.hyphenated.card.enums.PlayerNames;
 import jakarta.persistence.Id;
-import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.NonNull;
 
-import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -49,9 +47,6 @@ public abstract class AbstractPlayer implements Comparable<AbstractPlayer> {
     private PlayerHand playerHand;
     private boolean playerInButton;
     private Game game;
-    @Transient
-    @Nullable
-    private Thread thread;
 
     public PlayerDTO getPlayerDTO() {
         return new PlayerDTO(id, name, chips, tableChips, gamePosition, sittingOut, Collections.emptyList());
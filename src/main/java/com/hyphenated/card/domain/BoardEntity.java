@@ -69,4 +69,24 @@ public class BoardEntity {
         turn = deck.dealCard();
         river = deck.dealCard();
     }
+
+    /**
+     * Board of the second run when the pot is run twice: the cards already shown are kept,
+     * the others are dealt from the deck.
+     *
+     * @param board      board of the first run
+     * @param knownCards number of cards of the first board already shown, 0, 3 or 4
+     * @param deck       deck of the hand
+     */
+    public BoardEntity(BoardEntity board, int knownCards, Deck deck) {
+        flop1 = knownCards >= 3 ? board.flop1 : deck.dealCard();
+        flop2 = knownCards >= 3 ? board.flop2 : deck.dealCard();
+        flop3 = knownCards >= 3 ? board.flop3 : deck.dealCard();
+        turn = knownCards >= 4 ? board.turn : deck.dealCard();
+        river = deck.dealCard();
+    }
+
+    public List<Card> getCards() {
+        return List.of(flop1, flop2, flop3, turn, river);
+    }
 }
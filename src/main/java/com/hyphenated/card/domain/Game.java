@@ -35,6 +35,11 @@ public class Game {
     @NonNull
     private GameStatus gameStatus = GameStatus.NOT_STARTED;
     private final boolean privateGame;
+    /**
+     * -- GETTER --
+     * When every player left in a hand is all-in, deal a second board and split each pot between the two runs
+     */
+    private boolean runItTwice;
     @Nullable
     @Setter(value = AccessLevel.NONE)
     private final String password;
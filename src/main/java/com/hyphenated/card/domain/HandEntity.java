@@ -24,19 +24,21 @@ THE SOFTWARE.
 package com.hyphenated.card.domain;
 
 import com.hyphenated.card.Deck;
+import com.hyphenated.card.enums.Card;
 import com.hyphenated.card.holder.Board;
 import jakarta.persistence.*;
 import lombok.*;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 @Getter
 @Setter
-@NoArgsConstructor(force = true)
 @EqualsAndHashCode
 @Embeddable
 public class HandEntity {
@@ -56,10 +58,30 @@ public class HandEntity {
     private Player lastBetOrRaise = null;
     @Embedded
     @NonNull
-    private final Deck deck = new Deck();
+    private final Deck deck;
     @Embedded
     @NonNull
-    private final BoardEntity boardEntity = new BoardEntity(deck);
+    private final BoardEntity boardEntity;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "flop1", column = @Column(name = "second_flop1")),
+            @AttributeOverride(name = "flop2", column = @Column(name = "second_flop2")),
+            @AttributeOverride(name = "flop3", column = @Column(name = "second_flop3")),
+            @AttributeOverride(name = "turn", column = @Column(name = "second_turn")),
+            @AttributeOverride(name = "river", column = @Column(name = "second_river"))
+    })
+    @Nullable
+    @Setter(value = AccessLevel.NONE)
+    private BoardEntity secondBoardEntity = null;
+    /**
+     * -- GETTER --
+     * Chips each folded player put in the pot during this hand.
+     */
+    @ElementCollection
+    @MapKeyJoinColumn
+    @Setter(value = AccessLevel.NONE)
+    @NonNull
+    private final Map<Player, Integer> foldedBets = new LinkedHashMap<>();
     private int pot;
     private int betAmount;
     /**
@@ -71,10 +93,40 @@ public class HandEntity {
      */
     private int lastBetAmount;
 
+    public HandEntity() {
+        this(new Deck());
+    }
+
+    /**
+     * @param deck deck to deal the board and the hole cards from, the board is dealt first
+     */
+    public HandEntity(Deck deck) {
+        this.deck = deck;
+        this.boardEntity = new BoardEntity(deck);
+    }
+
     public Board getBoard() {
         return new Board(boardEntity.getFlop1(), boardEntity.getFlop2(), boardEntity.getFlop3(), boardEntity.getRiver(), boardEntity.getTurn());
     }
 
+    /**
+     * Deal the board of the second run, keeping the cards already shown.
+     *
+     * @param knownCards number of board cards already shown, 0, 3 or 4
+     * @throws IllegalStateException If the second board was already dealt
+     */
+    public void dealSecondBoard(int knownCards) {
+        if (secondBoardEntity != null) {
+            throw new IllegalStateException("The second board is already dealt");
+        }
+        secondBoardEntity = new BoardEntity(boardEntity, knownCards, deck);
+    }
+
+    @Nullable
+    public Board getSecondBoard() {
+        return secondBoardEntity == null ? null : new Board(secondBoardEntity.getCards().toArray(new Card[0]));
+    }
+
     public Optional<Player> findPlayerInBTN() {
         return players.stream().filter(Player::isPlayerInButton).findAny();
     }
@@ -83,6 +135,14 @@ public class HandEntity {
         players.remove(player);
     }
 
+    /**
+     * Take a folded player out of the hand, keeping the chips the player bet in {@link #getFoldedBets()}.
+     */
+    public void foldPlayer(Player player) {
+        players.remove(player);
+        foldedBets.put(player, player.getPlayerHand().getBetAmount());
+    }
+
     public void addPlayer(Player player) {
         players.add(player);
     }
@@ -55,9 +55,6 @@ public class NPC extends AbstractPlayer {
     @ManyToOne
     @JoinColumn
     private Game game;
-    @Transient
-    @Nullable
-    private Thread thread;
     private int probability = SharedUtils.generateProbabilityOfNPC();
 
     public PlayerDTO getPlayerDTO() {
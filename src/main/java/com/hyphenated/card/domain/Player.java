@@ -61,9 +61,6 @@ public class Player extends AbstractPlayer {
     @ManyToOne
     @JoinColumn
     private Game game;
-    @Transient
-    @Nullable
-    private Thread thread;
     @Embedded
     @Setter(value = AccessLevel.NONE)
     private PlayerPayments payments;
@@ -0,0 +1,214 @@
+package com.hyphenated.card.eval;
+
+/**
+ * Hand evaluator for nodes that cannot afford the 2+2 lookup table.
+ * <br /><br />
+ * Cards are folded into four 13 bit suit masks and the hand is classified with bit operations over the
+ * ranks.  The position of the hand inside its category is the colex rank of its kickers, which orders
+ * kickers from the highest card down exactly like poker does.  The only table is the position of the
+ * 1277 five rank sets used for high card and flush hands (16 KB), so the evaluator fits in the CPU cache.
+ * <br /><br />
+ * Results are on the same scale as {@link TwoPlusTwoHandEvaluator}: the category in the bits above 12,
+ * the position inside the category below, so {@link HandRank} comparisons and types are unchanged.
+ */
+public class CompactHandEvaluator implements HandRankEvaluator {
+
+    private static final int HIGH_CARD = 1 << 12;
+    private static final int PAIR = 2 << 12;
+    private static final int TWO_PAIR = 3 << 12;
+    private static final int THREE_OF_A_KIND = 4 << 12;
+    private static final int STRAIGHT = 5 << 12;
+    private static final int FLUSH = 6 << 12;
+    private static final int FULL_HOUSE = 7 << 12;
+    private static final int FOUR_OF_A_KIND = 8 << 12;
+    private static final int STRAIGHT_FLUSH = 9 << 12;
+
+    private static final int WHEEL = 0x100F;
+    private static final int[][] CHOOSE = new int[14][6];
+    //Bit of each evaluation index in the suit masks: 16 bits per suit, one bit per rank
+    private static final long[] CARD_BITS = new long[53];
+    //Position of each five rank set among the five rank sets that are not straights, 1 based
+    private static final short[] FIVE_RANKS = new short[1 << 13];
+
+    private static final CompactHandEvaluator instance = new CompactHandEvaluator();
+
+    static {
+        for (int n = 0; n < CHOOSE.length; n++) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k < CHOOSE[n].length && k <= n; k++) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + (k < n ? CHOOSE[n - 1][k] : 0);
+            }
+        }
+        for (int card = 1; card < CARD_BITS.length; card++) {
+            int rank = (card - 1) >> 2;
+            int suit = (card - 1) & 3;
+            CARD_BITS[card] = 1L << (suit * 16 + rank);
+        }
+        //Colex order is strength order, count the non straights below each set
+        short position = 0;
+        for (int colex = 0; colex < CHOOSE[13][5]; colex++) {
+            int ranks = unrankColex(colex, 5);
+            if (straightHigh(ranks) < 0) {
+                FIVE_RANKS[ranks] = ++position;
+            }
+        }
+    }
+
+    /**
+     * The evaluator has no per instance state, use the shared instance.
+     *
+     * @return {@link CompactHandEvaluator} instance
+     */
+    public static CompactHandEvaluator getInstance() {
+        return instance;
+    }
+
+    @Override
+    public int evaluate(int c0, int c1, int c2, int c3, int c4, int c5, int c6) {
+        long[] bits = CARD_BITS;
+        return evaluate(bits[c0] | bits[c1] | bits[c2] | bits[c3] | bits[c4] | bits[c5] | bits[c6]);
+    }
+
+    @Override
+    public int evaluate(int c0, int c1, int c2, int c3, int c4) {
+        long[] bits = CARD_BITS;
+        return evaluate(bits[c0] | bits[c1] | bits[c2] | bits[c3] | bits[c4]);
+    }
+
+    @Override
+    public int evaluate(int c0, int c1, int c2, int c3, int c4, int c5) {
+        long[] bits = CARD_BITS;
+        return evaluate(bits[c0] | bits[c1] | bits[c2] | bits[c3] | bits[c4] | bits[c5]);
+    }
+
+    @Override
+    public int evaluate(int[] cards, int offset) {
+        long[] bits = CARD_BITS;
+        long hand = 0;
+        for (int i = offset; i < offset + 7; i++) {
+            hand |= bits[cards[i]];
+        }
+        return evaluate(hand);
+    }
+
+    /**
+     * Evaluate the best five card hand of five to seven cards.
+     *
+     * @param suits four 13 bit rank masks, clubs in the lowest 16 bits, then diamonds, hearts and spades
+     * @return the value of the {@link HandRank}
+     */
+    static int evaluate(long suits) {
+        int c = (int) suits & 0x1FFF;
+        int d = (int) (suits >>> 16) & 0x1FFF;
+        int h = (int) (suits >>> 32) & 0x1FFF;
+        int s = (int) (suits >>> 48) & 0x1FFF;
+
+        //With at most seven cards a flush excludes four of a kind and full house
+        int flush = Integer.bitCount(c) >= 5 ? c : Integer.bitCount(d) >= 5 ? d
+                : Integer.bitCount(h) >= 5 ? h : Integer.bitCount(s) >= 5 ? s : 0;
+        if (flush != 0) {
+            int high = straightHigh(flush);
+            if (high >= 0) {
+                return STRAIGHT_FLUSH + straightPosition(high);
+            }
+            return FLUSH + FIVE_RANKS[highest(flush, 5)];
+        }
+
+        int ranks = c | d | h | s;
+        int quads = c & d & h & s;
+        int threes = (c & d & h) | (c & d & s) | (c & h & s) | (d & h & s);
+        int twos = (c & d) | (c & h) | (c & s) | (d & h) | (d & s) | (h & s);
+        if (quads != 0) {
+            int quad = top(quads);
+            return FOUR_OF_A_KIND + quad * 12 + without(top(ranks & ~(1 << quad)), quad) + 1;
+        }
+        if (threes != 0) {
+            int trips = top(threes);
+            int pairs = twos & ~(1 << trips);
+            if (pairs != 0) {
+                return FULL_HOUSE + trips * 12 + without(top(pairs), trips) + 1;
+            }
+        }
+        int high = straightHigh(ranks);
+        if (high >= 0) {
+            return STRAIGHT + straightPosition(high);
+        }
+        if (threes != 0) {
+            int trips = top(threes);
+            return THREE_OF_A_KIND + trips * 66 + colex(remove(highest(ranks & ~(1 << trips), 2), trips)) + 1;
+        }
+        if (Integer.bitCount(twos) >= 2) {
+            int pairs = highest(twos, 2);
+            int highPair = top(pairs);
+            int lowPair = Integer.numberOfTrailingZeros(pairs);
+            int kicker = top(ranks & ~pairs);
+            return TWO_PAIR + colex(pairs) * 11 + without(without(kicker, highPair), lowPair) + 1;
+        }
+        if (twos != 0) {
+            int pair = top(twos);
+            return PAIR + pair * 220 + colex(remove(highest(ranks & ~twos, 3), pair)) + 1;
+        }
+        return HIGH_CARD + FIVE_RANKS[highest(ranks, 5)];
+    }
+
+    /**
+     * @return the rank of the highest card of the best straight in the mask, or -1 if there is no straight
+     */
+    private static int straightHigh(int ranks) {
+        int runs = ranks & (ranks << 1) & (ranks << 2) & (ranks << 3) & (ranks << 4);
+        if (runs != 0) {
+            return top(runs);
+        }
+        return (ranks & WHEEL) == WHEEL ? 3 : -1;
+    }
+
+    //Five high (the wheel) is the lowest straight at position 1, ace high the highest at 10
+    private static int straightPosition(int high) {
+        return high - 2;
+    }
+
+    private static int top(int mask) {
+        return 31 - Integer.numberOfLeadingZeros(mask);
+    }
+
+    //Keep only the n highest ranks of the mask
+    private static int highest(int mask, int n) {
+        while (Integer.bitCount(mask) > n) {
+            mask &= mask - 1;
+        }
+        return mask;
+    }
+
+    //Index of a rank among the ranks left once another rank is taken out
+    private static int without(int rank, int removed) {
+        return rank > removed ? rank - 1 : rank;
+    }
+
+    //Close the gap left by a rank that cannot be a kicker
+    private static int remove(int mask, int removed) {
+        return (mask & ((1 << removed) - 1)) | ((mask >>> (removed + 1)) << removed);
+    }
+
+    //Colex rank of a set of ranks, which compares the highest ranks first
+    private static int colex(int mask) {
+        int colex = 0;
+        for (int k = 1; mask != 0; k++) {
+            colex += CHOOSE[Integer.numberOfTrailingZeros(mask)][k];
+            mask &= mask - 1;
+        }
+        return colex;
+    }
+
+    private static int unrankColex(int colex, int k) {
+        int mask = 0;
+        for (; k > 0; k--) {
+            int n = k - 1;
+            while (n + 1 < CHOOSE.length && CHOOSE[n + 1][k] <= colex) {
+                n++;
+            }
+            colex -= CHOOSE[n][k];
+            mask |= 1 << n;
+        }
+        return mask;
+    }
+}
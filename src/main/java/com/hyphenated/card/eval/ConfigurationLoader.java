@@ -27,21 +27,152 @@ import com.google.common.io.Closeables;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Utility class for loading configuration and resource files
  */
 public class ConfigurationLoader {
 
-    private static final int HAND_RANK_SIZE = 32487834;
+    static final int HAND_RANK_SIZE = 32487834;
+    /**
+     * System property pointing at a hand rank file on disk. When set, the file is memory-mapped
+     * instead of being looked up on the classpath.
+     */
+    public static final String HAND_RANK_PATH_PROPERTY = "handranks.path";
+    /**
+     * System property naming the directory where a generated hand rank table is kept between restarts.
+     * Defaults to .pokerserver in the home directory of the user.
+     */
+    public static final String HAND_RANK_CACHE_PROPERTY = "handranks.cache.dir";
+    private static final String HAND_RANK_CACHE_FILE = "HandRanks.dat";
+    /**
+     * System property selecting the hand evaluator: {@code twoplustwo} (default) for the lookup table,
+     * {@code compact} for {@link CompactHandEvaluator} on nodes that cannot spare the memory for the table.
+     */
+    public static final String HAND_EVALUATOR_PROPERTY = "hand.evaluator";
     private static final Logger log = LogManager.getLogger();
 
+    /**
+     * Load the hand rank lookup table, preferring a memory-mapped file over a heap copy.
+     * <br /><br />
+     * The file named by the {@value #HAND_RANK_PATH_PROPERTY} system property is mapped if set.
+     * Otherwise the classpath resource is mapped directly when it lives on the file system
+     * (exploded classes directory), and only copied into the heap when it is packaged in an archive.
+     * Without a resource the table from the {@value #HAND_RANK_CACHE_PROPERTY} directory is mapped,
+     * it is generated on the first start.
+     * A mapped table is not charged to the heap and is shared through the page cache by every JVM on the host.
+     *
+     * @param name classpath name of the precomputed hand rank file, used when no path is configured
+     * @return read-only view of the hand rank lookup values
+     * @throws RuntimeException If loading this file fails, prepare to crash because hand evals will not work
+     */
+    public IntBuffer loadHandRanks(String name) throws RuntimeException {
+        String configuredPath = System.getProperty(HAND_RANK_PATH_PROPERTY);
+        if (configuredPath != null) {
+            return mapHandRankFile(Path.of(configuredPath));
+        }
+        URL resource = ConfigurationLoader.class.getResource(name);
+        if (resource == null) {
+            return loadCachedHandRanks();
+        }
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return mapHandRankFile(Path.of(resource.toURI()));
+            } catch (URISyntaxException e) {
+                log.warn("Cannot map resource " + resource + ", falling back to a heap copy");
+            }
+        }
+        return IntBuffer.wrap(loadHandRankResource(name)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Map the generated hand rank table from the cache directory, generating it first if it is missing or unusable.
+     * The table is written to a temporary file and moved into place, so other nodes sharing the
+     * directory never see a partial table.
+     *
+     * @return read-only view of the hand rank lookup values
+     * @throws RuntimeException If the table can neither be read nor written
+     */
+    public IntBuffer loadCachedHandRanks() throws RuntimeException {
+        Path directory = Path.of(System.getProperty(HAND_RANK_CACHE_PROPERTY,
+                Path.of(System.getProperty("user.home"), ".pokerserver").toString()));
+        Path file = directory.resolve(HAND_RANK_CACHE_FILE);
+        if (Files.exists(file)) {
+            try {
+                return mapHandRankFile(file);
+            } catch (RuntimeException e) {
+                log.warn("Cannot use cached hand rank file " + file + ", generating it again", e);
+            }
+        }
+        log.info("Generating hand rank table into " + file);
+        long start = System.nanoTime();
+        int[] handRanks = HandRankGenerator.generate();
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, HAND_RANK_CACHE_FILE, ".tmp");
+            try {
+                HandRankFile.write(IntBuffer.wrap(handRanks), temporary);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("cannot write file " + file, e);
+        }
+        log.info("Generated hand rank table in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return mapHandRankFile(file);
+    }
+
+    /**
+     * Get the hand evaluator selected by the {@value #HAND_EVALUATOR_PROPERTY} system property.
+     *
+     * @return shared instance of the configured {@link HandRankEvaluator}
+     * @throws IllegalArgumentException If the property names an unknown evaluator
+     */
+    public HandRankEvaluator loadHandRankEvaluator() {
+        String name = System.getProperty(HAND_EVALUATOR_PROPERTY, "twoplustwo");
+        switch (name) {
+            case "twoplustwo":
+                return TwoPlusTwoHandEvaluator.getInstance();
+            case "compact":
+                return CompactHandEvaluator.getInstance();
+            default:
+                throw new IllegalArgumentException("Unknown hand evaluator " + name);
+        }
+    }
+
+    /**
+     * Memory-map a hand rank file. Ranks are read from the mapping directly, there is no copy into the heap.
+     * The file is verified by {@link HandRankFile#read(ByteBuffer, int, Object)} before it is used.
+     *
+     * @param path location of the precomputed hand rank file
+     * @return read-only view of the hand rank lookup values
+     * @throws RuntimeException If the file cannot be mapped, is shorter than the lookup table or is corrupted
+     */
+    public IntBuffer mapHandRankFile(Path path) throws RuntimeException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            //The mapping stays valid after the channel is closed
+            return HandRankFile.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), HAND_RANK_SIZE, path);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot map file " + path, e);
+        }
+    }
+
     /**
      * Load hand rank lookup table for poker hands.
-     * This will load the file and do the byte conversions so we get a nice integer array back.
+     * The whole resource is read and verified by {@link HandRankFile#read(ByteBuffer, int, Object)},
+     * then copied into an integer array.
      *
      * @param name file name of the precomputed hand rank file
      * @return integer array of hand rank lookup values in accordance with the 2+2 hand evaluation algorithm.
@@ -49,32 +180,20 @@ public class ConfigurationLoader {
      */
     public int[] loadHandRankResource(String name)
             throws RuntimeException {
-        int[] handRankArray = new int[HAND_RANK_SIZE];
+        InputStream in = ConfigurationLoader.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new RuntimeException("cannot find resource " + name);
+        }
         try {
-            int tableSize = HAND_RANK_SIZE * 4;
-            byte[] b = new byte[tableSize];
-            InputStream br = null;
-            try {
-                br = new BufferedInputStream(ConfigurationLoader.class.getResourceAsStream(name));
-                int bytesRead = br.read(b, 0, tableSize);
-                if (bytesRead != tableSize) {
-                    log.error("Read " + bytesRead + " bytes out of " + tableSize);
-                }
-            } finally {
-                Closeables.closeQuietly(br);
-            }
-            for (int i = 0; i < HAND_RANK_SIZE; i++) {
-                handRankArray[i] = littleEndianByteArrayToInt(b, i * 4);
-            }
+            IntBuffer table = HandRankFile.read(ByteBuffer.wrap(in.readAllBytes()), HAND_RANK_SIZE, name);
+            int[] handRankArray = new int[HAND_RANK_SIZE];
+            table.get(handRankArray);
             return handRankArray;
         } catch (IOException e) {
             throw new RuntimeException("cannot read resource " + name, e);
+        } finally {
+            Closeables.closeQuietly(in);
         }
     }
 
-    private static int littleEndianByteArrayToInt(byte[] b, int offset) {
-        return (b[offset + 3] << 24) + ((b[offset + 2] & 0xFF) << 16)
-                + ((b[offset + 1] & 0xFF) << 8) + (b[offset] & 0xFF);
-    }
-
 }
@@ -0,0 +1,51 @@
+package com.hyphenated.card.eval;
+
+/**
+ * Outcome of a hand against the possible opponent hands and boards: how many of the evaluated
+ * showdowns were won, split or lost.
+ */
+public class Equity {
+
+    private final long wins;
+    private final long draws;
+    private final long losses;
+
+    public Equity(long wins, long draws, long losses) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    /**
+     * @return number of showdowns evaluated
+     */
+    public long getShowdowns() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Share of the pot the hand gets on average, a split pot counts half.
+     *
+     * @return equity between 0 and 1
+     */
+    public double getEquity() {
+        return (wins + draws / 2.0) / getShowdowns();
+    }
+
+    @Override
+    public String toString() {
+        return "Equity " + getEquity() + " (wins: " + wins + ", draws: " + draws + ", losses: " + losses + ")";
+    }
+}
@@ -0,0 +1,59 @@
+package com.hyphenated.card.eval;
+
+/**
+ * Sampled equity of a hand, with the 95% confidence interval of the estimate.
+ */
+public class EquityEstimate {
+
+    private static final double Z_95 = 1.959964;
+
+    private final long samples;
+    private final double equity;
+    private final double standardError;
+
+    public EquityEstimate(long samples, double equity, double standardError) {
+        this.samples = samples;
+        this.equity = equity;
+        this.standardError = standardError;
+    }
+
+    /**
+     * @return number of sampled showdowns
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Share of the pot the hand gets on average, a pot split k ways counts 1/k.
+     *
+     * @return estimated equity between 0 and 1
+     */
+    public double getEquity() {
+        return equity;
+    }
+
+    public double getStandardError() {
+        return standardError;
+    }
+
+    public double getLowerBound() {
+        return Math.max(0, equity - Z_95 * standardError);
+    }
+
+    public double getUpperBound() {
+        return Math.min(1, equity + Z_95 * standardError);
+    }
+
+    /**
+     * @return width of the 95% confidence interval around the equity
+     */
+    public static double intervalWidth(double standardError) {
+        return 2 * Z_95 * standardError;
+    }
+
+    @Override
+    public String toString() {
+        return "Equity " + equity + " [" + getLowerBound() + ", " + getUpperBound() + "] from " + samples + " samples";
+    }
+}
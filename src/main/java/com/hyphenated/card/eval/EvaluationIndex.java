@@ -0,0 +1,52 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.enums.Card;
+
+/**
+ * Precomputed lookup between {@link Card}s and the primitive card indexes used by the 2+2 evaluation
+ * (1 for the two of clubs up to 52 for the ace of spades).
+ */
+public final class EvaluationIndex {
+
+    private static final Card[] CARDS = Card.values();
+    private static final int[] BY_ORDINAL = new int[CARDS.length];
+    private static final Card[] BY_INDEX = new Card[CARDS.length + 1];
+
+    static {
+        for (Card card : CARDS) {
+            BY_ORDINAL[card.ordinal()] = card.getEvaluation();
+            BY_INDEX[card.getEvaluation()] = card;
+        }
+    }
+
+    private EvaluationIndex() {
+    }
+
+    /**
+     * @param card card to look up
+     * @return evaluation index of the card, between 1 and 52
+     */
+    public static int of(Card card) {
+        return BY_ORDINAL[card.ordinal()];
+    }
+
+    /**
+     * @param cards cards to look up, for example {@link com.hyphenated.card.holder.Board#getCards()}
+     * @return evaluation index of each card, in the order of the cards
+     */
+    public static int[] of(Card[] cards) {
+        int[] indexes = new int[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            indexes[i] = of(cards[i]);
+        }
+        return indexes;
+    }
+
+    /**
+     * @param index evaluation index between 1 and 52
+     * @return {@link Card} with that evaluation index
+     */
+    public static Card card(int index) {
+        return BY_INDEX[index];
+    }
+}
@@ -23,6 +23,7 @@ THE SOFTWARE.
 */
 package com.hyphenated.card.eval;
 
+import com.hyphenated.card.enums.Card;
 import com.hyphenated.card.holder.Board;
 import com.hyphenated.card.holder.Hand;
 
@@ -33,11 +34,181 @@ public interface HandRankEvaluator {
 
 	/**
 	 * Evaluates player's hand strength.  HandRank represents an absolute value representation of the hand strength
+	 * <br /><br />
+	 * On the flop or the turn this is the best five card hand of the cards dealt so far, on the same scale as the river.
 	 * 
-	 * @param board 5 board cards
+	 * @param board 3 to 5 board cards
 	 * @param hand 2 cards in players hand
 	 * @return the {@link HandRank} of the particular card configuration
 	 */
-	HandRank evaluate(Board board, Hand hand);
+	default HandRank evaluate(Board board, Hand hand) {
+		return finishWithHand(evaluateBoardPrefix(board), hand);
+	}
+
+	/**
+	 * Evaluates five cards given as {@link EvaluationIndex} values without allocating.
+	 *
+	 * @return the value of the {@link HandRank} for these cards
+	 */
+	int evaluate(int c0, int c1, int c2, int c3, int c4);
+
+	/**
+	 * Evaluates six cards given as {@link EvaluationIndex} values without allocating.
+	 * The rank is the one of the best five of the six cards.
+	 *
+	 * @return the value of the {@link HandRank} for these cards
+	 */
+	int evaluate(int c0, int c1, int c2, int c3, int c4, int c5);
+
+	/**
+	 * Evaluates seven cards given as {@link EvaluationIndex} values without allocating.
+	 * The order of the cards does not matter.
+	 *
+	 * @return the value of the {@link HandRank} for these cards
+	 */
+	int evaluate(int c0, int c1, int c2, int c3, int c4, int c5, int c6);
+
+	/**
+	 * Evaluates seven consecutive cards of an array of {@link EvaluationIndex} values without allocating.
+	 *
+	 * @param cards  card indexes
+	 * @param offset position of the first of the seven cards
+	 * @return the value of the {@link HandRank} for these cards
+	 */
+	int evaluate(int[] cards, int offset);
+
+	/**
+	 * Walk the board cards through the evaluator once.  The returned state can be finished with
+	 * any number of hole card pairs using {@link #finishWithHand(int, Hand)}.
+	 * This is what makes showdowns and equity enumeration cheap: the board is shared by every player.
+	 *
+	 * @param board 3 to 5 board cards
+	 * @return opaque board prefix state, only meaningful to the evaluator that created it
+	 * @throws IllegalArgumentException If the board holds less than 3 or more than 5 cards
+	 */
+	default int evaluateBoardPrefix(Board board) {
+		Card[] cards = board.getCards();
+		switch (cards.length) {
+			case 3:
+				return evaluateBoardPrefix(EvaluationIndex.of(cards[0]), EvaluationIndex.of(cards[1]),
+						EvaluationIndex.of(cards[2]));
+			case 4:
+				return evaluateBoardPrefix(EvaluationIndex.of(cards[0]), EvaluationIndex.of(cards[1]),
+						EvaluationIndex.of(cards[2]), EvaluationIndex.of(cards[3]));
+			case 5:
+				return evaluateBoardPrefix(EvaluationIndex.of(cards[0]), EvaluationIndex.of(cards[1]),
+						EvaluationIndex.of(cards[2]), EvaluationIndex.of(cards[3]), EvaluationIndex.of(cards[4]));
+			default:
+				throw new IllegalArgumentException("Cannot evaluate a board of " + cards.length + " cards");
+		}
+	}
+
+	/**
+	 * Primitive variant of {@link #evaluateBoardPrefix(Board)} over {@link EvaluationIndex} values.
+	 * By default the prefix just packs the board cards, six bits each, an empty slot is 0.
+	 *
+	 * @return opaque board prefix state
+	 */
+	default int evaluateBoardPrefix(int c0, int c1, int c2, int c3, int c4) {
+		return c0 | c1 << 6 | c2 << 12 | c3 << 18 | c4 << 24;
+	}
+
+	/**
+	 * Board prefix of the turn, see {@link #evaluateBoardPrefix(int, int, int, int, int)}.
+	 */
+	default int evaluateBoardPrefix(int c0, int c1, int c2, int c3) {
+		return c0 | c1 << 6 | c2 << 12 | c3 << 18;
+	}
+
+	/**
+	 * Board prefix of the flop, see {@link #evaluateBoardPrefix(int, int, int, int, int)}.
+	 */
+	default int evaluateBoardPrefix(int c0, int c1, int c2) {
+		return c0 | c1 << 6 | c2 << 12;
+	}
+
+	/**
+	 * Add a board card to a flop or turn prefix, so that every runout shares the walk over the known cards.
+	 *
+	 * @param prefix state of 3 or 4 board cards
+	 * @param card   {@link EvaluationIndex} of the next board card
+	 * @return the prefix of the board with the card, the same as walking every board card again
+	 */
+	default int extendBoardPrefix(int prefix, int card) {
+		int shift = (prefix >>> 18 & 0x3F) == 0 ? 18 : 24;
+		return prefix | card << shift;
+	}
+
+	/**
+	 * Resolve a player's hand against a board prefix.
+	 *
+	 * @param prefix state returned by {@link #evaluateBoardPrefix(Board)}
+	 * @param hand   2 cards in players hand
+	 * @return the {@link HandRank} of the board and the hand
+	 */
+	default HandRank finishWithHand(int prefix, Hand hand) {
+		Card[] cards = hand.getCards();
+		return new HandRank(finish(prefix, EvaluationIndex.of(cards[0]), EvaluationIndex.of(cards[1])));
+	}
+
+	/**
+	 * Primitive variant of {@link #finishWithHand(int, Hand)}, does not allocate.
+	 *
+	 * @param prefix state returned by {@link #evaluateBoardPrefix(Board)}
+	 * @return the value of the {@link HandRank} of the board and the two cards
+	 */
+	default int finish(int prefix, int c0, int c1) {
+		int b0 = prefix & 0x3F;
+		int b1 = prefix >>> 6 & 0x3F;
+		int b2 = prefix >>> 12 & 0x3F;
+		int b3 = prefix >>> 18 & 0x3F;
+		int b4 = prefix >>> 24 & 0x3F;
+		if (b4 != 0) {
+			return evaluate(b0, b1, b2, b3, b4, c0, c1);
+		}
+		if (b3 != 0) {
+			return evaluate(b0, b1, b2, b3, c0, c1);
+		}
+		return evaluate(b0, b1, b2, c0, c1);
+	}
+
+	/**
+	 * Evaluates every hand at a showdown against the same board.
+	 *
+	 * @param board 3 to 5 board cards
+	 * @param hands hole cards of each player
+	 * @return rank value of each hand, in the order of the hands. Compare values like {@link HandRank}s.
+	 */
+	default int[] evaluateAll(Board board, Hand[] hands) {
+		int prefix = evaluateBoardPrefix(board);
+		int[] ranks = new int[hands.length];
+		for (int i = 0; i < hands.length; i++) {
+			Card[] cards = hands[i].getCards();
+			ranks[i] = finish(prefix, EvaluationIndex.of(cards[0]), EvaluationIndex.of(cards[1]));
+		}
+		return ranks;
+	}
+
+	/**
+	 * Evaluates packed hole card pairs against the same board without allocating.
+	 * The board is walked once through {@link #evaluateBoardPrefix(int, int, int, int, int)}.
+	 *
+	 * @param boardCards 5 board cards as {@link EvaluationIndex} values, 3 or 4 on the flop or the turn
+	 * @param holeCards  hole cards as {@link EvaluationIndex} values, two consecutive entries per hand
+	 * @param ranks      receives the rank value of each hand, must hold at least holeCards.length / 2 entries
+	 */
+	default void evaluateAll(int[] boardCards, int[] holeCards, int[] ranks) {
+		int prefix;
+		if (boardCards.length == 3) {
+			prefix = evaluateBoardPrefix(boardCards[0], boardCards[1], boardCards[2]);
+		} else if (boardCards.length == 4) {
+			prefix = evaluateBoardPrefix(boardCards[0], boardCards[1], boardCards[2], boardCards[3]);
+		} else {
+			prefix = evaluateBoardPrefix(boardCards[0], boardCards[1], boardCards[2], boardCards[3], boardCards[4]);
+		}
+		for (int i = 0; i < holeCards.length / 2; i++) {
+			ranks[i] = finish(prefix, holeCards[2 * i], holeCards[2 * i + 1]);
+		}
+	}
 
 }
@@ -0,0 +1,183 @@
+package com.hyphenated.card.eval;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary format of a hand rank lookup table, so that a truncated or corrupted table is rejected
+ * instead of producing wrong winners.
+ * <br /><br />
+ * The header is big endian:
+ * <pre>
+ *  0  int   magic "HRNK"
+ *  4  short format version
+ *  6  byte  byte order of the entries, 0 little endian, 1 big endian
+ *  7  byte  reserved
+ *  8  int   number of entries
+ * 12  int   chunk size in bytes
+ * 16  int   number of chunks
+ * 20  int   CRC32C of the header without this field, including the chunk checksums
+ * 24  int[] CRC32C of each chunk of entries
+ * </pre>
+ * The entries start at the next multiple of {@value #DATA_ALIGNMENT} bytes.  Chunks are verified in parallel,
+ * CRC32C is computed by a CPU instruction on current hardware.
+ * <br /><br />
+ * Files without the magic are raw little endian tables as originally distributed.  They are accepted
+ * with a size check only.
+ */
+public final class HandRankFile {
+
+    public static final int MAGIC = 0x48524E4B;
+    public static final short VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int DATA_ALIGNMENT = 64;
+    private static final int CHUNK_SIZE = 4 << 20;
+    private static final Logger log = LogManager.getLogger();
+
+    private HandRankFile() {
+    }
+
+    /**
+     * Read a hand rank table, verifying the header and every checksum.
+     *
+     * @param file            content of the file, from the current position to the limit
+     * @param expectedEntries minimum number of entries of the table
+     * @param source          description of the file for error messages
+     * @return read-only view of the entries in their byte order
+     * @throws RuntimeException If the table is truncated, corrupted or has an unknown format
+     */
+    public static IntBuffer read(ByteBuffer file, int expectedEntries, Object source) throws RuntimeException {
+        ByteBuffer header = file.slice().order(ByteOrder.BIG_ENDIAN);
+        if (header.capacity() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            return readRaw(header, expectedEntries, source);
+        }
+        short version = header.getShort(4);
+        if (version != VERSION) {
+            throw new RuntimeException("Hand rank file " + source + " has version " + version + ", expected " + VERSION);
+        }
+        ByteOrder order = header.get(6) == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        int entries = header.getInt(8);
+        int chunkSize = header.getInt(12);
+        int chunks = header.getInt(16);
+        long dataSize = entries * 4L;
+        if (entries < expectedEntries) {
+            throw new RuntimeException("Hand rank file " + source + " has " + entries + " entries, expected " + expectedEntries);
+        }
+        if (chunkSize <= 0 || chunks != chunkCount(dataSize, chunkSize)) {
+            throw new RuntimeException("Hand rank file " + source + " has a corrupted header");
+        }
+        int dataOffset = dataOffset(chunks);
+        if (header.capacity() < dataOffset + dataSize) {
+            throw new RuntimeException("Hand rank file " + source + " has " + header.capacity()
+                    + " bytes, expected " + (dataOffset + dataSize));
+        }
+        if (header.getInt(20) != headerChecksum(header, chunks)) {
+            throw new RuntimeException("Hand rank file " + source + " has a corrupted header");
+        }
+        ByteBuffer data = header.slice(dataOffset, (int) dataSize);
+        int corrupted = IntStream.range(0, chunks).parallel()
+                .filter(chunk -> header.getInt(HEADER_SIZE + chunk * 4) != chunkChecksum(data, chunk, chunkSize))
+                .findFirst().orElse(-1);
+        if (corrupted >= 0) {
+            throw new RuntimeException("Hand rank file " + source + " is corrupted at byte "
+                    + (dataOffset + (long) corrupted * chunkSize));
+        }
+        return data.asReadOnlyBuffer().order(order).asIntBuffer();
+    }
+
+    private static IntBuffer readRaw(ByteBuffer file, int expectedEntries, Object source) {
+        long tableSize = expectedEntries * 4L;
+        if (file.capacity() < tableSize) {
+            throw new RuntimeException("Hand rank file " + source + " has " + file.capacity()
+                    + " bytes, expected " + tableSize);
+        }
+        log.warn("Hand rank file " + source + " has no header, the table cannot be verified");
+        return file.slice(0, (int) tableSize).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * Write a hand rank table with header and checksums.  The file is forced to disk before this returns.
+     *
+     * @param table entries of the table, from the current position to the limit
+     * @param path  file to write
+     * @throws RuntimeException If the file cannot be written
+     */
+    public static void write(IntBuffer table, Path path) throws RuntimeException {
+        int entries = table.remaining();
+        long dataSize = entries * 4L;
+        int chunks = chunkCount(dataSize, CHUNK_SIZE);
+        int dataOffset = dataOffset(chunks);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataOffset + dataSize);
+            ByteBuffer data = file.slice(dataOffset, (int) dataSize).order(ByteOrder.LITTLE_ENDIAN);
+            data.asIntBuffer().put(table.duplicate());
+            file.putInt(0, MAGIC);
+            file.putShort(4, VERSION);
+            file.put(6, (byte) 0);
+            file.putInt(8, entries);
+            file.putInt(12, CHUNK_SIZE);
+            file.putInt(16, chunks);
+            IntStream.range(0, chunks).parallel()
+                    .forEach(chunk -> file.putInt(HEADER_SIZE + chunk * 4, chunkChecksum(data, chunk, CHUNK_SIZE)));
+            file.putInt(20, headerChecksum(file, chunks));
+            //Before the caller renames it into place, so a crash cannot leave a renamed file of unwritten pages
+            file.force();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot write file " + path, e);
+        }
+    }
+
+    private static int chunkCount(long dataSize, int chunkSize) {
+        return (int) ((dataSize + chunkSize - 1) / chunkSize);
+    }
+
+    private static int dataOffset(int chunks) {
+        int headerEnd = HEADER_SIZE + chunks * 4;
+        return (headerEnd + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+    }
+
+    private static int headerChecksum(ByteBuffer header, int chunks) {
+        CRC32C crc = new CRC32C();
+        crc.update(header.slice(0, 20));
+        crc.update(header.slice(HEADER_SIZE, chunks * 4));
+        return (int) crc.getValue();
+    }
+
+    private static int chunkChecksum(ByteBuffer data, int chunk, int chunkSize) {
+        int offset = chunk * chunkSize;
+        CRC32C crc = new CRC32C();
+        crc.update(data.slice(offset, Math.min(chunkSize, data.capacity() - offset)));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Convert a raw hand rank table into the verified format.
+     *
+     * @param args raw table to read and file to write
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: HandRankFile <raw HandRanks.dat> <output file>");
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.READ)) {
+            ByteBuffer raw = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            IntBuffer table = raw.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            write(table, Path.of(args[1]));
+            System.out.println("Wrote " + table.remaining() + " entries to " + args[1]);
+        }
+    }
+}
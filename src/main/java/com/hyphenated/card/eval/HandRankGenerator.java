@@ -0,0 +1,167 @@
+package com.hyphenated.card.eval;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the 2+2 hand rank lookup table used by {@link TwoPlusTwoHandEvaluator}.
+ * <br /><br />
+ * Every state of the table is a set of up to six cards, encoded as one byte per card (rank in the high nibble,
+ * suit in the low nibble, both starting at 1) sorted from the highest card down.  Suits that cannot make a flush
+ * any more with the cards still to come are dropped, which is what keeps the table small.  States are numbered in
+ * ascending order of their encoding and state n owns the 53 entries starting at n * 53 + 53: the first holds the
+ * rank of the five or six cards, the others the next state (or the rank after the seventh card) for each card.
+ * This is the layout of the original generator, which is what the distributed HandRanks.dat holds.
+ * <br /><br />
+ * States are discovered level by level and every level is filled in parallel on the fork-join pool.
+ */
+public final class HandRankGenerator {
+
+    private HandRankGenerator() {
+    }
+
+    /**
+     * @return the hand rank lookup table, {@link ConfigurationLoader#HAND_RANK_SIZE} entries
+     */
+    public static int[] generate() {
+        long[][] levels = new long[7][];
+        levels[0] = new long[]{0};
+        for (int cards = 1; cards < levels.length; cards++) {
+            levels[cards] = nextLevel(levels[cards - 1]);
+        }
+        //Fewer cards encode to smaller values, so the levels are already in ascending order
+        long[] states = Arrays.stream(levels).flatMapToLong(Arrays::stream).toArray();
+        if (states.length * 53L + 53 > ConfigurationLoader.HAND_RANK_SIZE) {
+            throw new IllegalStateException("Generated " + states.length + " states, the table only holds "
+                    + (ConfigurationLoader.HAND_RANK_SIZE - 53) / 53);
+        }
+        int[] handRanks = new int[ConfigurationLoader.HAND_RANK_SIZE];
+        int first = 0;
+        for (int cards = 0; cards < levels.length; cards++) {
+            int level = cards;
+            IntStream.range(first, first + levels[cards].length).parallel()
+                    .forEach(state -> fill(handRanks, states, state, level));
+            first += levels[cards].length;
+        }
+        return handRanks;
+    }
+
+    //Every distinct state reachable from the states of the previous level with one more card
+    private static long[] nextLevel(long[] previous) {
+        long[] next = new long[previous.length * 52];
+        IntStream.range(0, previous.length).parallel().forEach(state -> {
+            for (int card = 1; card <= 52; card++) {
+                next[state * 52 + card - 1] = addCard(previous[state], card);
+            }
+        });
+        Arrays.parallelSort(next);
+        int distinct = 0;
+        long last = 0;
+        for (long state : next) {
+            //Impossible hands are 0 and sorted first
+            if (state != last) {
+                next[distinct++] = state;
+                last = state;
+            }
+        }
+        return Arrays.copyOf(next, distinct);
+    }
+
+    private static void fill(int[] handRanks, long[] states, int state, int cards) {
+        long id = states[state];
+        int slot = state * 53 + 53;
+        for (int card = 1; card <= 52; card++) {
+            long next = addCard(id, card);
+            if (cards < 6) {
+                handRanks[slot + card] = next == 0 ? 53 : Arrays.binarySearch(states, next) * 53 + 53;
+            } else {
+                handRanks[slot + card] = evaluate(next);
+            }
+        }
+        if (cards == 5 || cards == 6) {
+            handRanks[slot] = evaluate(id);
+        }
+    }
+
+    /**
+     * Add a card to a state.
+     *
+     * @param id   encoded cards of the state
+     * @param card evaluation index of the new card
+     * @return encoded cards of the new state, or 0 if the cards are impossible
+     */
+    static long addCard(long id, int card) {
+        int[] cards = new int[8];
+        int[] suitCount = new int[5];
+        int[] rankCount = new int[14];
+        cards[0] = ((((card - 1) >> 2) + 1) << 4) + ((card - 1) & 3) + 1;
+        for (int i = 0; i < 6; i++) {
+            cards[i + 1] = (int) (id >>> (8 * i)) & 0xFF;
+        }
+        int count;
+        boolean duplicate = false;
+        for (count = 0; cards[count] != 0; count++) {
+            suitCount[cards[count] & 0xF]++;
+            rankCount[cards[count] >> 4]++;
+            if (count > 0 && cards[0] == cards[count]) {
+                duplicate = true;
+            }
+        }
+        if (duplicate) {
+            return 0;
+        }
+        for (int rank = 1; rank < rankCount.length; rank++) {
+            if (rankCount[rank] > 4) {
+                return 0;
+            }
+        }
+        //Cards of a suit with fewer than this many cards cannot end up in a flush
+        int needSuited = count - 2;
+        if (needSuited > 1) {
+            for (int i = 0; i < count; i++) {
+                if (suitCount[cards[i] & 0xF] < needSuited) {
+                    cards[i] &= 0xF0;
+                }
+            }
+        }
+        Arrays.sort(cards, 0, count);
+        long next = 0;
+        for (int i = 0; i < count; i++) {
+            next |= (long) cards[count - 1 - i] << (8 * i);
+        }
+        return next;
+    }
+
+    /**
+     * Rank the five to seven cards of a state.  Cards without a suit are spread over the other suits,
+     * so they can neither make a flush nor collide with another card of the same rank.
+     */
+    static int evaluate(long id) {
+        if (id == 0) {
+            return 0;
+        }
+        int mainSuit = 0;
+        for (int i = 0; i < 7; i++) {
+            int card = (int) (id >>> (8 * i)) & 0xFF;
+            if ((card & 0xF) != 0) {
+                mainSuit = card & 0xF;
+            }
+        }
+        long suits = 0;
+        int nextSuit = 0;
+        for (int i = 0; i < 7; i++) {
+            int card = (int) (id >>> (8 * i)) & 0xFF;
+            if (card == 0) {
+                break;
+            }
+            int suit = card & 0xF;
+            if (suit == 0) {
+                do {
+                    suit = nextSuit++ % 4 + 1;
+                } while (suit == mainSuit);
+            }
+            suits |= 1L << ((suit - 1) * 16 + (card >> 4) - 1);
+        }
+        return CompactHandEvaluator.evaluate(suits);
+    }
+}
@@ -0,0 +1,187 @@
+package com.hyphenated.card.eval;
+
+import java.util.Arrays;
+
+/**
+ * Splits the pot of a hand into the main pot and the side pots, and settles what every player wins.
+ * <br /><br />
+ * The contributions are sorted once.  The pots are then built in one pass from the highest contribution down:
+ * each distinct contribution of a live player closes the pot between it and the next lower one, contested by every
+ * live player who put in at least that much.  Going down, the players who contest a pot only grow, so the best hand
+ * of each board is kept as the players are added.  The hands of each board are ranked once, in one
+ * {@link HandRankEvaluator#evaluateAll(int[], int[], int[])} batch.  Folded players
+ * pay into the pots they reached but cannot win them, chips no live player matched go back to who paid them.  Dead
+ * money goes to the main pot.
+ * <br /><br />
+ * When the hand is run twice each pot is split between the boards and the first board gets the odd chip.  The odd
+ * chips of a split pot go to the winners in the order of the players.
+ */
+public final class PotSettlement {
+
+    private final int[] payouts;
+    private final int[] potAmounts;
+    private final long[] potWinners;
+
+    private PotSettlement(int[] payouts, int[] potAmounts, long[] potWinners) {
+        this.payouts = payouts;
+        this.potAmounts = potAmounts;
+        this.potWinners = potWinners;
+    }
+
+    /**
+     * @param evaluator     evaluator ranking the hands of each board with
+     *                      {@link HandRankEvaluator#evaluateAll(int[], int[], int[])}
+     * @param boards        5 board cards as {@link EvaluationIndex} values per board, two boards when the hand is run
+     *                      twice
+     * @param holeCards     hole cards as {@link EvaluationIndex} values, two per player, the ranks of folded players
+     *                      are not used
+     * @param contributions chips each player put in the pot during the hand
+     * @param live          players who did not fold
+     * @param deadMoney     chips in the pot from players who are not listed, they go to the main pot
+     * @throws IllegalArgumentException If there are more than 64 players, no live player, or a negative amount
+     */
+    public static PotSettlement settle(HandRankEvaluator evaluator, int[][] boards, int[] holeCards,
+                                       int[] contributions, boolean[] live, int deadMoney) {
+        int players = contributions.length;
+        if (players > 64 || deadMoney < 0) {
+            throw new IllegalArgumentException("Cannot settle a pot of " + players + " players and " + deadMoney
+                    + " dead chips");
+        }
+        //Every hand of each board in one batch, the board is walked once
+        int[][] ranks = new int[boards.length][players];
+        for (int b = 0; b < boards.length; b++) {
+            evaluator.evaluateAll(boards[b], holeCards, ranks[b]);
+        }
+        //Contribution in the high bits, the player in the low bits, so one sort orders both
+        long[] order = new long[players];
+        boolean anyLive = false;
+        for (int p = 0; p < players; p++) {
+            if (contributions[p] < 0) {
+                throw new IllegalArgumentException("Negative contribution " + contributions[p]);
+            }
+            order[p] = (long) contributions[p] << 32 | p;
+            anyLive |= live[p];
+        }
+        if (!anyLive) {
+            throw new IllegalArgumentException("No live player to win the pot");
+        }
+        Arrays.sort(order);
+
+        int[] payouts = new int[players];
+        int[] potAmounts = new int[players + 1];
+        long[] potWinners = new long[players + 1];
+        int[] best = new int[boards.length];
+        long[] winners = new long[boards.length];
+        Arrays.fill(best, Integer.MIN_VALUE);
+        long contenders = 0;
+        int pots = 0;
+        int pending = 0;
+        int i = players - 1;
+        while (i >= 0) {
+            int level = (int) (order[i] >>> 32);
+            int j = i;
+            while (j >= 0 && (int) (order[j] >>> 32) == level) {
+                j--;
+            }
+            //A new live player opens a new pot, folded players only add their chips to the pot above
+            if (pending > 0 && hasLive(order, live, j + 1, i)) {
+                potAmounts[pots] = pending;
+                potWinners[pots++] = award(pending, winners, payouts);
+                pending = 0;
+            }
+            for (int k = i; k > j; k--) {
+                int p = (int) order[k];
+                if (!live[p]) {
+                    continue;
+                }
+                contenders |= 1L << p;
+                for (int b = 0; b < boards.length; b++) {
+                    int rank = ranks[b][p];
+                    if (rank > best[b]) {
+                        best[b] = rank;
+                        winners[b] = 1L << p;
+                    } else if (rank == best[b]) {
+                        winners[b] |= 1L << p;
+                    }
+                }
+            }
+            int lower = j >= 0 ? (int) (order[j] >>> 32) : 0;
+            if (contenders == 0) {
+                //Nobody left in the hand matched these chips, they go back to who paid them
+                for (int k = j + 1; k < players; k++) {
+                    payouts[(int) order[k]] += level - lower;
+                }
+            } else {
+                pending += (level - lower) * (players - 1 - j);
+            }
+            i = j;
+        }
+        //Every live player has been added, the dead money goes to the main pot
+        pending += deadMoney;
+        if (pending > 0) {
+            potAmounts[pots] = pending;
+            potWinners[pots++] = award(pending, winners, payouts);
+        }
+        //Main pot first
+        int[] amounts = new int[pots];
+        long[] potWinnersInOrder = new long[pots];
+        for (int k = 0; k < pots; k++) {
+            amounts[k] = potAmounts[pots - 1 - k];
+            potWinnersInOrder[k] = potWinners[pots - 1 - k];
+        }
+        return new PotSettlement(payouts, amounts, potWinnersInOrder);
+    }
+
+    private static boolean hasLive(long[] order, boolean[] live, int from, int to) {
+        for (int k = from; k <= to; k++) {
+            if (live[(int) order[k]]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the players who won a share of the pot
+     */
+    private static long award(int pot, long[] winners, int[] payouts) {
+        int boards = winners.length;
+        long potWinners = 0;
+        for (int b = 0; b < boards; b++) {
+            int boardPot = b == 0 ? pot - pot / boards * (boards - 1) : pot / boards;
+            int count = Long.bitCount(winners[b]);
+            int share = boardPot / count;
+            int oddChips = boardPot % count;
+            for (long w = winners[b]; w != 0; w &= w - 1) {
+                payouts[Long.numberOfTrailingZeros(w)] += share + (oddChips-- > 0 ? 1 : 0);
+            }
+            potWinners |= winners[b];
+        }
+        return potWinners;
+    }
+
+    /**
+     * @return chips each player wins, in the order of the contributions
+     */
+    public int[] getPayouts() {
+        return payouts;
+    }
+
+    /**
+     * @return number of pots, the main pot then each side pot
+     */
+    public int getPots() {
+        return potAmounts.length;
+    }
+
+    public int getPotAmount(int pot) {
+        return potAmounts[pot];
+    }
+
+    /**
+     * @return the players who won a share of the pot, one bit per player
+     */
+    public long getPotWinners(int pot) {
+        return potWinners[pot];
+    }
+}
@@ -0,0 +1,155 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.Hand;
+import com.hyphenated.card.holder.SuitIsomorphism;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Preflop equity of every starting hand class against every other, read from a file written by
+ * {@link PreflopMatrixGenerator}.  A lookup is a class index for each hand and one read of the mapped file.
+ * <br /><br />
+ * The 169 classes are the {@link SuitIsomorphism} classes of the starting hands.  A cell counts the showdowns
+ * of every hand of the first class against every hand of the second class it does not share a card with, over
+ * every board, so the suits of the two hands relative to each other are averaged out: A&spades;K&spades; against
+ * Q&spades;J&spades; has the equity of AK suited against QJ suited.
+ * <br /><br />
+ * The file is big endian:
+ * <pre>
+ *  0  int   magic "PFMX"
+ *  4  short format version
+ *  6  short number of classes
+ *  8  int   CRC32C of the cells
+ * 12  int   reserved
+ * 16  int[] wins, draws and losses of each cell, row by row
+ * </pre>
+ */
+public class PreflopMatrix {
+
+    public static final int CLASSES = 169;
+    public static final int MAGIC = 0x50464D58;
+    public static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int CELL_SIZE = 12;
+
+    //Class of each hand, indexed by the bits of its two cards in a CardSet
+    private static final short[] HAND_CLASSES = new short[52 * 52];
+    private static final CardSet[] REPRESENTATIVES = new CardSet[CLASSES];
+
+    static {
+        Map<CardSet, Integer> hands = SuitIsomorphism.startingHands();
+        int index = 0;
+        for (CardSet hand : hands.keySet()) {
+            REPRESENTATIVES[index++] = hand;
+        }
+        for (int first = 0; first < 52; first++) {
+            for (int second = first + 1; second < 52; second++) {
+                long canonical = SuitIsomorphism.canonicalize(1L << first | 1L << second)[0];
+                for (short c = 0; c < CLASSES; c++) {
+                    if (REPRESENTATIVES[c].getBits() == canonical) {
+                        HAND_CLASSES[first * 52 + second] = c;
+                        HAND_CLASSES[second * 52 + first] = c;
+                    }
+                }
+            }
+        }
+    }
+
+    private final ByteBuffer cells;
+
+    private PreflopMatrix(ByteBuffer cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * Memory-map a matrix file and verify it.
+     *
+     * @param path file written by {@link PreflopMatrixGenerator}
+     * @return the matrix
+     * @throws RuntimeException If the file cannot be read, is truncated or is corrupted
+     */
+    public static PreflopMatrix load(Path path) throws RuntimeException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot map file " + path, e);
+        }
+    }
+
+    static PreflopMatrix read(ByteBuffer file, Object source) throws RuntimeException {
+        if (file.capacity() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new RuntimeException("Preflop matrix " + source + " has an unknown format");
+        }
+        if (file.getShort(4) != VERSION || file.getShort(6) != CLASSES) {
+            throw new RuntimeException("Preflop matrix " + source + " has version " + file.getShort(4)
+                    + " with " + file.getShort(6) + " classes, expected " + VERSION + " with " + CLASSES);
+        }
+        int size = CLASSES * CLASSES * CELL_SIZE;
+        if (file.capacity() < HEADER_SIZE + size) {
+            throw new RuntimeException("Preflop matrix " + source + " has " + file.capacity()
+                    + " bytes, expected " + (HEADER_SIZE + size));
+        }
+        ByteBuffer cells = file.slice(HEADER_SIZE, size);
+        if (file.getInt(8) != checksum(cells)) {
+            throw new RuntimeException("Preflop matrix " + source + " is corrupted");
+        }
+        return new PreflopMatrix(cells.asReadOnlyBuffer());
+    }
+
+    static int checksum(ByteBuffer cells) {
+        CRC32C crc = new CRC32C();
+        crc.update(cells.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @return the class of the hand, from 0 to {@value #CLASSES} - 1
+     */
+    public static int classOf(Hand hand) {
+        long bits = hand.getCardSet().getBits();
+        return classOf(Long.numberOfTrailingZeros(bits), 63 - Long.numberOfLeadingZeros(bits));
+    }
+
+    /**
+     * @param first  bit of the first card in a {@link CardSet}
+     * @param second bit of the second card
+     * @return the class of the hand of the two cards
+     */
+    static int classOf(int first, int second) {
+        return HAND_CLASSES[first * 52 + second];
+    }
+
+    /**
+     * @return the representative hand of the class
+     */
+    public static CardSet representative(int handClass) {
+        return REPRESENTATIVES[handClass];
+    }
+
+    /**
+     * Preflop equity of a hand against an opponent hand, averaged over the hands of their classes.
+     *
+     * @throws IllegalArgumentException If the hands share a card
+     */
+    public Equity equity(Hand hand, Hand opponent) {
+        if (hand.getCardSet().intersects(opponent.getCardSet())) {
+            throw new IllegalArgumentException("Hands " + hand + " and " + opponent + " share a card");
+        }
+        return equity(classOf(hand), classOf(opponent));
+    }
+
+    /**
+     * @return the showdowns of every hand of the class against every hand of the opponent class
+     */
+    public Equity equity(int handClass, int opponentClass) {
+        int offset = (handClass * CLASSES + opponentClass) * CELL_SIZE;
+        return new Equity(cells.getInt(offset), cells.getInt(offset + 4), cells.getInt(offset + 8));
+    }
+}
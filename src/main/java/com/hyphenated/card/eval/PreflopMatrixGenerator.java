@@ -0,0 +1,211 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.Combinations;
+import com.hyphenated.card.holder.SuitIsomorphism;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Computes the {@link PreflopMatrix} of every starting hand class against every other.
+ * <br /><br />
+ * Instead of playing every pair of hands on every board, each board is played once: the 1081 hands that do not
+ * use a board card are ranked and sorted, and walking up the ranks counts for each hand how many hands of every
+ * class are below it.  Hands sharing a card with it are taken out with counts per card.  Only the
+ * {@link SuitIsomorphism} representatives of the boards are played, counted once for every board of their class.
+ * Boards are split into chunks counted in parallel on the fork-join pool.
+ */
+public final class PreflopMatrixGenerator {
+
+    private static final int CLASSES = PreflopMatrix.CLASSES;
+    private static final int HANDS = 1326;
+    private static final int CHUNKS = 256;
+    private static final int[] HAND_FIRST = new int[HANDS];
+    private static final int[] HAND_SECOND = new int[HANDS];
+    private static final int[] HAND_CLASS = new int[HANDS];
+    //Classes which have hands with the card, the only classes the count of a card can change
+    private static final int[][] CARD_CLASSES = new int[52][];
+
+    static {
+        boolean[][] cardClasses = new boolean[52][CLASSES];
+        int hand = 0;
+        for (int first = 0; first < 52; first++) {
+            for (int second = first + 1; second < 52; second++) {
+                HAND_FIRST[hand] = first;
+                HAND_SECOND[hand] = second;
+                HAND_CLASS[hand] = PreflopMatrix.classOf(first, second);
+                cardClasses[first][HAND_CLASS[hand]] = true;
+                cardClasses[second][HAND_CLASS[hand]] = true;
+                hand++;
+            }
+        }
+        for (int card = 0; card < 52; card++) {
+            boolean[] classes = cardClasses[card];
+            CARD_CLASSES[card] = IntStream.range(0, CLASSES).filter(c -> classes[c]).toArray();
+        }
+    }
+
+    private PreflopMatrixGenerator() {
+    }
+
+    /**
+     * @return wins, draws and losses of every cell of the matrix, row by row
+     */
+    public static int[] generate(HandRankEvaluator evaluator) {
+        long[] boards = IntStream.range(0, CHUNKS).parallel().mapToObj(PreflopMatrixGenerator::canonicalBoards)
+                .flatMapToLong(LongStream::of).toArray();
+        long[] counts = IntStream.range(0, CHUNKS).parallel()
+                .mapToObj(chunk -> count(evaluator, boards, (int) ((long) boards.length * chunk / CHUNKS),
+                        (int) ((long) boards.length * (chunk + 1) / CHUNKS)))
+                .reduce(PreflopMatrixGenerator::add).orElseThrow();
+        int[] cells = new int[CLASSES * CLASSES * 3];
+        for (int i = 0; i < CLASSES; i++) {
+            for (int j = 0; j < CLASSES; j++) {
+                int cell = (i * CLASSES + j) * 3;
+                cells[cell] = Math.toIntExact(counts[i * CLASSES + j]);
+                cells[cell + 1] = Math.toIntExact(counts[CLASSES * CLASSES + i * CLASSES + j]);
+                cells[cell + 2] = Math.toIntExact(counts[j * CLASSES + i]);
+            }
+        }
+        return cells;
+    }
+
+    //Representative five card boards of a chunk of the colex ranks
+    private static long[] canonicalBoards(int chunk) {
+        long boards = Combinations.count(52, 5);
+        LongStream.Builder canonical = LongStream.builder();
+        Combinations.forEach(CardSet.DECK.getBits(), 5, boards * chunk / CHUNKS, boards * (chunk + 1) / CHUNKS,
+                board -> {
+                    if (SuitIsomorphism.isCanonical(board)) {
+                        canonical.add(board);
+                    }
+                });
+        return canonical.build().toArray();
+    }
+
+    /**
+     * Count the boards from start to end.
+     *
+     * @return wins of each cell followed by the draws of each cell
+     */
+    private static long[] count(HandRankEvaluator evaluator, long[] boards, int start, int end) {
+        long[] counts = new long[2 * CLASSES * CLASSES];
+        int ties = CLASSES * CLASSES;
+        long[] ranked = new long[HANDS];
+        int[] below = new int[CLASSES];
+        int[][] belowWithCard = new int[52][CLASSES];
+        int[] cards = new int[5];
+        for (int n = start; n < end; n++) {
+            long board = boards[n];
+            long weight = SuitIsomorphism.weight(board);
+            CardSet.ofBits(board).toEvaluationIndexes(cards, 0);
+            int prefix = evaluator.evaluateBoardPrefix(cards[0], cards[1], cards[2], cards[3], cards[4]);
+            int live = 0;
+            for (int hand = 0; hand < HANDS; hand++) {
+                int first = HAND_FIRST[hand];
+                int second = HAND_SECOND[hand];
+                if ((board & (1L << first | 1L << second)) == 0) {
+                    ranked[live++] = (long) evaluator.finish(prefix, first + 1, second + 1) << 11 | hand;
+                }
+            }
+            Arrays.sort(ranked, 0, live);
+            Arrays.fill(below, 0);
+            for (int[] counted : belowWithCard) {
+                Arrays.fill(counted, 0);
+            }
+            for (int group = 0; group < live; ) {
+                int groupEnd = group + 1;
+                while (groupEnd < live && ranked[groupEnd] >>> 11 == ranked[group] >>> 11) {
+                    groupEnd++;
+                }
+                for (int k = group; k < groupEnd; k++) {
+                    int hand = (int) ranked[k] & 0x7FF;
+                    int first = HAND_FIRST[hand];
+                    int second = HAND_SECOND[hand];
+                    int row = HAND_CLASS[hand] * CLASSES;
+                    for (int c = 0; c < CLASSES; c++) {
+                        counts[row + c] += weight * below[c];
+                    }
+                    for (int c : CARD_CLASSES[first]) {
+                        counts[row + c] -= weight * belowWithCard[first][c];
+                    }
+                    for (int c : CARD_CLASSES[second]) {
+                        counts[row + c] -= weight * belowWithCard[second][c];
+                    }
+                    for (int m = group; m < groupEnd; m++) {
+                        int other = (int) ranked[m] & 0x7FF;
+                        if (HAND_FIRST[other] != first && HAND_FIRST[other] != second
+                                && HAND_SECOND[other] != first && HAND_SECOND[other] != second) {
+                            counts[ties + row + HAND_CLASS[other]] += weight;
+                        }
+                    }
+                }
+                for (int k = group; k < groupEnd; k++) {
+                    int hand = (int) ranked[k] & 0x7FF;
+                    below[HAND_CLASS[hand]]++;
+                    belowWithCard[HAND_FIRST[hand]][HAND_CLASS[hand]]++;
+                    belowWithCard[HAND_SECOND[hand]][HAND_CLASS[hand]]++;
+                }
+                group = groupEnd;
+            }
+        }
+        return counts;
+    }
+
+    private static long[] add(long[] counts, long[] other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other[i];
+        }
+        return counts;
+    }
+
+    /**
+     * Write the cells of a matrix with its header.
+     *
+     * @param cells wins, draws and losses of every cell, row by row
+     * @param path  file to write
+     * @throws RuntimeException If the file cannot be written
+     */
+    public static void write(int[] cells, Path path) throws RuntimeException {
+        ByteBuffer file = ByteBuffer.allocate(PreflopMatrix.HEADER_SIZE + cells.length * 4);
+        file.position(PreflopMatrix.HEADER_SIZE);
+        file.asIntBuffer().put(cells);
+        file.putInt(0, PreflopMatrix.MAGIC);
+        file.putShort(4, PreflopMatrix.VERSION);
+        file.putShort(6, (short) CLASSES);
+        file.putInt(8, PreflopMatrix.checksum(file.slice(PreflopMatrix.HEADER_SIZE, cells.length * 4)));
+        file.position(0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (file.hasRemaining()) {
+                channel.write(file);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("cannot write file " + path, e);
+        }
+    }
+
+    /**
+     * Compute the matrix with the configured evaluator and write it.
+     *
+     * @param args file to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: PreflopMatrixGenerator <output file>");
+            return;
+        }
+        long start = System.nanoTime();
+        int[] cells = generate(new ConfigurationLoader().loadHandRankEvaluator());
+        write(cells, Path.of(args[0]));
+        System.out.println("Wrote the preflop matrix to " + args[0] + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
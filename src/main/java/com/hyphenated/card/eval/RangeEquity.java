@@ -0,0 +1,41 @@
+package com.hyphenated.card.eval;
+
+import java.util.Arrays;
+
+/**
+ * Equity of each of several hand ranges against the others, in the order the ranges were given.
+ */
+public class RangeEquity {
+
+    private final double[] equities;
+    private final long boards;
+
+    public RangeEquity(double[] equities, long boards) {
+        this.equities = equities;
+        this.boards = boards;
+    }
+
+    /**
+     * @param player position of the range in the calculation
+     * @return share of the pot the range gets on average, between 0 and 1
+     */
+    public double getEquity(int player) {
+        return equities[player];
+    }
+
+    public int getPlayers() {
+        return equities.length;
+    }
+
+    /**
+     * @return number of boards enumerated, or of showdowns sampled
+     */
+    public long getBoards() {
+        return boards;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeEquity " + Arrays.toString(equities) + " over " + boards + " boards";
+    }
+}
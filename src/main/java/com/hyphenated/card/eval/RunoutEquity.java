@@ -0,0 +1,95 @@
+package com.hyphenated.card.eval;
+
+/**
+ * Exact equities of players who are all-in, over every runout of the board.
+ * <br /><br />
+ * On the flop there are at most 990 runouts and 44 on the turn, few enough to enumerate while the hand goes on.
+ * The known cards are walked through the evaluator once, each turn card extends that prefix with
+ * {@link HandRankEvaluator#extendBoardPrefix(int, int)} and each river card extends the turn prefix, so a runout
+ * costs one lookup for the board and one finish per player.  The loops do not allocate.
+ */
+public final class RunoutEquity {
+
+    private RunoutEquity() {
+    }
+
+    /**
+     * @param evaluator  evaluator to rank the hands with
+     * @param boardCards 3 to 5 known board cards as {@link EvaluationIndex} values
+     * @param holeCards  hole cards as {@link EvaluationIndex} values, two consecutive entries per player
+     * @return share of the pot each player wins on average, a pot split k ways counts 1/k
+     * @throws IllegalArgumentException If the board does not hold 3 to 5 cards or a card is dealt twice
+     */
+    public static double[] calculate(HandRankEvaluator evaluator, int[] boardCards, int[] holeCards) {
+        long dead = 0;
+        for (int card : boardCards) {
+            dead |= 1L << (card - 1);
+        }
+        for (int card : holeCards) {
+            dead |= 1L << (card - 1);
+        }
+        int players = holeCards.length / 2;
+        if (boardCards.length < 3 || boardCards.length > 5
+                || Long.bitCount(dead) != boardCards.length + holeCards.length) {
+            throw new IllegalArgumentException("Cannot run out a board of " + boardCards.length + " cards for "
+                    + players + " players without dealing a card twice");
+        }
+        double[] shares = new double[players];
+        int[] ranks = new int[players];
+        int runouts;
+        if (boardCards.length == 5) {
+            int prefix = evaluator.evaluateBoardPrefix(boardCards[0], boardCards[1], boardCards[2], boardCards[3],
+                    boardCards[4]);
+            showdown(evaluator, prefix, holeCards, ranks, shares);
+            runouts = 1;
+        } else if (boardCards.length == 4) {
+            int turn = evaluator.evaluateBoardPrefix(boardCards[0], boardCards[1], boardCards[2], boardCards[3]);
+            runouts = river(evaluator, turn, ~dead & 0xFFFFFFFFFFFFFL, holeCards, ranks, shares);
+        } else {
+            int flop = evaluator.evaluateBoardPrefix(boardCards[0], boardCards[1], boardCards[2]);
+            runouts = 0;
+            //Every turn card, then every river card above it so each runout is counted once
+            for (long turns = ~dead & 0xFFFFFFFFFFFFFL; turns != 0; turns &= turns - 1) {
+                int turnCard = Long.numberOfTrailingZeros(turns) + 1;
+                int turn = evaluator.extendBoardPrefix(flop, turnCard);
+                runouts += river(evaluator, turn, turns & (turns - 1), holeCards, ranks, shares);
+            }
+        }
+        for (int p = 0; p < players; p++) {
+            shares[p] /= runouts;
+        }
+        return shares;
+    }
+
+    private static int river(HandRankEvaluator evaluator, int turn, long rivers, int[] holeCards, int[] ranks,
+                             double[] shares) {
+        int runouts = 0;
+        for (; rivers != 0; rivers &= rivers - 1) {
+            int prefix = evaluator.extendBoardPrefix(turn, Long.numberOfTrailingZeros(rivers) + 1);
+            showdown(evaluator, prefix, holeCards, ranks, shares);
+            runouts++;
+        }
+        return runouts;
+    }
+
+    private static void showdown(HandRankEvaluator evaluator, int prefix, int[] holeCards, int[] ranks,
+                                 double[] shares) {
+        int best = 0;
+        int winners = 0;
+        for (int p = 0; p < ranks.length; p++) {
+            ranks[p] = evaluator.finish(prefix, holeCards[2 * p], holeCards[2 * p + 1]);
+            if (ranks[p] > best) {
+                best = ranks[p];
+                winners = 1;
+            } else if (ranks[p] == best) {
+                winners++;
+            }
+        }
+        double share = 1.0 / winners;
+        for (int p = 0; p < ranks.length; p++) {
+            if (ranks[p] == best) {
+                shares[p] += share;
+            }
+        }
+    }
+}
@@ -23,12 +23,7 @@ THE SOFTWARE.
 */
 package com.hyphenated.card.eval;
 
-import com.hyphenated.card.enums.Card;
-import com.hyphenated.card.holder.Board;
-import com.hyphenated.card.holder.CardIterator;
-import com.hyphenated.card.holder.Hand;
-
-import java.util.Iterator;
+import java.nio.IntBuffer;
 
 /**
  * Poker hand Evaluation algorithm based on the two plus two 7 card hand evaluation algorithm.
@@ -38,37 +33,150 @@ import java.util.Iterator;
 public class TwoPlusTwoHandEvaluator implements HandRankEvaluator {
 
     private static final String HAND_RANKS = "/HandRanks.dat";
-    private final int[] handRanks;
-
-    private static TwoPlusTwoHandEvaluator instance;
+    //Table positions fit in 25 bits, the bits above count the board cards still to come
+    private static final int PREFIX_POSITION_BITS = 25;
+    private static final int PREFIX_POSITION_MASK = (1 << PREFIX_POSITION_BITS) - 1;
+    private final IntBuffer handRanks;
 
     public TwoPlusTwoHandEvaluator() {
         ConfigurationLoader reader = new ConfigurationLoader();
-        handRanks = reader.loadHandRankResource(HAND_RANKS);
+        handRanks = reader.loadHandRanks(HAND_RANKS);
+    }
+
+    /**
+     * Create an evaluator over an already loaded lookup table.
+     *
+     * @param handRanks hand rank lookup values, either heap backed or memory-mapped
+     */
+    public TwoPlusTwoHandEvaluator(IntBuffer handRanks) {
+        this.handRanks = handRanks;
     }
 
     /**
      * The two plus two lookup table is very memory intensive.  You should only ever create
      * one instance of the class.  Use this method to keep the singleton pattern.
+     * The table is loaded on first use, exactly once even if several threads ask at the same time.
      *
      * @return {@link TwoPlusTwoHandEvaluator} instance
      */
     public static TwoPlusTwoHandEvaluator getInstance() {
-        if (instance == null) {
-            instance = new TwoPlusTwoHandEvaluator();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
+    }
+
+    //Initialized by the class loader on first access, which is lazy and thread-safe
+    private static class InstanceHolder {
+        private static final TwoPlusTwoHandEvaluator INSTANCE = new TwoPlusTwoHandEvaluator();
     }
 
     @Override
-    public HandRank evaluate(Board board, Hand hand) {
-        Iterator<Card> cardIterator = new CardIterator(board, hand);
+    public int evaluate(int c0, int c1, int c2, int c3, int c4, int c5, int c6) {
+        IntBuffer hr = handRanks;
+        int p = hr.get(53 + c0);
+        p = hr.get(p + c1);
+        p = hr.get(p + c2);
+        p = hr.get(p + c3);
+        p = hr.get(p + c4);
+        p = hr.get(p + c5);
+        return hr.get(p + c6);
+    }
+
+    /**
+     * After five or six cards the table state is not a rank yet, one more lookup reads the terminal value.
+     */
+    @Override
+    public int evaluate(int c0, int c1, int c2, int c3, int c4) {
+        IntBuffer hr = handRanks;
+        int p = hr.get(53 + c0);
+        p = hr.get(p + c1);
+        p = hr.get(p + c2);
+        p = hr.get(p + c3);
+        p = hr.get(p + c4);
+        return hr.get(p);
+    }
+
+    @Override
+    public int evaluate(int c0, int c1, int c2, int c3, int c4, int c5) {
+        IntBuffer hr = handRanks;
+        int p = hr.get(53 + c0);
+        p = hr.get(p + c1);
+        p = hr.get(p + c2);
+        p = hr.get(p + c3);
+        p = hr.get(p + c4);
+        p = hr.get(p + c5);
+        return hr.get(p);
+    }
+
+    @Override
+    public int evaluate(int[] cards, int offset) {
+        IntBuffer hr = handRanks;
         int p = 53;
-        while (cardIterator.hasNext()) {
-            Card card = cardIterator.next();
-            p = handRanks[p + card.getEvaluation()];
+        for (int i = offset; i < offset + 7; i++) {
+            p = hr.get(p + cards[i]);
+        }
+        return p;
+    }
+
+    /**
+     * The prefix is the table state after the five board cards, finishing a hand costs two lookups.
+     * Flop and turn prefixes also carry the number of missing board cards, their hands need the terminal lookup.
+     */
+    @Override
+    public int evaluateBoardPrefix(int c0, int c1, int c2, int c3, int c4) {
+        IntBuffer hr = handRanks;
+        int p = hr.get(53 + c0);
+        p = hr.get(p + c1);
+        p = hr.get(p + c2);
+        p = hr.get(p + c3);
+        return hr.get(p + c4);
+    }
+
+    @Override
+    public int evaluateBoardPrefix(int c0, int c1, int c2, int c3) {
+        IntBuffer hr = handRanks;
+        int p = hr.get(53 + c0);
+        p = hr.get(p + c1);
+        p = hr.get(p + c2);
+        return hr.get(p + c3) | 1 << PREFIX_POSITION_BITS;
+    }
+
+    @Override
+    public int evaluateBoardPrefix(int c0, int c1, int c2) {
+        IntBuffer hr = handRanks;
+        int p = hr.get(53 + c0);
+        p = hr.get(p + c1);
+        return hr.get(p + c2) | 2 << PREFIX_POSITION_BITS;
+    }
+
+    @Override
+    public int extendBoardPrefix(int prefix, int card) {
+        int missing = prefix >>> PREFIX_POSITION_BITS;
+        int next = handRanks.get((prefix & PREFIX_POSITION_MASK) + card);
+        return missing == 1 ? next : next | (missing - 1) << PREFIX_POSITION_BITS;
+    }
+
+    /**
+     * A full board is walked through the table once, then each hand costs two lookups.
+     */
+    @Override
+    public void evaluateAll(int[] boardCards, int[] holeCards, int[] ranks) {
+        if (boardCards.length != 5) {
+            HandRankEvaluator.super.evaluateAll(boardCards, holeCards, ranks);
+            return;
+        }
+        IntBuffer hr = handRanks;
+        int prefix = evaluateBoardPrefix(boardCards[0], boardCards[1], boardCards[2], boardCards[3], boardCards[4]);
+        for (int i = 0; i < holeCards.length / 2; i++) {
+            ranks[i] = hr.get(hr.get(prefix + holeCards[2 * i]) + holeCards[2 * i + 1]);
+        }
+    }
+
+    @Override
+    public int finish(int prefix, int c0, int c1) {
+        IntBuffer hr = handRanks;
+        if (prefix <= PREFIX_POSITION_MASK) {
+            return hr.get(hr.get(prefix + c0) + c1);
         }
-        return new HandRank(p);
+        return hr.get(hr.get(hr.get((prefix & PREFIX_POSITION_MASK) + c0) + c1));
     }
 
 }
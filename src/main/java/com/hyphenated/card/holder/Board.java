@@ -26,7 +26,7 @@ package com.hyphenated.card.holder;
 import com.hyphenated.card.enums.Card;
 
 /**
- * A {@link CardHolder} for storing five community cards.
+ * A {@link CardHolder} for storing the community cards: three on the flop, four on the turn and five on the river.
  */
 public class Board extends CardHolder {
 
@@ -43,8 +43,48 @@ public class Board extends CardHolder {
         super(flop1, flop2, flop3, turn, river);
     }
 
+    /**
+     * Creates new board on the turn.
+     *
+     * @param flop1 first card of the flop
+     * @param flop2 second card of the flop
+     * @param flop3 third card of the flop
+     * @param turn  turn card
+     */
+    public Board(Card flop1, Card flop2, Card flop3, Card turn) {
+        super(flop1, flop2, flop3, turn);
+    }
+
+    /**
+     * Creates new board on the flop.
+     *
+     * @param flop1 first card of the flop
+     * @param flop2 second card of the flop
+     * @param flop3 third card of the flop
+     */
+    public Board(Card flop1, Card flop2, Card flop3) {
+        super(flop1, flop2, flop3);
+    }
+
     public Board(Card[] cards) {
         super(cards);
     }
 
+    /**
+     * Creates new board from a set of 3 to 5 cards, in ascending order of the cards.
+     *
+     * @param cards community cards
+     * @throws IllegalArgumentException If the set does not hold 3 to 5 cards
+     */
+    public Board(CardSet cards) {
+        super(checkSize(cards).toCards());
+    }
+
+    private static CardSet checkSize(CardSet cards) {
+        if (cards.size() < 3 || cards.size() > 5) {
+            throw new IllegalArgumentException("A board holds 3 to 5 cards, not " + cards);
+        }
+        return cards;
+    }
+
 }
@@ -52,6 +52,13 @@ public class CardHolder {
         return Iterators.forArray(cards);
     }
 
+    /**
+     * @return the cards stored in the container as a bit mask
+     */
+    public CardSet getCardSet() {
+        return CardSet.of(cards);
+    }
+
     @Override
     public String toString() {
         return Arrays.toString(cards);
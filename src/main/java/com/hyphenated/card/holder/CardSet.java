@@ -0,0 +1,193 @@
+package com.hyphenated.card.holder;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.EvaluationIndex;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of cards stored as a 64 bit mask.  The card with {@link EvaluationIndex} i is bit i - 1,
+ * so membership, union and size are single instructions.
+ * <br /><br />
+ * Hot loops should walk the mask directly instead of using the iterator:
+ * <pre>
+ * for (long cards = set.getBits(); cards != 0; cards &amp;= cards - 1) {
+ *     int index = Long.numberOfTrailingZeros(cards) + 1;
+ * }
+ * </pre>
+ */
+public final class CardSet implements Iterable<Card> {
+
+    public static final CardSet EMPTY = new CardSet(0L);
+    public static final CardSet DECK = new CardSet((1L << 52) - 1);
+
+    private final long bits;
+
+    private CardSet(long bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * @param bits mask with bit i - 1 set for the card with evaluation index i
+     * @return set of the cards in the mask
+     * @throws IllegalArgumentException If bits above the 52 cards are set
+     */
+    public static CardSet ofBits(long bits) {
+        if ((bits & ~DECK.bits) != 0) {
+            throw new IllegalArgumentException("Not a set of cards: " + Long.toHexString(bits));
+        }
+        return new CardSet(bits);
+    }
+
+    public static CardSet of(Card... cards) {
+        long bits = 0;
+        for (Card card : cards) {
+            bits |= bit(card);
+        }
+        return new CardSet(bits);
+    }
+
+    /**
+     * @return set of every card held by the card holders
+     */
+    public static CardSet of(CardHolder... cardHolders) {
+        long bits = 0;
+        for (CardHolder cardHolder : cardHolders) {
+            for (Card card : cardHolder.getCards()) {
+                bits |= bit(card);
+            }
+        }
+        return new CardSet(bits);
+    }
+
+    /**
+     * @return mask with only the bit of the card set
+     */
+    public static long bit(Card card) {
+        return 1L << (EvaluationIndex.of(card) - 1);
+    }
+
+    public long getBits() {
+        return bits;
+    }
+
+    public boolean contains(Card card) {
+        return (bits & bit(card)) != 0;
+    }
+
+    public boolean containsAll(CardSet cards) {
+        return (bits & cards.bits) == cards.bits;
+    }
+
+    public boolean intersects(CardSet cards) {
+        return (bits & cards.bits) != 0;
+    }
+
+    public CardSet with(Card card) {
+        return new CardSet(bits | bit(card));
+    }
+
+    public CardSet union(CardSet cards) {
+        return new CardSet(bits | cards.bits);
+    }
+
+    public CardSet minus(CardSet cards) {
+        return new CardSet(bits & ~cards.bits);
+    }
+
+    /**
+     * @return the cards of the deck which are not in this set, e.g. the live cards when this set holds the dead ones
+     */
+    public CardSet complement() {
+        return new CardSet(~bits & DECK.bits);
+    }
+
+    public int size() {
+        return Long.bitCount(bits);
+    }
+
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    /**
+     * @return {@link EvaluationIndex} values of the cards, in ascending order
+     */
+    public int[] toEvaluationIndexes() {
+        int[] indexes = new int[size()];
+        toEvaluationIndexes(indexes, 0);
+        return indexes;
+    }
+
+    /**
+     * Write the {@link EvaluationIndex} values of the cards in ascending order, without allocating.
+     *
+     * @param indexes array receiving the indexes
+     * @param offset  position of the first index in the array
+     * @return number of indexes written
+     */
+    public int toEvaluationIndexes(int[] indexes, int offset) {
+        int i = offset;
+        for (long cards = bits; cards != 0; cards &= cards - 1) {
+            indexes[i++] = Long.numberOfTrailingZeros(cards) + 1;
+        }
+        return i - offset;
+    }
+
+    /**
+     * @return cards of the set, in ascending order of their {@link EvaluationIndex}
+     */
+    public Card[] toCards() {
+        Card[] cards = new Card[size()];
+        int i = 0;
+        for (Card card : this) {
+            cards[i++] = card;
+        }
+        return cards;
+    }
+
+    @Override
+    public Iterator<Card> iterator() {
+        return new Iterator<>() {
+            private long remaining = bits;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public Card next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                Card card = EvaluationIndex.card(Long.numberOfTrailingZeros(remaining) + 1);
+                remaining &= remaining - 1;
+                return card;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CardSet && ((CardSet) obj).bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (Card card : this) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(card);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.hyphenated.card.holder;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Combinations of cards as bit masks of a {@link CardSet}, numbered in colex order.
+ * <br /><br />
+ * Colex order is the numeric order of the masks, so the combination after a mask is the next larger number
+ * with as many bits, and the rank of a combination is the sum of C(position, i) over its i-th lowest card.
+ * A range of ranks is therefore an exact slice of an enumeration, and a file can hold one row per rank.
+ */
+public final class Combinations {
+
+    private static final long[][] CHOOSE = new long[53][53];
+
+    static {
+        for (int n = 0; n < CHOOSE.length; n++) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + CHOOSE[n - 1][k];
+            }
+        }
+    }
+
+    private Combinations() {
+    }
+
+    /**
+     * @return number of combinations of k cards out of n
+     */
+    public static long count(int n, int k) {
+        return k < 0 || k > n ? 0 : CHOOSE[n][k];
+    }
+
+    /**
+     * @param combination mask of the cards
+     * @return position of the combination among the combinations of as many cards, from 0
+     */
+    public static long rank(long combination) {
+        long rank = 0;
+        int k = 1;
+        for (long cards = combination; cards != 0; cards &= cards - 1) {
+            rank += CHOOSE[Long.numberOfTrailingZeros(cards)][k++];
+        }
+        return rank;
+    }
+
+    /**
+     * @param rank position of the combination, from 0
+     * @param k    number of cards of the combination
+     * @return mask of the cards
+     * @throws IllegalArgumentException If there is no combination of k cards with the rank
+     */
+    public static long unrank(long rank, int k) {
+        if (k < 0 || k > 52 || rank < 0 || rank >= CHOOSE[52][k]) {
+            throw new IllegalArgumentException("No combination of " + k + " cards with rank " + rank);
+        }
+        long combination = 0;
+        int n = 52;
+        for (; k > 0; k--) {
+            //Highest position whose binomial still fits in the rank left
+            do {
+                n--;
+            } while (CHOOSE[n][k] > rank);
+            rank -= CHOOSE[n][k];
+            combination |= 1L << n;
+        }
+        return combination;
+    }
+
+    /**
+     * @param combination mask of cards, all of them in cards
+     * @param cards       mask of the cards the combinations are taken from
+     * @return position of the combination among the combinations of as many of the cards
+     */
+    public static long rank(long combination, long cards) {
+        return rank(Long.compress(combination, cards));
+    }
+
+    /**
+     * @param rank  position of the combination, from 0
+     * @param k     number of cards of the combination
+     * @param cards mask of the cards the combinations are taken from
+     * @return mask of the cards of the combination
+     * @throws IllegalArgumentException If there is no combination of k of the cards with the rank
+     */
+    public static long unrank(long rank, int k, long cards) {
+        if (rank >= count(Long.bitCount(cards), k)) {
+            throw new IllegalArgumentException("No combination of " + k + " of " + Long.bitCount(cards)
+                    + " cards with rank " + rank);
+        }
+        return Long.expand(unrank(rank, k), cards);
+    }
+
+    /**
+     * Call the action with the combinations of k of the cards from rank start to rank end, in colex order.
+     * Each combination is a primitive long, nothing is allocated per combination.
+     *
+     * @param cards  mask of the cards the combinations are taken from
+     * @param k      number of cards of each combination
+     * @param start  rank of the first combination
+     * @param end    rank after the last combination
+     * @param action called with the mask of each combination
+     */
+    public static void forEach(long cards, int k, long start, long end, LongConsumer action) {
+        if (start >= end) {
+            return;
+        }
+        //Positions of the first combination among the cards
+        long combination = Long.compress(unrank(start, k, cards), cards);
+        for (long rank = start; ; rank++) {
+            //The positions of the combination among the cards are spread onto the cards
+            action.accept(Long.expand(combination, cards));
+            if (rank + 1 >= end) {
+                return;
+            }
+            combination = next(combination);
+        }
+    }
+
+    /**
+     * @return iterator over the combinations of k of the cards in colex order, without boxing
+     */
+    public static PrimitiveIterator.OfLong iterator(long cards, int k) {
+        long count = count(Long.bitCount(cards), k);
+        return new PrimitiveIterator.OfLong() {
+            private long rank;
+            private long combination = count == 0 ? 0 : unrank(0, k);
+
+            @Override
+            public boolean hasNext() {
+                return rank < count;
+            }
+
+            @Override
+            public long nextLong() {
+                if (rank >= count) {
+                    throw new NoSuchElementException();
+                }
+                long cardsOfCombination = Long.expand(combination, cards);
+                if (++rank < count) {
+                    combination = Combinations.next(combination);
+                }
+                return cardsOfCombination;
+            }
+        };
+    }
+
+    /**
+     * Gosper's hack: the next larger mask with the same number of bits.
+     *
+     * @param combination mask of the cards, not empty
+     * @return the following combination in colex order, beyond the deck after the last one
+     */
+    public static long next(long combination) {
+        long lowest = combination & -combination;
+        long carried = combination + lowest;
+        return carried | ((combination ^ carried) >>> 2) / lowest;
+    }
+}
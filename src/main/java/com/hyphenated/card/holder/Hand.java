@@ -40,4 +40,21 @@ public class Hand extends CardHolder {
         super(card1, card2);
     }
 
+    /**
+     * Creates new hand from a set of two cards.
+     *
+     * @param cards hole cards
+     * @throws IllegalArgumentException If the set does not hold two cards
+     */
+    public Hand(CardSet cards) {
+        super(checkSize(cards).toCards());
+    }
+
+    private static CardSet checkSize(CardSet cards) {
+        if (cards.size() != 2) {
+            throw new IllegalArgumentException("A hand holds 2 cards, not " + cards);
+        }
+        return cards;
+    }
+
 }
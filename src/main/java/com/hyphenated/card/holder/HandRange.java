@@ -0,0 +1,254 @@
+package com.hyphenated.card.holder;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+/**
+ * Immutable weighted set of the 1326 two card combinations a player may hold.
+ * <br /><br />
+ * Combination i is the two card mask with colex rank i, see {@link Combinations}, so membership is a bit in
+ * a 1326 bit set and the weight of a combination is an array lookup.  Ranges are written in the usual notation,
+ * a comma separated list of:
+ * <pre>
+ * AhKh       a single combination
+ * AKs AKo AK suited, offsuit or all combinations of two ranks
+ * TT         a pair
+ * TT+ ATs+   the pair and every higher pair, or the hand and every higher kicker below the first card
+ * TT-77      the pairs between the two, or A5s-A2s the kickers between the two
+ * AKs:0.5    any of the above, held only with the weight after the colon
+ * </pre>
+ */
+public final class HandRange {
+
+    public static final int COMBOS = 1326;
+    private static final String RANKS = "23456789TJQKA";
+    private static final String SUITS = "cdhs";
+    private static final long[] COMBO_CARDS = new long[COMBOS];
+
+    static {
+        PrimitiveIterator.OfLong combos = Combinations.iterator(CardSet.DECK.getBits(), 2);
+        for (int combo = 0; combo < COMBOS; combo++) {
+            COMBO_CARDS[combo] = combos.nextLong();
+        }
+    }
+
+    private final long[] bits = new long[(COMBOS + 63) / 64];
+    private final double[] weights;
+
+    private HandRange(double[] weights) {
+        this.weights = weights;
+        for (int combo = 0; combo < COMBOS; combo++) {
+            if (weights[combo] > 0) {
+                bits[combo >>> 6] |= 1L << combo;
+            }
+        }
+    }
+
+    /**
+     * @return range holding every combination with weight 1
+     */
+    public static HandRange all() {
+        double[] weights = new double[COMBOS];
+        Arrays.fill(weights, 1);
+        return new HandRange(weights);
+    }
+
+    /**
+     * @return range holding only the hands, with weight 1
+     */
+    public static HandRange of(Hand... hands) {
+        double[] weights = new double[COMBOS];
+        for (Hand hand : hands) {
+            weights[combo(hand.getCardSet().getBits())] = 1;
+        }
+        return new HandRange(weights);
+    }
+
+    /**
+     * Parse a range in the notation of the class comment.  A combination listed twice keeps the last weight.
+     *
+     * @param notation comma separated range, for example "AKs, TT+, A5s-A2s"
+     * @return the range
+     * @throws IllegalArgumentException If a part of the notation cannot be parsed
+     */
+    public static HandRange parse(String notation) {
+        double[] weights = new double[COMBOS];
+        for (String token : notation.split(",")) {
+            String part = token.trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+            double weight = 1;
+            int colon = part.indexOf(':');
+            if (colon >= 0) {
+                try {
+                    weight = Double.parseDouble(part.substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Cannot parse the weight of " + part, e);
+                }
+                if (!(weight > 0 && weight <= 1)) {
+                    throw new IllegalArgumentException("Weight of " + part + " is not between 0 and 1");
+                }
+                part = part.substring(0, colon).trim();
+            }
+            for (long cards : parsePart(part)) {
+                weights[combo(cards)] = weight;
+            }
+        }
+        return new HandRange(weights);
+    }
+
+    private static long[] parsePart(String part) {
+        if (part.length() == 4 && SUITS.indexOf(part.charAt(1)) >= 0 && SUITS.indexOf(part.charAt(3)) >= 0) {
+            long first = 1L << (rank(part, 0) * 4 + SUITS.indexOf(part.charAt(1)));
+            long second = 1L << (rank(part, 2) * 4 + SUITS.indexOf(part.charAt(3)));
+            if (first == second) {
+                throw new IllegalArgumentException("Cannot parse hand range part " + part);
+            }
+            return new long[]{first | second};
+        }
+        int dash = part.indexOf('-');
+        if (dash >= 0) {
+            int[] from = parseClass(part.substring(0, dash).trim(), part);
+            int[] to = parseClass(part.substring(dash + 1).trim(), part);
+            boolean pairs = from[0] == from[1] && to[0] == to[1];
+            if (from[2] != to[2] || !pairs && (from[0] != to[0] || from[0] == from[1] || to[0] == to[1])) {
+                throw new IllegalArgumentException("Cannot parse hand range part " + part);
+            }
+            if (pairs) {
+                return pairs(Math.min(from[0], to[0]), Math.max(from[0], to[0]));
+            }
+            return kickers(from[0], Math.min(from[1], to[1]), Math.max(from[1], to[1]), from[2]);
+        }
+        boolean plus = part.endsWith("+");
+        int[] hand = parseClass(plus ? part.substring(0, part.length() - 1) : part, part);
+        if (hand[0] == hand[1]) {
+            return pairs(hand[0], plus ? RANKS.length() - 1 : hand[0]);
+        }
+        return kickers(hand[0], hand[1], plus ? hand[0] - 1 : hand[1], hand[2]);
+    }
+
+    /**
+     * @return high rank, low rank and 's', 'o' or 'b' for suited, offsuit or both
+     */
+    private static int[] parseClass(String hand, String part) {
+        if (hand.length() < 2 || hand.length() > 3) {
+            throw new IllegalArgumentException("Cannot parse hand range part " + part);
+        }
+        int first = rank(hand, 0);
+        int second = rank(hand, 1);
+        char suits = hand.length() == 3 ? hand.charAt(2) : 'b';
+        if (suits != 's' && suits != 'o' && suits != 'b' || first == second && suits != 'b') {
+            throw new IllegalArgumentException("Cannot parse hand range part " + part);
+        }
+        return new int[]{Math.max(first, second), Math.min(first, second), suits};
+    }
+
+    private static int rank(String text, int position) {
+        int rank = RANKS.indexOf(Character.toUpperCase(text.charAt(position)));
+        if (rank < 0) {
+            throw new IllegalArgumentException("Cannot parse rank " + text.charAt(position) + " of " + text);
+        }
+        return rank;
+    }
+
+    private static long[] pairs(int low, int high) {
+        long[] combos = new long[6 * (high - low + 1)];
+        int n = 0;
+        for (int rank = low; rank <= high; rank++) {
+            for (int first = 0; first < 4; first++) {
+                for (int second = first + 1; second < 4; second++) {
+                    combos[n++] = 1L << (rank * 4 + first) | 1L << (rank * 4 + second);
+                }
+            }
+        }
+        return combos;
+    }
+
+    private static long[] kickers(int rank, int lowKicker, int highKicker, int suits) {
+        long[] combos = new long[16 * (highKicker - lowKicker + 1)];
+        int n = 0;
+        for (int kicker = lowKicker; kicker <= highKicker; kicker++) {
+            for (int first = 0; first < 4; first++) {
+                for (int second = 0; second < 4; second++) {
+                    if (suits == 'b' || (suits == 's') == (first == second)) {
+                        combos[n++] = 1L << (rank * 4 + first) | 1L << (kicker * 4 + second);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(combos, n);
+    }
+
+    /**
+     * @param cards mask of two cards
+     * @return number of the combination, from 0 to {@value #COMBOS} - 1
+     */
+    public static int combo(long cards) {
+        if (Long.bitCount(cards) != 2) {
+            throw new IllegalArgumentException("A combination holds 2 cards, not " + Long.bitCount(cards));
+        }
+        return (int) Combinations.rank(cards);
+    }
+
+    /**
+     * @return mask of the two cards of the combination
+     */
+    public static long cards(int combo) {
+        return COMBO_CARDS[combo];
+    }
+
+    public boolean contains(int combo) {
+        return (bits[combo >>> 6] & 1L << combo) != 0;
+    }
+
+    /**
+     * @return weight of the combination, 0 if it is not in the range
+     */
+    public double getWeight(int combo) {
+        return weights[combo];
+    }
+
+    /**
+     * @return number of combinations in the range
+     */
+    public int size() {
+        int size = 0;
+        for (long word : bits) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return the combinations in the range which use none of the dead cards, in ascending order
+     */
+    public int[] combos(long deadCards) {
+        int[] combos = new int[size()];
+        int n = 0;
+        for (int word = 0; word < bits.length; word++) {
+            for (long combo = bits[word]; combo != 0; combo &= combo - 1) {
+                int index = word * 64 + Long.numberOfTrailingZeros(combo);
+                if ((COMBO_CARDS[index] & deadCards) == 0) {
+                    combos[n++] = index;
+                }
+            }
+        }
+        return Arrays.copyOf(combos, n);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof HandRange && Arrays.equals(((HandRange) obj).weights, weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+
+    @Override
+    public String toString() {
+        return "HandRange of " + size() + " combinations";
+    }
+}
@@ -0,0 +1,131 @@
+package com.hyphenated.card.holder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Suits have no order in hold'em, so situations that only differ by a permutation of the suits have the same
+ * equity: A&spades;K&spades; is A&hearts;K&hearts;, and there are only 169 distinct starting hands among the 1326.
+ * Enumerations should evaluate one representative of each class and scale the result by the size of the class.
+ * <br /><br />
+ * A situation is a list of rounds of cards, as bit masks of a {@link CardSet}: the hand, the known board,
+ * the complete board.  Each suit gets a key made of its ranks in every round, earlier rounds first, and the
+ * representative gives the suit with the highest key clubs, the next diamonds and so on.  The size of the class
+ * is 24 / m1! m2! ... where the m are the numbers of suits sharing a key.
+ */
+public final class SuitIsomorphism {
+
+    private static final int MAX_ROUNDS = 4;
+    //One bit per rank of the lowest suit
+    private static final long SUIT_MASK = 0x1111111111111L;
+    private static final int[] FACTORIAL = {1, 1, 2, 6, 24};
+
+    private SuitIsomorphism() {
+    }
+
+    /**
+     * @param rounds card masks of each round
+     * @return the rounds of the representative of the situation, in the same order
+     */
+    public static long[] canonicalize(long... rounds) {
+        long[] keys = keys(rounds);
+        int[] order = {0, 1, 2, 3};
+        //Insertion sort of the four suits by descending key, the highest key becomes the first suit
+        for (int i = 1; i < 4; i++) {
+            for (int j = i; j > 0 && keys[order[j]] > keys[order[j - 1]]; j--) {
+                int swap = order[j];
+                order[j] = order[j - 1];
+                order[j - 1] = swap;
+            }
+        }
+        long[] canonical = new long[rounds.length];
+        for (int suit = 0; suit < 4; suit++) {
+            for (int r = 0; r < rounds.length; r++) {
+                canonical[r] |= ((rounds[r] >>> order[suit]) & SUIT_MASK) << suit;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * @return true if the situation is its own representative
+     */
+    public static boolean isCanonical(long... rounds) {
+        long[] keys = keys(rounds);
+        return keys[0] >= keys[1] && keys[1] >= keys[2] && keys[2] >= keys[3];
+    }
+
+    /**
+     * @return number of situations with the same representative, from 1 to 24
+     */
+    public static int weight(long... rounds) {
+        long[] keys = keys(rounds);
+        int symmetries = 1;
+        boolean[] counted = new boolean[4];
+        for (int i = 0; i < 4; i++) {
+            if (counted[i]) {
+                continue;
+            }
+            int same = 0;
+            for (int j = i; j < 4; j++) {
+                if (keys[j] == keys[i]) {
+                    counted[j] = true;
+                    same++;
+                }
+            }
+            symmetries *= FACTORIAL[same];
+        }
+        return 24 / symmetries;
+    }
+
+    public static CardSet[] canonicalize(CardSet... rounds) {
+        long[] bits = new long[rounds.length];
+        for (int r = 0; r < rounds.length; r++) {
+            bits[r] = rounds[r].getBits();
+        }
+        long[] canonical = canonicalize(bits);
+        CardSet[] sets = new CardSet[canonical.length];
+        for (int r = 0; r < canonical.length; r++) {
+            sets[r] = CardSet.ofBits(canonical[r]);
+        }
+        return sets;
+    }
+
+    /**
+     * @return the 169 distinct starting hands, mapped to the number of starting hands they stand for
+     */
+    public static Map<CardSet, Integer> startingHands() {
+        Map<CardSet, Integer> hands = new LinkedHashMap<>();
+        for (int first = 0; first < 52; first++) {
+            for (int second = first + 1; second < 52; second++) {
+                long hand = 1L << first | 1L << second;
+                if (isCanonical(hand)) {
+                    hands.put(CardSet.ofBits(hand), weight(hand));
+                }
+            }
+        }
+        return hands;
+    }
+
+    private static long[] keys(long[] rounds) {
+        if (rounds.length > MAX_ROUNDS) {
+            throw new IllegalArgumentException("At most " + MAX_ROUNDS + " rounds of cards, not " + rounds.length);
+        }
+        long[] keys = new long[4];
+        for (int suit = 0; suit < 4; suit++) {
+            for (long round : rounds) {
+                keys[suit] = keys[suit] << 13 | ranks(round, suit);
+            }
+        }
+        return keys;
+    }
+
+    //Ranks of the cards of one suit as a 13 bit mask
+    private static int ranks(long cards, int suit) {
+        int ranks = 0;
+        for (long bits = (cards >>> suit) & SUIT_MASK; bits != 0; bits &= bits - 1) {
+            ranks |= 1 << (Long.numberOfTrailingZeros(bits) >> 2);
+        }
+        return ranks;
+    }
+}
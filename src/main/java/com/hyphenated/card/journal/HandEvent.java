@@ -0,0 +1,147 @@
+package com.hyphenated.card.journal;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.enums.PlayerHandRoundAction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One event of the {@link HandJournal}, written as a line of tab separated fields:
+ * <pre>
+ * TYPE gameId playerId amount name cards
+ * </pre>
+ * Missing values are written as "-" and cards are separated by commas.
+ */
+public final class HandEvent {
+
+    /**
+     * Street of the second board when the hand is run twice
+     */
+    public static final String SECOND_BOARD = "SECOND_BOARD";
+    private static final String NONE = "-";
+
+    private final HandEventType type;
+    private final String gameId;
+    private final String playerId;
+    private final int amount;
+    private final String name;
+    private final List<Card> cards;
+
+    private HandEvent(HandEventType type, String gameId, String playerId, int amount, String name, List<Card> cards) {
+        this.type = type;
+        this.gameId = gameId;
+        this.playerId = playerId;
+        this.amount = amount;
+        this.name = name;
+        this.cards = List.copyOf(cards);
+    }
+
+    /**
+     * @param stack chips of the player when the hand started, before the blinds
+     */
+    public static HandEvent deal(String gameId, String playerId, int stack, Card card1, Card card2) {
+        return new HandEvent(HandEventType.DEAL, gameId, playerId, stack, null, List.of(card1, card2));
+    }
+
+    public static HandEvent blind(String gameId, String playerId, int amount) {
+        return new HandEvent(HandEventType.BLIND, gameId, playerId, amount, null, List.of());
+    }
+
+    public static HandEvent action(String gameId, String playerId, PlayerHandRoundAction action, int amount) {
+        return new HandEvent(HandEventType.ACTION, gameId, playerId, amount, action.name(), List.of());
+    }
+
+    /**
+     * @param street name of the street, the game status for the board or {@link #SECOND_BOARD}
+     */
+    public static HandEvent street(String gameId, String street, List<Card> cards) {
+        return new HandEvent(HandEventType.STREET, gameId, null, 0, street, cards);
+    }
+
+    public static HandEvent showdown(String gameId, String playerId, Card card1, Card card2) {
+        return new HandEvent(HandEventType.SHOWDOWN, gameId, playerId, 0, null, List.of(card1, card2));
+    }
+
+    public static HandEvent payout(String gameId, String playerId, int amount) {
+        return new HandEvent(HandEventType.PAYOUT, gameId, playerId, amount, null, List.of());
+    }
+
+    public static HandEvent handEnd(String gameId) {
+        return new HandEvent(HandEventType.HAND_END, gameId, null, 0, null, List.of());
+    }
+
+    public static HandEvent snapshot(String gameId) {
+        return new HandEvent(HandEventType.SNAPSHOT, gameId, null, 0, null, List.of());
+    }
+
+    public HandEventType getType() {
+        return type;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Card> getCards() {
+        return cards;
+    }
+
+    /**
+     * @return the action of an {@link HandEventType#ACTION} event
+     */
+    public PlayerHandRoundAction getAction() {
+        return PlayerHandRoundAction.valueOf(name);
+    }
+
+    String toLine() {
+        StringBuilder line = new StringBuilder(64)
+                .append(type.name()).append('\t')
+                .append(gameId).append('\t')
+                .append(playerId == null ? NONE : playerId).append('\t')
+                .append(amount).append('\t')
+                .append(name == null ? NONE : name).append('\t');
+        if (cards.isEmpty()) {
+            line.append(NONE);
+        }
+        for (int i = 0; i < cards.size(); i++) {
+            line.append(i == 0 ? "" : ",").append(cards.get(i).name());
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException If the line is not an event, as the last line cut by a crash
+     */
+    static HandEvent parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Not a hand event: " + line);
+        }
+        List<Card> cards = new ArrayList<>();
+        if (!fields[5].equals(NONE)) {
+            for (String card : fields[5].split(",")) {
+                cards.add(Card.valueOf(card));
+            }
+        }
+        return new HandEvent(HandEventType.valueOf(fields[0]), fields[1], fields[2].equals(NONE) ? null : fields[2],
+                Integer.parseInt(fields[3]), fields[4].equals(NONE) ? null : fields[4], cards);
+    }
+
+    @Override
+    public String toString() {
+        return toLine().trim();
+    }
+}
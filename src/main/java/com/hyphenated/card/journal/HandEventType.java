@@ -0,0 +1,39 @@
+package com.hyphenated.card.journal;
+
+/**
+ * What happened in a hand, in the order the events of a hand are written to the {@link HandJournal}.
+ */
+public enum HandEventType {
+    /**
+     * A player got their hole cards, the first events of a hand
+     */
+    DEAL,
+    /**
+     * A player posted a forced bet
+     */
+    BLIND,
+    /**
+     * A player folded, checked, called or bet.  These are the events a table is rebuilt from.
+     */
+    ACTION,
+    /**
+     * Board cards were shown
+     */
+    STREET,
+    /**
+     * A player showed their hole cards at the end of the hand
+     */
+    SHOWDOWN,
+    /**
+     * A player won chips from the pot
+     */
+    PAYOUT,
+    /**
+     * The hand is over, its history is complete
+     */
+    HAND_END,
+    /**
+     * The state of the game is in the database, the events before it are not needed to rebuild the table
+     */
+    SNAPSHOT
+}
@@ -0,0 +1,210 @@
+package com.hyphenated.card.journal;
+
+import com.hyphenated.card.enums.PlayerHandRoundAction;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Converts hand history files to text hand histories or to NDJSON, one hand at a time.  Only the block being read
+ * is held in memory, so files of any size can be exported.
+ * <br /><br />
+ * From the command line: {@code HandHistoryExporter text|ndjson file...}, the hands are written to the standard
+ * output.
+ */
+public final class HandHistoryExporter {
+
+    private static final String RANKS = "23456789TJQKA";
+    private static final String SUITS = "cdhs";
+    private static final String[] STREETS = {"HOLE CARDS", "FLOP", "TURN", "RIVER"};
+
+    private HandHistoryExporter() {
+    }
+
+    /**
+     * @return number of hands written
+     */
+    public static long exportText(Path history, Writer out) throws IOException {
+        HandRecord hand = new HandRecord();
+        long hands = 0;
+        try (HandHistoryReader reader = new HandHistoryReader(history)) {
+            while (reader.next(hand)) {
+                hands++;
+                writeText(hand, hands, out);
+            }
+        }
+        return hands;
+    }
+
+    /**
+     * @return number of hands written, one JSON object per line
+     */
+    public static long exportNdjson(Path history, Writer out) throws IOException {
+        HandRecord hand = new HandRecord();
+        long hands = 0;
+        try (HandHistoryReader reader = new HandHistoryReader(history)) {
+            while (reader.next(hand)) {
+                hands++;
+                writeJson(hand, out);
+            }
+        }
+        return hands;
+    }
+
+    static void writeText(HandRecord hand, long number, Writer out) throws IOException {
+        out.append("Hand #").append(Long.toString(number)).append(" - Game ").append(hand.getGameId())
+                .append(" - ").append(Instant.ofEpochMilli(hand.getTimestamp()).toString()).append('\n');
+        for (int seat = 0; seat < hand.getSeats(); seat++) {
+            out.append("Seat ").append(Integer.toString(seat + 1)).append(": ").append(hand.getPlayerId(seat))
+                    .append(" (").append(Integer.toString(hand.getStack(seat))).append(" in chips)\n");
+        }
+        int action = 0;
+        for (int street = 0; street < HandRecord.STREETS; street++) {
+            int streetCards = street == 0 ? 0 : street == 1 ? 3 : street + 2;
+            if (street > 0 && hand.getBoardCards() < streetCards) {
+                break;
+            }
+            out.append("*** ").append(STREETS[street]).append(" ***");
+            if (street > 0) {
+                out.append(" [");
+                cards(out, hand, streetCards, false, ' ');
+                out.append(']');
+            }
+            out.append('\n');
+            if (street == 0) {
+                for (int seat = 0; seat < hand.getSeats(); seat++) {
+                    out.append("Dealt to ").append(hand.getPlayerId(seat)).append(" [")
+                            .append(card(hand.getHoleCard(seat, 0))).append(' ')
+                            .append(card(hand.getHoleCard(seat, 1))).append("]\n");
+                }
+            }
+            for (int end = action + hand.getStreetActions(street); action < end; action++) {
+                out.append(hand.getPlayerId(hand.getActionSeat(action))).append(": ");
+                PlayerHandRoundAction type = hand.getAction(action);
+                int amount = hand.getActionAmount(action);
+                if (type == null) {
+                    out.append("posts blind ").append(Integer.toString(amount));
+                } else {
+                    out.append(switch (type) {
+                        case FOLD -> "folds";
+                        case CHECK -> "checks";
+                        case CALL_ANY, CALL_CURRENT -> "calls";
+                        case BET -> "bets";
+                    });
+                    if (amount != 0) {
+                        out.append(' ').append(Integer.toString(amount));
+                    }
+                }
+                out.append('\n');
+            }
+        }
+        if (hand.getSecondBoardCards() > 0) {
+            out.append("*** SECOND BOARD *** [");
+            cards(out, hand, hand.getSecondBoardCards(), true, ' ');
+            out.append("]\n");
+        }
+        out.append("*** SHOW DOWN ***\n");
+        for (int seat = 0; seat < hand.getSeats(); seat++) {
+            if (hand.isShown(seat)) {
+                out.append(hand.getPlayerId(seat)).append(": shows [").append(card(hand.getHoleCard(seat, 0)))
+                        .append(' ').append(card(hand.getHoleCard(seat, 1))).append("]\n");
+            }
+        }
+        for (int seat = 0; seat < hand.getSeats(); seat++) {
+            if (hand.getPayout(seat) != 0) {
+                out.append(hand.getPlayerId(seat)).append(" collected ")
+                        .append(Integer.toString(hand.getPayout(seat))).append('\n');
+            }
+        }
+        out.append('\n');
+    }
+
+    static void writeJson(HandRecord hand, Writer out) throws IOException {
+        out.append("{\"game\":");
+        string(out, hand.getGameId());
+        out.append(",\"time\":").append(Long.toString(hand.getTimestamp())).append(",\"seats\":[");
+        for (int seat = 0; seat < hand.getSeats(); seat++) {
+            out.append(seat == 0 ? "{\"player\":" : ",{\"player\":");
+            string(out, hand.getPlayerId(seat));
+            out.append(",\"stack\":").append(Integer.toString(hand.getStack(seat)))
+                    .append(",\"cards\":[\"").append(card(hand.getHoleCard(seat, 0))).append("\",\"")
+                    .append(card(hand.getHoleCard(seat, 1))).append("\"],\"shown\":")
+                    .append(Boolean.toString(hand.isShown(seat)))
+                    .append(",\"won\":").append(Integer.toString(hand.getPayout(seat))).append('}');
+        }
+        out.append("],\"board\":[");
+        cards(out, hand, hand.getBoardCards(), false, ',');
+        out.append("],\"secondBoard\":[");
+        cards(out, hand, hand.getSecondBoardCards(), true, ',');
+        out.append("],\"actions\":[");
+        int action = 0;
+        for (int street = 0; street < HandRecord.STREETS; street++) {
+            for (int end = action + hand.getStreetActions(street); action < end; action++) {
+                PlayerHandRoundAction type = hand.getAction(action);
+                out.append(action == 0 ? "{\"street\":" : ",{\"street\":").append(Integer.toString(street))
+                        .append(",\"seat\":").append(Integer.toString(hand.getActionSeat(action)))
+                        .append(",\"action\":\"").append(type == null ? "BLIND" : type.name())
+                        .append("\",\"amount\":").append(Integer.toString(hand.getActionAmount(action))).append('}');
+            }
+        }
+        out.append("]}\n");
+    }
+
+    private static void cards(Writer out, HandRecord hand, int count, boolean secondBoard, char separator)
+            throws IOException {
+        boolean quoted = separator == ',';
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out.append(separator);
+            }
+            String card = card(secondBoard ? hand.getSecondBoardCard(i) : hand.getBoardCard(i));
+            out.append(quoted ? "\"" + card + "\"" : card);
+        }
+    }
+
+    /**
+     * @return the card as rank and suit, as "As", or "??" if it is not known
+     */
+    static String card(int index) {
+        if (index < 1 || index > 52) {
+            return "??";
+        }
+        return new String(new char[]{RANKS.charAt((index - 1) >> 2), SUITS.charAt((index - 1) & 3)});
+    }
+
+    private static void string(Writer out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("text") || args[0].equals("ndjson"))) {
+            System.err.println("Usage: HandHistoryExporter text|ndjson file...");
+            System.exit(1);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        for (int i = 1; i < args.length; i++) {
+            if (args[0].equals("text")) {
+                exportText(Path.of(args[i]), out);
+            } else {
+                exportNdjson(Path.of(args[i]), out);
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,201 @@
+package com.hyphenated.card.journal;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the hands of a file written by {@link HandHistoryWriter} one block at a time, so a file of any size is read
+ * in the memory of one block.  Hands are decoded into a {@link HandRecord} given by the caller, decoding allocates
+ * nothing but the strings of each block.
+ */
+public class HandHistoryReader implements Closeable {
+
+    private final InputStream in;
+    private final Inflater inflater = new Inflater();
+    private byte[] compressed = new byte[1 << 16];
+    private byte[] raw = new byte[1 << 16];
+    private int position;
+    private int remaining;
+    private String[] strings = new String[0];
+    private long lastTimestamp;
+
+    /**
+     * @throws IOException If the file is not a hand history
+     */
+    public HandHistoryReader(Path file) throws IOException {
+        this(Files.newInputStream(file));
+    }
+
+    public HandHistoryReader(InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in, 1 << 16);
+        int magic = this.in.read() << 24 | this.in.read() << 16 | this.in.read() << 8 | this.in.read();
+        if (magic != HandHistoryWriter.MAGIC) {
+            this.in.close();
+            throw new IOException("Not a hand history");
+        }
+    }
+
+    /**
+     * @param hand record to decode the next hand into
+     * @return false at the end of the file, or at a block cut by a crash
+     */
+    public boolean next(HandRecord hand) throws IOException {
+        while (remaining == 0) {
+            if (!readBlock()) {
+                return false;
+            }
+        }
+        remaining--;
+        decode(hand);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+        inflater.end();
+    }
+
+    private boolean readBlock() throws IOException {
+        int rawLength;
+        int compressedLength;
+        try {
+            rawLength = readVarInt();
+            compressedLength = readVarInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        if (in.readNBytes(compressed, 0, compressedLength) < compressedLength) {
+            return false;
+        }
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            if (inflater.inflate(raw, 0, rawLength) != rawLength) {
+                throw new IOException("Corrupt hand history block");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt hand history block", e);
+        }
+        position = 0;
+        remaining = varInt();
+        strings = new String[varInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = varInt();
+            strings[i] = new String(raw, position, length, StandardCharsets.UTF_8);
+            position += length;
+        }
+        lastTimestamp = 0;
+        return true;
+    }
+
+    private void decode(HandRecord hand) {
+        byte[] raw = this.raw;
+        hand.clear();
+        long delta = varLong();
+        lastTimestamp += delta >>> 1 ^ -(delta & 1);
+        hand.setTimestamp(lastTimestamp);
+        hand.setGameId(strings[varInt()]);
+        int seats = raw[position++];
+        int boards = raw[position++];
+        int boardCards = boards & 7;
+        int secondBoardCards = boards >>> 3;
+        hand.setSeats(seats);
+        hand.setShown(varInt());
+        for (int seat = 0; seat < seats; seat++) {
+            hand.setPlayerId(seat, strings[varInt()]);
+            hand.setStack(seat, varInt());
+        }
+        long bits = 0;
+        int bitCount = 0;
+        int cards = 2 * seats + boardCards + secondBoardCards;
+        for (int i = 0; i < cards; i++) {
+            if (bitCount < 6) {
+                bits |= (long) (raw[position++] & 0xFF) << bitCount;
+                bitCount += 8;
+            }
+            int card = (int) bits & 0x3F;
+            bits >>>= 6;
+            bitCount -= 6;
+            if (i < 2 * seats) {
+                hand.setHoleCard(i, card);
+            } else if (i < 2 * seats + boardCards) {
+                hand.setBoardCard(i - 2 * seats, card);
+            } else {
+                hand.setSecondBoardCard(i - 2 * seats - boardCards, card);
+            }
+        }
+        hand.setBoardCards(boardCards);
+        hand.setSecondBoardCards(secondBoardCards);
+        int preflop = varInt();
+        int flop = varInt();
+        int turn = varInt();
+        int river = varInt();
+        decodeActions(hand, 0, preflop);
+        decodeActions(hand, 1, flop);
+        decodeActions(hand, 2, turn);
+        decodeActions(hand, 3, river);
+        for (int winners = varInt(); winners != 0; winners &= winners - 1) {
+            hand.setPayout(Integer.numberOfTrailingZeros(winners), varInt());
+        }
+    }
+
+    private void decodeActions(HandRecord hand, int street, int actions) {
+        for (int i = 0; i < actions; i++) {
+            int action = raw[position++] & 0xFF;
+            hand.addAction(street, action >>> 3 & 0xF, action & 7, (action & 0x80) != 0 ? varInt() : 0);
+        }
+    }
+
+    private int varInt() {
+        byte[] raw = this.raw;
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = raw[position++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private long varLong() {
+        byte[] raw = this.raw;
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = raw[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.hyphenated.card.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes {@link HandRecord}s to a hand history file, in blocks of hands compressed on their own.
+ * <br /><br />
+ * The file starts with {@link #MAGIC}.  A block is its raw and compressed lengths as varints, then the deflated
+ * block: the number of hands, the strings of the block and the hands.  Ids are written once per block and a hand
+ * refers to them by their index.  A hand is
+ * <pre>
+ * varint   milliseconds since the hand before, zigzag encoded
+ * varint   game
+ * byte     seats
+ * byte     board cards | second board cards &lt;&lt; 3
+ * varint   seats which showed their cards
+ * seats x  varint player, varint stack
+ * 6 bits   per hole card, board card and second board card, padded to a byte
+ * 4 x      varint actions of the street
+ * action x byte amount? &lt;&lt; 7 | seat &lt;&lt; 3 | action code, varint amount if not 0
+ * varint   seats which won chips, a varint per seat
+ * </pre>
+ * A typical six handed hand is 50 to 80 bytes before compression.  A block cut by a crash is dropped by the reader,
+ * the blocks before it are complete.
+ */
+public class HandHistoryWriter implements Closeable {
+
+    public static final int MAGIC = 0x504B4848;
+    public static final int DEFAULT_BLOCK_HANDS = 1024;
+
+    private final OutputStream out;
+    private final int blockHands;
+    private final Deflater deflater = new Deflater();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private byte[] hands = new byte[1 << 16];
+    private int length;
+    private int count;
+    private long lastTimestamp;
+    private byte[] raw = new byte[1 << 16];
+    private byte[] compressed = new byte[1 << 16];
+    private long bytesWritten;
+
+    /**
+     * @param file new hand history file, a file cut by a crash is never appended to
+     */
+    public HandHistoryWriter(Path file, int blockHands) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE));
+        this.blockHands = blockHands;
+        writeInt(MAGIC);
+        out.flush();
+    }
+
+    public void write(HandRecord hand) throws IOException {
+        int seats = hand.getSeats();
+        int actions = hand.getActions();
+        ensureCapacity(128 + seats * 10 + actions * 6 + HandRecord.MAX_SEATS * 5);
+        long delta = hand.getTimestamp() - lastTimestamp;
+        lastTimestamp = hand.getTimestamp();
+        putVarLong(delta << 1 ^ delta >> 63);
+        putVarInt(index(hand.getGameId()));
+        hands[length++] = (byte) seats;
+        hands[length++] = (byte) (hand.getBoardCards() | hand.getSecondBoardCards() << 3);
+        putVarInt(hand.getShown());
+        for (int seat = 0; seat < seats; seat++) {
+            putVarInt(index(hand.getPlayerId(seat)));
+            putVarInt(hand.getStack(seat));
+        }
+        //Six bits per card, low bits first
+        long bits = 0;
+        int bitCount = 0;
+        int cards = 2 * seats + hand.getBoardCards() + hand.getSecondBoardCards();
+        for (int i = 0; i < cards; i++) {
+            int card;
+            if (i < 2 * seats) {
+                card = hand.getHoleCard(i >> 1, i & 1);
+            } else if (i < 2 * seats + hand.getBoardCards()) {
+                card = hand.getBoardCard(i - 2 * seats);
+            } else {
+                card = hand.getSecondBoardCard(i - 2 * seats - hand.getBoardCards());
+            }
+            bits |= (long) card << bitCount;
+            bitCount += 6;
+            while (bitCount >= 8) {
+                hands[length++] = (byte) bits;
+                bits >>>= 8;
+                bitCount -= 8;
+            }
+        }
+        if (bitCount > 0) {
+            hands[length++] = (byte) bits;
+        }
+        for (int street = 0; street < HandRecord.STREETS; street++) {
+            putVarInt(hand.getStreetActions(street));
+        }
+        for (int i = 0; i < actions; i++) {
+            int amount = hand.getActionAmount(i);
+            hands[length++] = (byte) ((amount != 0 ? 0x80 : 0) | hand.getActionSeat(i) << 3 | hand.getActionCode(i));
+            if (amount != 0) {
+                putVarInt(amount);
+            }
+        }
+        int winners = 0;
+        for (int seat = 0; seat < seats; seat++) {
+            if (hand.getPayout(seat) != 0) {
+                winners |= 1 << seat;
+            }
+        }
+        putVarInt(winners);
+        for (int seat = 0; seat < seats; seat++) {
+            if (hand.getPayout(seat) != 0) {
+                putVarInt(hand.getPayout(seat));
+            }
+        }
+        if (++count == blockHands) {
+            flush();
+        }
+    }
+
+    /**
+     * Compress and write the hands of the block, even if it is not full.
+     */
+    public void flush() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        int stringBytes = 0;
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringBytes += bytes.length + 5;
+        }
+        if (raw.length < 10 + stringBytes + length) {
+            raw = new byte[10 + stringBytes + length];
+        }
+        int rawLength = putVarInt(raw, 0, count);
+        rawLength = putVarInt(raw, rawLength, strings.size());
+        for (byte[] bytes : encoded) {
+            rawLength = putVarInt(raw, rawLength, bytes.length);
+            System.arraycopy(bytes, 0, raw, rawLength, bytes.length);
+            rawLength += bytes.length;
+        }
+        System.arraycopy(hands, 0, raw, rawLength, length);
+        rawLength += length;
+
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        byte[] header = new byte[10];
+        int headerLength = putVarInt(header, putVarInt(header, 0, rawLength), compressedLength);
+        out.write(header, 0, headerLength);
+        out.write(compressed, 0, compressedLength);
+        out.flush();
+        bytesWritten += headerLength + compressedLength;
+
+        stringIndexes.clear();
+        strings.clear();
+        length = 0;
+        count = 0;
+        lastTimestamp = 0;
+    }
+
+    /**
+     * @return size of the file, without the hands of the block not written yet
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+        deflater.end();
+    }
+
+    private int index(String string) {
+        Integer index = stringIndexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            stringIndexes.put(string, index);
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (hands.length - length < bytes) {
+            hands = Arrays.copyOf(hands, Math.max(hands.length * 2, length + bytes));
+        }
+    }
+
+    private void putVarInt(int value) {
+        length = putVarInt(hands, length, value);
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            hands[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        hands[length++] = (byte) value;
+    }
+
+    private static int putVarInt(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+        bytesWritten += 4;
+    }
+}
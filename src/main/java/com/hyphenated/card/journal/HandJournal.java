@@ -0,0 +1,255 @@
+package com.hyphenated.card.journal;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of the {@link HandEvent}s of every table, in numbered segment files.
+ * <br /><br />
+ * Events of all tables go through one writer thread.  It takes every event waiting in the queue, writes them
+ * with one call and forces the file to disk once for the whole batch, so the tables share the cost of the fsync.
+ * The future of an event completes when it is on the disk.  A new segment is started when the current one is
+ * full, and each server start writes to a new segment, so a segment cut by a crash is never appended to.
+ * <br /><br />
+ * A {@link HandEventType#SNAPSHOT} marks that the game is in the database.  When a segment is full the number of
+ * the oldest segment holding events of a game after its last snapshot is saved in the checkpoint file, and
+ * {@link #recover()} reads from there on, so recovery reads the tail of the journal.  Older segments are kept as
+ * the hand histories.
+ */
+public class HandJournal implements Closeable {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final BlockingQueue<Append> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    //First segment with events of the game since its last snapshot
+    private final Map<String, Long> openGames = new ConcurrentHashMap<>();
+    private final long firstSegment;
+    //Used by the writer thread only
+    private FileChannel channel;
+    private long segment;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    public HandJournal(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            segment = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+            firstSegment = readCheckpoint(segments.isEmpty() ? segment : segmentNumber(segments.get(0)));
+            channel = openSegment(segment);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot open the hand journal in " + directory, e);
+        }
+        writer = new Thread(this::write, "hand-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @return completes once the event is on the disk, or with the error which stopped it
+     */
+    public CompletableFuture<Void> append(HandEvent event) {
+        Append append = new Append(event);
+        queue.add(append);
+        return append.written;
+    }
+
+    /**
+     * Read the events written since the checkpoint, and keep the games found open until their next snapshot.
+     * Call before the tables take new actions.
+     *
+     * @return events of each game after its last snapshot, in the order they were written
+     */
+    public Map<String, List<HandEvent>> recover() {
+        Map<String, List<HandEvent>> events = new LinkedHashMap<>();
+        Map<String, Long> firstSegments = new ConcurrentHashMap<>();
+        for (Path file : segments()) {
+            long number = segmentNumber(file);
+            if (number < firstSegment) {
+                continue;
+            }
+            read(file, event -> {
+                if (event.getType() == HandEventType.SNAPSHOT) {
+                    events.remove(event.getGameId());
+                    firstSegments.remove(event.getGameId());
+                } else {
+                    events.computeIfAbsent(event.getGameId(), id -> new ArrayList<>()).add(event);
+                    firstSegments.putIfAbsent(event.getGameId(), number);
+                }
+            });
+        }
+        firstSegments.forEach(openGames::putIfAbsent);
+        return events;
+    }
+
+    /**
+     * @return segment files of the journal, oldest first
+     */
+    public List<Path> segments() {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segments::add);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot list the hand journal in " + directory, e);
+        }
+        //Numbers have a fixed width, the names sort in order
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * Stream the events of a segment without holding them in memory.  Only lines ended by their newline are read,
+     * the last line of a segment cut by a crash may still parse with fewer cards, it is dropped.  A line which is not
+     * an event is skipped.
+     */
+    public static void read(Path segment, Consumer<HandEvent> consumer) {
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(64);
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c != '\n') {
+                    line.append((char) c);
+                    continue;
+                }
+                HandEvent event;
+                try {
+                    event = HandEvent.parse(line.toString());
+                } catch (IllegalArgumentException e) {
+                    continue;
+                } finally {
+                    line.setLength(0);
+                }
+                consumer.accept(event);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("cannot read the hand journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Write the events already appended and stop the writer.
+     */
+    @Override
+    public void close() {
+        queue.add(Append.CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        List<Append> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+            closing = batch.remove(Append.CLOSE);
+            try {
+                if (channel.size() >= segmentBytes) {
+                    nextSegment();
+                }
+                buffer.clear();
+                for (Append append : batch) {
+                    HandEvent event = append.event;
+                    if (event.getType() == HandEventType.SNAPSHOT) {
+                        openGames.remove(event.getGameId());
+                    } else {
+                        openGames.putIfAbsent(event.getGameId(), segment);
+                    }
+                    byte[] line = event.toLine().getBytes(StandardCharsets.UTF_8);
+                    if (buffer.remaining() < line.length) {
+                        buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + line.length))
+                                .put(buffer.flip());
+                    }
+                    buffer.put(line);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                batch.forEach(append -> append.written.complete(null));
+            } catch (IOException | RuntimeException e) {
+                batch.forEach(append -> append.written.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void nextSegment() throws IOException {
+        channel.close();
+        segment++;
+        channel = openSegment(segment);
+        long checkpoint = openGames.values().stream().mapToLong(Long::longValue).min().orElse(segment);
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temp, Long.toString(checkpoint), StandardCharsets.UTF_8);
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private long readCheckpoint(long oldest) throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        if (!Files.exists(checkpoint)) {
+            return oldest;
+        }
+        return Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class Append {
+        private static final Append CLOSE = new Append(null);
+
+        private final HandEvent event;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private Append(HandEvent event) {
+            this.event = event;
+        }
+    }
+}
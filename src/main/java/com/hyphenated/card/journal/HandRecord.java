@@ -0,0 +1,253 @@
+package com.hyphenated.card.journal;
+
+import com.hyphenated.card.enums.PlayerHandRoundAction;
+
+import java.util.Arrays;
+
+/**
+ * A completed hand as it is stored in the hand history, in primitive arrays so one record can be reused for
+ * every hand read.
+ * <br /><br />
+ * Players are identified by their seat, the order they were dealt in.  Cards are
+ * {@link com.hyphenated.card.eval.EvaluationIndex} values.  Actions are kept in the order they were taken, with the
+ * number of actions on each street.
+ */
+public final class HandRecord {
+
+    public static final int MAX_SEATS = 10;
+    public static final int STREETS = 4;
+    //Action codes, the blinds and the ordinal of the action plus one
+    static final int BLIND = 0;
+    private static final PlayerHandRoundAction[] ACTIONS = PlayerHandRoundAction.values();
+
+    private long timestamp;
+    private String gameId;
+    private int seats;
+    private final String[] playerIds = new String[MAX_SEATS];
+    private final int[] stacks = new int[MAX_SEATS];
+    private final int[] holeCards = new int[2 * MAX_SEATS];
+    private int shown;
+    private final int[] board = new int[5];
+    private int boardCards;
+    private final int[] secondBoard = new int[5];
+    private int secondBoardCards;
+    private final int[] streetActions = new int[STREETS];
+    private int actions;
+    private int[] actionSeats = new int[32];
+    private int[] actionCodes = new int[32];
+    private int[] actionAmounts = new int[32];
+    private final int[] payouts = new int[MAX_SEATS];
+
+    public void clear() {
+        gameId = null;
+        seats = 0;
+        shown = 0;
+        boardCards = 0;
+        secondBoardCards = 0;
+        actions = 0;
+        Arrays.fill(streetActions, 0);
+        Arrays.fill(payouts, 0);
+        Arrays.fill(playerIds, null);
+    }
+
+    /**
+     * @return epoch milliseconds when the cards were dealt
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public String getPlayerId(int seat) {
+        return playerIds[seat];
+    }
+
+    /**
+     * @return chips of the player when the hand started
+     */
+    public int getStack(int seat) {
+        return stacks[seat];
+    }
+
+    /**
+     * @param card 0 or 1
+     */
+    public int getHoleCard(int seat, int card) {
+        return holeCards[2 * seat + card];
+    }
+
+    /**
+     * @return true if the player showed their cards at the end of the hand
+     */
+    public boolean isShown(int seat) {
+        return (shown >>> seat & 1) != 0;
+    }
+
+    public int getBoardCards() {
+        return boardCards;
+    }
+
+    public int getBoardCard(int i) {
+        return board[i];
+    }
+
+    /**
+     * @return cards of the second board, 0 if the hand was not run twice
+     */
+    public int getSecondBoardCards() {
+        return secondBoardCards;
+    }
+
+    public int getSecondBoardCard(int i) {
+        return secondBoard[i];
+    }
+
+    public int getActions() {
+        return actions;
+    }
+
+    /**
+     * @param street 0 for preflop to 3 for the river
+     * @return number of actions on the street, they follow the actions of the streets before
+     */
+    public int getStreetActions(int street) {
+        return streetActions[street];
+    }
+
+    public int getActionSeat(int action) {
+        return actionSeats[action];
+    }
+
+    /**
+     * @return the action, or null for a blind
+     */
+    public PlayerHandRoundAction getAction(int action) {
+        return actionCodes[action] == BLIND ? null : ACTIONS[actionCodes[action] - 1];
+    }
+
+    public int getActionAmount(int action) {
+        return actionAmounts[action];
+    }
+
+    /**
+     * @return chips the player won
+     */
+    public int getPayout(int seat) {
+        return payouts[seat];
+    }
+
+    void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return the seat of the player
+     * @throws IllegalStateException If every seat is taken
+     */
+    int addSeat(String playerId, int stack, int card1, int card2) {
+        if (seats == MAX_SEATS) {
+            throw new IllegalStateException("A hand has at most " + MAX_SEATS + " seats");
+        }
+        playerIds[seats] = playerId;
+        stacks[seats] = stack;
+        holeCards[2 * seats] = card1;
+        holeCards[2 * seats + 1] = card2;
+        return seats++;
+    }
+
+    /**
+     * @return the seat of the player, -1 if they were not dealt in
+     */
+    int findSeat(String playerId) {
+        for (int seat = 0; seat < seats; seat++) {
+            if (playerIds[seat].equals(playerId)) {
+                return seat;
+            }
+        }
+        return -1;
+    }
+
+    void setPlayerId(int seat, String playerId) {
+        playerIds[seat] = playerId;
+    }
+
+    void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    void setStack(int seat, int stack) {
+        stacks[seat] = stack;
+    }
+
+    void setHoleCard(int index, int card) {
+        holeCards[index] = card;
+    }
+
+    int getShown() {
+        return shown;
+    }
+
+    void setShown(int shown) {
+        this.shown = shown;
+    }
+
+    void show(int seat) {
+        shown |= 1 << seat;
+    }
+
+    void setBoardCards(int boardCards) {
+        this.boardCards = boardCards;
+    }
+
+    void addBoardCard(int card) {
+        board[boardCards++] = card;
+    }
+
+    void setBoardCard(int i, int card) {
+        board[i] = card;
+    }
+
+    void setSecondBoardCards(int secondBoardCards) {
+        this.secondBoardCards = secondBoardCards;
+    }
+
+    void setSecondBoardCard(int i, int card) {
+        secondBoard[i] = card;
+    }
+
+    int getActionCode(int action) {
+        return actionCodes[action];
+    }
+
+    void addAction(int street, int seat, int code, int amount) {
+        if (actions == actionSeats.length) {
+            actionSeats = Arrays.copyOf(actionSeats, actions * 2);
+            actionCodes = Arrays.copyOf(actionCodes, actions * 2);
+            actionAmounts = Arrays.copyOf(actionAmounts, actions * 2);
+        }
+        actionSeats[actions] = seat;
+        actionCodes[actions] = code;
+        actionAmounts[actions] = amount;
+        actions++;
+        streetActions[street]++;
+    }
+
+    void addPayout(int seat, int amount) {
+        payouts[seat] += amount;
+    }
+
+    void setPayout(int seat, int amount) {
+        payouts[seat] = amount;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hyphenated.card.journal;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.EvaluationIndex;
+
+/**
+ * Builds the {@link HandRecord} of a game from its {@link HandEvent}s, one hand after the other.
+ * <br /><br />
+ * A hand starts with its deal events.  Events before the first deal belong to a hand started before the server,
+ * that hand is never complete.  Events of one game must come from one thread, in their order.
+ */
+public class HandRecordBuilder {
+
+    private final HandRecord record = new HandRecord();
+    private boolean started;
+    private boolean dealing;
+    private int street;
+
+    /**
+     * @return the hand completed by the event, or null.  The record is reused for the next hand.
+     */
+    public HandRecord accept(HandEvent event) {
+        if (event.getType() == HandEventType.DEAL) {
+            if (!dealing) {
+                record.clear();
+                record.setTimestamp(System.currentTimeMillis());
+                record.setGameId(event.getGameId());
+                started = true;
+                dealing = true;
+                street = 0;
+            }
+            if (record.getSeats() == HandRecord.MAX_SEATS) {
+                started = false;
+            } else {
+                record.addSeat(event.getPlayerId(), event.getAmount(),
+                        EvaluationIndex.of(event.getCards().get(0)), EvaluationIndex.of(event.getCards().get(1)));
+            }
+            return null;
+        }
+        dealing = false;
+        if (!started) {
+            return null;
+        }
+        switch (event.getType()) {
+            case BLIND -> action(event, HandRecord.BLIND);
+            case ACTION -> action(event, event.getAction().ordinal() + 1);
+            case STREET -> {
+                if (HandEvent.SECOND_BOARD.equals(event.getName())) {
+                    int i = 0;
+                    for (Card card : event.getCards()) {
+                        record.setSecondBoardCard(i++, EvaluationIndex.of(card));
+                    }
+                    record.setSecondBoardCards(i);
+                } else {
+                    event.getCards().forEach(card -> record.addBoardCard(EvaluationIndex.of(card)));
+                    street = Math.min(street + 1, HandRecord.STREETS - 1);
+                }
+            }
+            case SHOWDOWN -> {
+                int seat = record.findSeat(event.getPlayerId());
+                if (seat >= 0) {
+                    record.show(seat);
+                }
+            }
+            case PAYOUT -> {
+                int seat = record.findSeat(event.getPlayerId());
+                if (seat >= 0) {
+                    record.addPayout(seat, event.getAmount());
+                }
+            }
+            case HAND_END -> {
+                started = false;
+                return record;
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    private void action(HandEvent event, int code) {
+        int seat = record.findSeat(event.getPlayerId());
+        if (seat < 0) {
+            //A player who was not dealt in cannot act, the hand is not usable
+            started = false;
+            return;
+        }
+        record.addAction(street, seat, code, event.getAmount());
+    }
+}
@@ -0,0 +1,83 @@
+package com.hyphenated.card.journal;
+
+import com.hyphenated.card.Deck;
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.enums.GameStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * The cards of the hands journaled for a game, so that the hands started again while its actions are replayed deal
+ * the cards which were dealt the first time.
+ * <br /><br />
+ * A new hand deals its board first, then two cards to each player in their order, then the cards of the second
+ * board which are not on the first one.  The cards of a street which was not journaled were never shown, any card
+ * left in the deck takes their place.
+ */
+public class HandReplay {
+
+    private final Queue<List<Card>> hands = new ArrayDeque<>();
+
+    /**
+     * @param events events of one game, in their order
+     */
+    public HandReplay(List<HandEvent> events) {
+        Card[] board = null;
+        List<Card> holeCards = null;
+        List<Card> secondBoard = List.of();
+        HandEventType previous = null;
+        for (HandEvent event : events) {
+            if (event.getType() == HandEventType.DEAL) {
+                if (previous != HandEventType.DEAL) {
+                    add(board, holeCards, secondBoard);
+                    board = new Card[5];
+                    holeCards = new ArrayList<>();
+                    secondBoard = List.of();
+                }
+                holeCards.addAll(event.getCards());
+            } else if (event.getType() == HandEventType.STREET && board != null) {
+                List<Card> cards = event.getCards();
+                if (HandEvent.SECOND_BOARD.equals(event.getName())) {
+                    secondBoard = cards;
+                } else if (GameStatus.FLOP.name().equals(event.getName())) {
+                    board[0] = cards.get(0);
+                    board[1] = cards.get(1);
+                    board[2] = cards.get(2);
+                } else if (GameStatus.TURN.name().equals(event.getName())) {
+                    board[3] = cards.get(0);
+                } else if (GameStatus.RIVER.name().equals(event.getName())) {
+                    board[4] = cards.get(0);
+                }
+            }
+            previous = event.getType();
+        }
+        add(board, holeCards, secondBoard);
+    }
+
+    /**
+     * @return the deck of the next journaled hand, empty once every journaled hand was dealt
+     */
+    public Optional<Deck> nextDeck() {
+        return Optional.ofNullable(hands.poll()).map(Deck::new);
+    }
+
+    private void add(Card[] board, List<Card> holeCards, List<Card> secondBoard) {
+        if (board == null) {
+            return;
+        }
+        List<Card> cards = new ArrayList<>(Arrays.asList(board));
+        cards.addAll(holeCards);
+        for (int i = 0; i < secondBoard.size(); i++) {
+            //Cards the second board shares with the first were not dealt again
+            if (secondBoard.get(i) != board[i]) {
+                cards.add(secondBoard.get(i));
+            }
+        }
+        hands.add(cards);
+    }
+}
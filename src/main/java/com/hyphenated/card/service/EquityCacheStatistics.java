@@ -0,0 +1,54 @@
+package com.hyphenated.card.service;
+
+/**
+ * Snapshot of the counters of the {@link EquityQueryService} cache.
+ */
+public class EquityCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final int size;
+    private final int capacity;
+
+    public EquityCacheStatistics(long hits, long misses, int size, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return queries answered from the cache, including queries which waited for the same computation
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return queries which started a computation
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return share of the queries answered from the cache, 0 before the first query
+     */
+    public double getHitRate() {
+        long queries = hits + misses;
+        return queries == 0 ? 0 : (double) hits / queries;
+    }
+
+    @Override
+    public String toString() {
+        return "Equity cache " + size + "/" + capacity + " (hits: " + hits + ", misses: " + misses + ")";
+    }
+}
@@ -0,0 +1,42 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.eval.Equity;
+import com.hyphenated.card.eval.EquityEstimate;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
+
+import java.time.Duration;
+
+/**
+ * Service to compute how often a hand wins against opponents holding any two of the remaining cards.
+ */
+public interface EquityCalculator {
+
+    /**
+     * Enumerate every completion of the board and every opponent hand.
+     * <br /><br />
+     * The cost grows quickly with the missing board cards: preflop this is over two billion showdowns,
+     * on the turn less than fifty thousand.
+     *
+     * @param hand  hole cards of the player
+     * @param board 0 to 5 known board cards
+     * @return exact {@link Equity} of the hand
+     * @throws IllegalArgumentException If the board has more than 5 cards or a card is both in the hand and on the board
+     */
+    Equity calculate(Hand hand, Board board);
+
+    /**
+     * Estimate the equity from random boards and opponent hands, cheap enough for live decisions.
+     * Sampling stops when the budget is spent or when the 95% confidence interval is narrower than the target,
+     * whichever comes first.
+     *
+     * @param hand        hole cards of the player
+     * @param board       0 to 5 known board cards
+     * @param opponents   number of opponents, each holding two random cards
+     * @param budget      wall-clock time to spend at most
+     * @param targetWidth width of the confidence interval to stop at, 0 to use the whole budget
+     * @return {@link EquityEstimate} with the number of samples and the confidence interval
+     * @throws IllegalArgumentException If the cards are invalid or there are not enough cards left for the opponents
+     */
+    EquityEstimate estimate(Hand hand, Board board, int opponents, Duration budget, double targetWidth);
+}
@@ -0,0 +1,306 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.Equity;
+import com.hyphenated.card.eval.EquityEstimate;
+import com.hyphenated.card.eval.EvaluationIndex;
+import com.hyphenated.card.eval.HandRankEvaluator;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.Combinations;
+import com.hyphenated.card.holder.Hand;
+import com.hyphenated.card.holder.SuitIsomorphism;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+@Service
+public class EquityCalculatorImpl implements EquityCalculator {
+
+    //Samples a worker draws between checks of the budget and the confidence interval
+    private static final int BATCH = 256;
+    //No interval is trusted before this many samples, a few identical outcomes would have no variance
+    private static final int MIN_SAMPLES = 4 * 1024;
+
+    private final HandRankEvaluator evaluator;
+
+    @Autowired
+    public EquityCalculatorImpl(HandRankEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Only boards which are their own {@link SuitIsomorphism} representative are played, their results count
+     * once for every board of their class.  The hand and board are replaced by their representative first,
+     * which does not change the equity.
+     */
+    @Override
+    public Equity calculate(Hand hand, Board board) {
+        checkCards(hand, board);
+        long[] canonical = SuitIsomorphism.canonicalize(hand.getCardSet().getBits(), board.getCardSet().getBits());
+        int[] holeCards = CardSet.ofBits(canonical[0]).toEvaluationIndexes();
+        long remaining = CardSet.ofBits(canonical[0] | canonical[1]).complement().getBits();
+        int missing = 5 - Long.bitCount(canonical[1]);
+        long[] counts = ForkJoinPool.commonPool().invoke(new EnumerationTask(evaluator, holeCards[0], holeCards[1],
+                canonical[0], canonical[1], remaining, missing, 0, Combinations.count(Long.bitCount(remaining), missing)));
+        return new Equity(counts[0], counts[1], counts[2]);
+    }
+
+    @Override
+    public EquityEstimate estimate(Hand hand, Board board, int opponents, Duration budget, double targetWidth) {
+        int[] knownBoard = knownBoard(hand, board);
+        int[] remaining = CardSet.of(hand, board).complement().toEvaluationIndexes();
+        int knownCards = board.getCards().length;
+        if (opponents < 1 || 5 - knownCards + 2 * opponents > remaining.length) {
+            throw new IllegalArgumentException("Cannot deal " + opponents + " opponents on " + board);
+        }
+        Card[] holeCards = hand.getCards();
+        Sampling sampling = new Sampling(System.nanoTime() + budget.toNanos(), targetWidth);
+        int workers = ForkJoinPool.commonPool().getParallelism();
+        SplittableRandom random = new SplittableRandom();
+        SamplingTask[] tasks = new SamplingTask[workers];
+        for (int i = 0; i < workers; i++) {
+            tasks[i] = new SamplingTask(evaluator, EvaluationIndex.of(holeCards[0]), EvaluationIndex.of(holeCards[1]),
+                    remaining.clone(), knownBoard, knownCards, opponents, random.split(), sampling);
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        return sampling.toEstimate();
+    }
+
+    /**
+     * @return the board cards as evaluation indexes, in an array of 5 with the missing cards last
+     */
+    private static int[] knownBoard(Hand hand, Board board) {
+        checkCards(hand, board);
+        Card[] cards = board.getCards();
+        int[] knownBoard = new int[5];
+        for (int i = 0; i < cards.length; i++) {
+            knownBoard[i] = EvaluationIndex.of(cards[i]);
+        }
+        return knownBoard;
+    }
+
+    private static void checkCards(Hand hand, Board board) {
+        CardSet handCards = hand.getCardSet();
+        CardSet boardCards = board.getCardSet();
+        if (board.getCards().length > 5 || handCards.intersects(boardCards)
+                || boardCards.size() != board.getCards().length) {
+            throw new IllegalArgumentException("Cannot calculate the equity of " + hand + " on " + board);
+        }
+    }
+
+    /**
+     * Enumerates the completions of the board with a range of colex ranks, see {@link Combinations}.
+     * Ranges are split in halves down to {@value #LEAF_BOARDS} boards, each task counts into its own primitive
+     * counters which are added up when the tasks are joined.
+     */
+    private static class EnumerationTask extends RecursiveTask<long[]> {
+
+        private static final int LEAF_BOARDS = 16;
+
+        private final HandRankEvaluator evaluator;
+        private final int card1;
+        private final int card2;
+        private final long handBits;
+        private final long knownBits;
+        //Number of situations of the hand and known board, the completed boards divide these into classes
+        private final int classSize;
+        private final long remaining;
+        private final int missing;
+        private final long from;
+        private final long to;
+        private final int[] board = new int[5];
+        private long wins;
+        private long draws;
+        private long losses;
+
+        EnumerationTask(HandRankEvaluator evaluator, int card1, int card2, long handBits, long knownBits,
+                        long remaining, int missing, long from, long to) {
+            this.evaluator = evaluator;
+            this.card1 = card1;
+            this.card2 = card2;
+            this.handBits = handBits;
+            this.knownBits = knownBits;
+            this.classSize = SuitIsomorphism.weight(handBits, knownBits);
+            this.remaining = remaining;
+            this.missing = missing;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > LEAF_BOARDS) {
+                long middle = (from + to) >>> 1;
+                EnumerationTask left = new EnumerationTask(evaluator, card1, card2, handBits, knownBits,
+                        remaining, missing, from, middle);
+                EnumerationTask right = new EnumerationTask(evaluator, card1, card2, handBits, knownBits,
+                        remaining, missing, middle, to);
+                left.fork();
+                long[] counts = right.compute();
+                long[] leftCounts = left.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += leftCounts[i];
+                }
+                return counts;
+            }
+            Combinations.forEach(remaining, missing, from, to, this::play);
+            return new long[]{wins, draws, losses};
+        }
+
+        /**
+         * Play the hand against every opponent hand of the cards left on the completed board.
+         * The board is walked through the evaluator once, and only for the representative boards.
+         *
+         * @param added cards completing the board
+         */
+        private void play(long added) {
+            long boardBits = knownBits | added;
+            if (!SuitIsomorphism.isCanonical(handBits, knownBits, boardBits)) {
+                return;
+            }
+            long weight = SuitIsomorphism.weight(handBits, knownBits, boardBits) / classSize;
+            int i = 0;
+            for (long cards = boardBits; cards != 0; cards &= cards - 1) {
+                board[i++] = Long.numberOfTrailingZeros(cards) + 1;
+            }
+            int prefix = evaluator.evaluateBoardPrefix(board[0], board[1], board[2], board[3], board[4]);
+            int rank = evaluator.finish(prefix, card1, card2);
+            long opponents = remaining & ~added;
+            for (long first = opponents; first != 0; first &= first - 1) {
+                int opponentCard1 = Long.numberOfTrailingZeros(first) + 1;
+                for (long second = first & (first - 1); second != 0; second &= second - 1) {
+                    int opponentRank = evaluator.finish(prefix, opponentCard1, Long.numberOfTrailingZeros(second) + 1);
+                    if (rank > opponentRank) {
+                        wins += weight;
+                    } else if (rank == opponentRank) {
+                        draws += weight;
+                    } else {
+                        losses += weight;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Totals of the pot shares of every worker.  Workers add a batch at a time and learn whether to go on.
+     */
+    private static class Sampling {
+
+        private final long deadline;
+        private final double targetWidth;
+        private long samples;
+        private double sum;
+        private double sumOfSquares;
+        private boolean done;
+
+        Sampling(long deadline, double targetWidth) {
+            this.deadline = deadline;
+            this.targetWidth = targetWidth;
+        }
+
+        /**
+         * @return true if sampling should continue
+         */
+        synchronized boolean add(long batchSamples, double batchSum, double batchSumOfSquares) {
+            samples += batchSamples;
+            sum += batchSum;
+            sumOfSquares += batchSumOfSquares;
+            if (!done) {
+                done = System.nanoTime() >= deadline || samples >= MIN_SAMPLES
+                        && EquityEstimate.intervalWidth(standardError()) < targetWidth;
+            }
+            return !done;
+        }
+
+        private double standardError() {
+            double mean = sum / samples;
+            double variance = Math.max(0, (sumOfSquares - samples * mean * mean) / (samples - 1));
+            return Math.sqrt(variance / samples);
+        }
+
+        synchronized EquityEstimate toEstimate() {
+            return new EquityEstimate(samples, sum / samples, samples > 1 ? standardError() : Double.NaN);
+        }
+    }
+
+    /**
+     * Draws random boards and opponent hands with its own random generator.  Cards are drawn with a partial
+     * shuffle of the remaining cards in place, so a sample allocates nothing.
+     */
+    private static class SamplingTask extends RecursiveAction {
+
+        private final HandRankEvaluator evaluator;
+        private final int card1;
+        private final int card2;
+        private final int[] remaining;
+        private final int[] board;
+        private final int knownCards;
+        private final int opponents;
+        private final SplittableRandom random;
+        private final Sampling sampling;
+
+        SamplingTask(HandRankEvaluator evaluator, int card1, int card2, int[] remaining, int[] knownBoard,
+                     int knownCards, int opponents, SplittableRandom random, Sampling sampling) {
+            this.evaluator = evaluator;
+            this.card1 = card1;
+            this.card2 = card2;
+            this.remaining = remaining;
+            this.board = knownBoard.clone();
+            this.knownCards = knownCards;
+            this.opponents = opponents;
+            this.random = random;
+            this.sampling = sampling;
+        }
+
+        @Override
+        protected void compute() {
+            int missing = 5 - knownCards;
+            int drawn = missing + 2 * opponents;
+            do {
+                double sum = 0;
+                double sumOfSquares = 0;
+                for (int n = 0; n < BATCH; n++) {
+                    for (int i = 0; i < drawn; i++) {
+                        int j = i + random.nextInt(remaining.length - i);
+                        int swap = remaining[i];
+                        remaining[i] = remaining[j];
+                        remaining[j] = swap;
+                    }
+                    System.arraycopy(remaining, 0, board, knownCards, missing);
+                    int prefix = evaluator.evaluateBoardPrefix(board[0], board[1], board[2], board[3], board[4]);
+                    int rank = evaluator.finish(prefix, card1, card2);
+                    int best = 0;
+                    int tied = 0;
+                    for (int o = missing; o < drawn; o += 2) {
+                        int opponentRank = evaluator.finish(prefix, remaining[o], remaining[o + 1]);
+                        if (opponentRank > best) {
+                            best = opponentRank;
+                            tied = 1;
+                        } else if (opponentRank == best) {
+                            tied++;
+                        }
+                    }
+                    double share = rank > best ? 1 : rank == best ? 1.0 / (tied + 1) : 0;
+                    sum += share;
+                    sumOfSquares += share * share;
+                }
+                if (!sampling.add(BATCH, sum, sumOfSquares)) {
+                    return;
+                }
+            } while (true);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.eval.EquityEstimate;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
+
+/**
+ * Equity of a situation as asked by the players, shared by every table.
+ * <br /><br />
+ * The same spots, preflop all-ins most of all, come up at every table, so results are kept in a bounded cache.
+ * Situations which only differ by a renaming of the suits have the same equity and share an entry.
+ */
+public interface EquityQueryService {
+
+    /**
+     * Equity of the hand against opponents holding any two of the remaining cards.  Heads up pots with a
+     * flop are enumerated exactly, the others are sampled.
+     *
+     * @param hand      hole cards of the player
+     * @param board     0, 3, 4 or 5 known board cards
+     * @param opponents number of opponents
+     * @return {@link EquityEstimate} of the hand, with a standard error of 0 when enumerated
+     * @throws IllegalArgumentException If the cards are invalid or there are not enough cards for the opponents
+     */
+    EquityEstimate query(Hand hand, Board board, int opponents);
+
+    /**
+     * @return hits, misses and size of the cache
+     */
+    EquityCacheStatistics getStatistics();
+}
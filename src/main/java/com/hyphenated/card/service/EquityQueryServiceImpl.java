@@ -0,0 +1,141 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.eval.Equity;
+import com.hyphenated.card.eval.EquityEstimate;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
+import com.hyphenated.card.holder.SuitIsomorphism;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The cache is an access ordered {@link LinkedHashMap} dropping the least recently used entry, keyed by the
+ * {@link SuitIsomorphism} representative of the hand and board.  Entries are futures inserted before the
+ * computation starts, so players asking for the same spot at once wait for one computation instead of
+ * starting one each.
+ */
+@Service
+public class EquityQueryServiceImpl implements EquityQueryService {
+
+    static final int DEFAULT_CAPACITY = 100_000;
+    private static final Duration BUDGET = Duration.ofMillis(50);
+    private static final double TARGET_WIDTH = 0.005;
+
+    private final EquityCalculator calculator;
+    private final int capacity;
+    //Guarded by itself, like the counters
+    private final Map<Key, CompletableFuture<EquityEstimate>> cache;
+    private long hits;
+    private long misses;
+
+    @Autowired
+    public EquityQueryServiceImpl(EquityCalculator calculator) {
+        this(calculator, DEFAULT_CAPACITY);
+    }
+
+    EquityQueryServiceImpl(EquityCalculator calculator, int capacity) {
+        this.calculator = calculator;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<EquityEstimate>> eldest) {
+                return size() > EquityQueryServiceImpl.this.capacity;
+            }
+        };
+    }
+
+    @Override
+    public EquityEstimate query(Hand hand, Board board, int opponents) {
+        //Checked before the cache, an invalid query must not push out a valid entry
+        if (hand.getCardSet().intersects(board.getCardSet()) || opponents < 1) {
+            throw new IllegalArgumentException("Cannot calculate the equity of " + hand + " on " + board
+                    + " against " + opponents + " opponents");
+        }
+        long[] canonical = SuitIsomorphism.canonicalize(hand.getCardSet().getBits(), board.getCardSet().getBits());
+        Key key = new Key(canonical[0], canonical[1], opponents);
+        CompletableFuture<EquityEstimate> result;
+        boolean compute = false;
+        synchronized (cache) {
+            result = cache.get(key);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                cache.put(key, result);
+                compute = true;
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        if (compute) {
+            try {
+                result.complete(compute(hand, board, opponents));
+            } catch (Throwable e) {
+                //Failed queries are not cached, the players waiting for it get the same exception.  An Error too,
+                //or they would wait for the entry forever
+                synchronized (cache) {
+                    cache.remove(key, result);
+                }
+                result.completeExceptionally(e);
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private EquityEstimate compute(Hand hand, Board board, int opponents) {
+        if (opponents == 1 && board.getCards().length >= 3) {
+            Equity equity = calculator.calculate(hand, board);
+            return new EquityEstimate(equity.getShowdowns(), equity.getEquity(), 0);
+        }
+        return calculator.estimate(hand, board, opponents, BUDGET, TARGET_WIDTH);
+    }
+
+    @Override
+    public EquityCacheStatistics getStatistics() {
+        synchronized (cache) {
+            return new EquityCacheStatistics(hits, misses, cache.size(), capacity);
+        }
+    }
+
+    private static final class Key {
+
+        private final long hand;
+        private final long board;
+        private final int opponents;
+
+        Key(long hand, long board, int opponents) {
+            this.hand = hand;
+            this.board = board;
+            this.opponents = opponents;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return key.hand == hand && key.board == board && key.opponents == opponents;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(hand) * 31 + Long.hashCode(board)) * 31 + opponents;
+        }
+    }
+}
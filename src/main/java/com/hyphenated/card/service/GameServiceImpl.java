@@ -24,7 +24,6 @@ THE SOFTWARE.
 package com.hyphenated.card.service;
 
 import com.hyphenated.card.dao.GameDao;
-import com.hyphenated.card.dao.PlayerDao;
 import com.hyphenated.card.domain.Game;
 import com.hyphenated.card.domain.Player;
 import com.hyphenated.card.enums.GameStatus;
@@ -47,7 +46,10 @@ public class GameServiceImpl implements GameService {
     private GameDao gameDao;
 
     @Autowired
-    private PlayerDao playerDao;
+    private WriteBehindService writeBehindService;
+
+    @Autowired
+    private TableMailboxService tableMailboxService;
 
     @Autowired
     ScheduledPlayerActionService scheduledPlayerActionService;
@@ -56,7 +58,8 @@ public class GameServiceImpl implements GameService {
     @Override
     @Transactional(readOnly = true)
     public Optional<Game> findGameById(String id) {
-        return gameDao.findById(id);
+        //A table is newer in memory than in the database, and every caller must change the same instance
+        return writeBehindService.findGame(id);
     }
 
     @Override
@@ -66,9 +69,8 @@ public class GameServiceImpl implements GameService {
     }
 
     @Override
-    @Transactional
     public void startGame(Game game) {
-        new ScheduledExecutorTask(() -> {
+        new ScheduledExecutorTask(() -> tableMailboxService.execute(game.getId(), () -> {
             if (game.getPlayers().size() < 2) {
                 throw new IllegalStateException("Not Enough Players");
             }
@@ -80,49 +82,52 @@ public class GameServiceImpl implements GameService {
             }
 
             //Get all players associated with the game.
-            //Assign random position.  Save the player.
+            //Assign random position.
             List<Player> players = new ArrayList<>(game.getPlayers());
-            players.forEach(player -> {
-                player.setGamePosition(players.size() - 1 >= player.getGamePosition() ? player.getGamePosition() + 1 : 0);
-                playerDao.save(player);
-            });
+            players.forEach(player ->
+                    player.setGamePosition(players.size() - 1 >= player.getGamePosition() ? player.getGamePosition() + 1 : 0));
 
             //Set Button and Big Blind.  Button is position 1 (index 0)
             Collections.sort(players);
             Player player = players.get(0);
             player.setPlayerInButton(true);
             scheduledPlayerActionService.scheduleDefaultAction(player, game);
-            //Save and return the updated game
-            playerDao.save(player);
-            gameDao.save(game);
-        }, 4000);
+            //Written with the next flush of the table
+            writeBehindService.markDirty(game, players.toArray(Player[]::new));
+        }), 4000);
     }
 
     @Override
-    @Transactional
     public void addNewPlayerToGame(Game game, Player player, int startingTableChips) {
-        if (game.getMaxPlayers() >= game.getPlayers().size()) {
-            throw new IllegalStateException("No new players may join");
-        }
-        if (game.getPlayers().size() >= 10) {
-            throw new IllegalStateException("Cannot have more than 10 players in one game");
-        }
-        if (startingTableChips > player.getChips() || game.getBlindLevel().getBigBlind() > player.getChips()) {
-            throw new IllegalStateException("Not enough Chips");
-        }
-        if (game.getBlindLevel().getBigBlind() * 50 < player.getChips()) {
-            throw new IllegalStateException("Too many Chips");
-        }
-        player.removeChips(startingTableChips);
-        player.addTableChips(startingTableChips);
-        game.addPlayer(player);
-        gameDao.save(game);
+        tableMailboxService.execute(game.getId(), () -> {
+            if (game.getMaxPlayers() >= game.getPlayers().size()) {
+                throw new IllegalStateException("No new players may join");
+            }
+            if (game.getPlayers().size() >= 10) {
+                throw new IllegalStateException("Cannot have more than 10 players in one game");
+            }
+            if (startingTableChips > player.getChips() || game.getBlindLevel().getBigBlind() > player.getChips()) {
+                throw new IllegalStateException("Not enough Chips");
+            }
+            if (game.getBlindLevel().getBigBlind() * 50 < player.getChips()) {
+                throw new IllegalStateException("Too many Chips");
+            }
+            player.removeChips(startingTableChips);
+            player.addTableChips(startingTableChips);
+            game.addPlayer(player);
+            writeBehindService.markDirty(game, player);
+        });
     }
 
     @Override
     public void removePlayerFromGame(Game game, Player player) {
-        game.removePlayer(player);
-        gameDao.save(game);
+        tableMailboxService.execute(game.getId(), () -> {
+            //The player seated at the table holds the chips, not the copy of the caller
+            Player seated = game.getPlayers().stream().filter(p -> p.getId().equals(player.getId())).findAny()
+                    .orElse(player);
+            game.removePlayer(seated);
+            writeBehindService.markDirty(game, seated);
+        });
     }
 
     @Override
@@ -0,0 +1,28 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.journal.HandEvent;
+
+/**
+ * Records every completed hand in compact binary hand history files, see
+ * {@link com.hyphenated.card.journal.HandHistoryWriter} for the format and
+ * {@link com.hyphenated.card.journal.HandHistoryExporter} to read them as text.
+ */
+public interface HandHistoryService {
+
+    /**
+     * Add an event to the hand of its game, the hand is recorded with its
+     * {@link com.hyphenated.card.journal.HandEventType#HAND_END}.  Events of a game must be recorded one at a time, in
+     * their order.
+     */
+    void record(HandEvent event);
+
+    /**
+     * Forget the hand being built for a game which ended, after its last event was recorded.
+     */
+    void end(String gameId);
+
+    /**
+     * Write the hands recorded so far, even if their block is not full.
+     */
+    void flush();
+}
@@ -0,0 +1,99 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.journal.HandEvent;
+import com.hyphenated.card.journal.HandHistoryWriter;
+import com.hyphenated.card.journal.HandRecord;
+import com.hyphenated.card.journal.HandRecordBuilder;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands of all tables go to one file per server start, a new file is started once it reaches
+ * {@value #FILE_BYTES} bytes.  Blocks which are not full are written every {@value #FLUSH_INTERVAL_SECONDS} seconds.
+ */
+@Service
+public class HandHistoryServiceImpl implements HandHistoryService {
+
+    public static final String HISTORY_DIR_PROPERTY = "poker.history.dir";
+    static final long FILE_BYTES = 64L << 20;
+    static final int FLUSH_INTERVAL_SECONDS = 10;
+    private static final Logger log = LogManager.getLogger();
+
+    private final Path directory = Path.of(System.getProperty(HISTORY_DIR_PROPERTY,
+            Path.of(System.getProperty("user.home"), ".pokerserver", "history").toString()));
+    private final Map<String, HandRecordBuilder> builders = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    //Guarded by this
+    private HandHistoryWriter writer;
+    private int files;
+
+    public HandHistoryServiceImpl() {
+        scheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void record(HandEvent event) {
+        HandRecord hand = builders.computeIfAbsent(event.getGameId(), id -> new HandRecordBuilder()).accept(event);
+        if (hand == null) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                if (writer != null && writer.getBytesWritten() >= FILE_BYTES) {
+                    writer.close();
+                    writer = null;
+                }
+                if (writer == null) {
+                    Files.createDirectories(directory);
+                    writer = new HandHistoryWriter(directory.resolve(String.format("hands-%d-%04d.bin",
+                            System.currentTimeMillis(), files++)), HandHistoryWriter.DEFAULT_BLOCK_HANDS);
+                }
+                writer.write(hand);
+            } catch (IOException e) {
+                log.error("Cannot record hand of game " + event.getGameId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void end(String gameId) {
+        builders.remove(gameId);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Cannot write the hand history: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        scheduler.shutdown();
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("Cannot write the hand history: " + e.getMessage());
+        }
+        writer = null;
+    }
+}
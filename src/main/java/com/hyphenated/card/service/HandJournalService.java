@@ -0,0 +1,57 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.Deck;
+import com.hyphenated.card.journal.HandEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Journal of everything that happens at the tables.  The actions are written ahead of being applied, so a table
+ * can be rebuilt from its last snapshot in the database, and the rest of the events make the hand histories.
+ */
+public interface HandJournalService {
+
+    /**
+     * @return completes once the event is on the disk, at once for a game being replayed, its events are not
+     * journaled again
+     */
+    CompletableFuture<Void> record(HandEvent event);
+
+    /**
+     * The game ended, its hand history is released once the events recorded before are on the disk.
+     */
+    void end(String gameId);
+
+    /**
+     * Mark that the state of the game was written to the database, and wait until the mark is on the disk.
+     */
+    void snapshot(String gameId);
+
+    /**
+     * @return events of each game written after its last snapshot, in their order
+     */
+    Map<String, List<HandEvent>> recover();
+
+    /**
+     * Replay the journaled events of a game.  While the replay runs nothing is journaled for the game, and the
+     * hands it starts are dealt the journaled cards by {@link #nextReplayedDeck(String)}.
+     *
+     * @param events events of the game returned by {@link #recover()}
+     * @param replay applies the events, on the table's thread
+     */
+    void replay(String gameId, List<HandEvent> events, Runnable replay);
+
+    /**
+     * @return true while the events of the game are replayed, nothing must be sent to the players then
+     */
+    boolean isReplaying(String gameId);
+
+    /**
+     * @return deck of the next hand journaled for the game being replayed, empty if the game is not replayed or
+     * the hand was never journaled
+     */
+    Optional<Deck> nextReplayedDeck(String gameId);
+}
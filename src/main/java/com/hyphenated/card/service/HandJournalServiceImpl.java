@@ -0,0 +1,93 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.Deck;
+import com.hyphenated.card.journal.HandEvent;
+import com.hyphenated.card.journal.HandJournal;
+import com.hyphenated.card.journal.HandReplay;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Events are passed on to the {@link HandHistoryService} once they are journaled, an event which could not be
+ * written is not in the history either.  The journal completes the events in their order on its writer thread, so
+ * each game's events reach the history one at a time and in order.
+ */
+@Service
+public class HandJournalServiceImpl implements HandJournalService {
+
+    public static final String JOURNAL_DIR_PROPERTY = "poker.journal.dir";
+
+    private final HandJournal journal = new HandJournal(Path.of(System.getProperty(JOURNAL_DIR_PROPERTY,
+            Path.of(System.getProperty("user.home"), ".pokerserver", "journal").toString())),
+            HandJournal.DEFAULT_SEGMENT_BYTES);
+
+    private final Map<String, HandReplay> replays = new ConcurrentHashMap<>();
+    //History record of the last event of each game
+    private final Map<String, CompletableFuture<Void>> lastRecorded = new ConcurrentHashMap<>();
+
+    @Autowired
+    private HandHistoryService handHistoryService;
+
+    @Override
+    public CompletableFuture<Void> record(HandEvent event) {
+        if (isReplaying(event.getGameId())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> written = journal.append(event);
+        lastRecorded.put(event.getGameId(), written.thenRun(() -> handHistoryService.record(event)));
+        return written;
+    }
+
+    @Override
+    public void end(String gameId) {
+        CompletableFuture<Void> last = lastRecorded.remove(gameId);
+        if (last == null) {
+            handHistoryService.end(gameId);
+        } else {
+            last.whenComplete((result, e) -> handHistoryService.end(gameId));
+        }
+    }
+
+    @Override
+    public void snapshot(String gameId) {
+        journal.append(HandEvent.snapshot(gameId)).join();
+    }
+
+    @Override
+    public Map<String, List<HandEvent>> recover() {
+        return journal.recover();
+    }
+
+    @Override
+    public void replay(String gameId, List<HandEvent> events, Runnable replay) {
+        replays.put(gameId, new HandReplay(events));
+        try {
+            replay.run();
+        } finally {
+            replays.remove(gameId);
+        }
+    }
+
+    @Override
+    public boolean isReplaying(String gameId) {
+        return replays.containsKey(gameId);
+    }
+
+    @Override
+    public Optional<Deck> nextReplayedDeck(String gameId) {
+        return Optional.ofNullable(replays.get(gameId)).flatMap(HandReplay::nextDeck);
+    }
+
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
+}
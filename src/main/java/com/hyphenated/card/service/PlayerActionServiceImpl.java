@@ -23,8 +23,6 @@ THE SOFTWARE.
 */
 package com.hyphenated.card.service;
 
-import com.hyphenated.card.dao.GameDao;
-import com.hyphenated.card.dao.PlayerDao;
 import com.hyphenated.card.domain.Game;
 import com.hyphenated.card.domain.HandEntity;
 import com.hyphenated.card.domain.Player;
@@ -33,15 +31,12 @@ import com.hyphenated.card.enums.PlayerHandRoundAction;
 import com.hyphenated.card.util.PlayerUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PlayerActionServiceImpl implements PlayerActionService {
 
     @Autowired
-    private PlayerDao playerDao;
-    @Autowired
-    private GameDao gameDao;
+    private WriteBehindService writeBehindService;
 
 
     private boolean actionNotCurrentToAct(Player player, Game game, PlayerHandRoundAction action, int betAmount) {
@@ -49,7 +44,6 @@ public class PlayerActionServiceImpl implements PlayerActionService {
         return actionNotCurrentToAct(player, game, action);
     }
 
-    @Transactional
     private boolean actionNotCurrentToAct(Player player, Game game, PlayerHandRoundAction action) {
         HandEntity hand = game.getHand();
         if (player.equals(hand.getCurrentToAct())) {
@@ -59,18 +53,16 @@ public class PlayerActionServiceImpl implements PlayerActionService {
         player.getPlayerHand().setRoundAction(action);
         hand.addPlayer(player);
         game.setHand(hand);
-        gameDao.save(game);
-        playerDao.save(player);
+        writeBehindService.markDirty(game, player);
         return true;
     }
 
     @Override
-    @Transactional
     public Player fold(Player player, Game game) {
         HandEntity hand = game.getHand();
         //fold out of turn
         if (actionNotCurrentToAct(player, game, PlayerHandRoundAction.FOLD)) return null;
-        hand.removePlayer(player);
+        hand.foldPlayer(player);
         return afterActionSave(player, game, hand);
     }
 
@@ -146,12 +138,11 @@ public class PlayerActionServiceImpl implements PlayerActionService {
         if (toCall < 0) {
             return null;
         }
-        playerHand.setRoundBetAmount(playerHand.getRoundBetAmount() + toCall);
-        playerHand.setBetAmount(playerHand.getBetAmount() + toCall);
-
-        //call out of turn
+        //call out of turn, nothing is bet until the player's turn
         if (actionNotCurrentToAct(player, game, PlayerHandRoundAction.CALL_CURRENT)) return null;
 
+        playerHand.setRoundBetAmount(playerHand.getRoundBetAmount() + toCall);
+        playerHand.setBetAmount(playerHand.getBetAmount() + toCall);
         player.removeTableChips(toCall);
         hand.setPot(hand.getPot() + toCall);
 
@@ -159,23 +150,19 @@ public class PlayerActionServiceImpl implements PlayerActionService {
     }
 
 
-    @Transactional
     private Player afterActionSave(Player player, Game game, HandEntity hand) {
         Player next = PlayerUtil.getNextPlayerToAct(hand, player);
         hand.setCurrentToAct(next);
         game.setHand(hand);
-        gameDao.save(game);
-        playerDao.save(player);
+        writeBehindService.markDirty(game, player);
         return next;
     }
 
-    @Transactional
     private Player afterActionSaveAll(Player player, Game game, HandEntity hand) {
         Player next = PlayerUtil.getNextPlayerToAct(hand, player);
         hand.setCurrentToAct(next);
         game.setHand(hand);
-        gameDao.save(game);
-        playerDao.save(player);
+        writeBehindService.markDirty(game, player);
         return next;
     }
 }
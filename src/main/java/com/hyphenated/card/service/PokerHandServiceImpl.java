@@ -25,8 +25,6 @@ package com.hyphenated.card.service;
 
 import com.hyphenated.card.Deck;
 import com.hyphenated.card.controller.TableTasksController;
-import com.hyphenated.card.dao.GameDao;
-import com.hyphenated.card.dao.PlayerDao;
 import com.hyphenated.card.domain.Game;
 import com.hyphenated.card.domain.HandEntity;
 import com.hyphenated.card.domain.Player;
@@ -35,11 +33,19 @@ import com.hyphenated.card.dto.Cards;
 import com.hyphenated.card.dto.PlayerCards;
 import com.hyphenated.card.dto.PlayerDTO;
 import com.hyphenated.card.dto.PlayersWonOrderDTO;
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.enums.GameStatus;
+import com.hyphenated.card.eval.EvaluationIndex;
+import com.hyphenated.card.eval.HandRankEvaluator;
+import com.hyphenated.card.eval.PotSettlement;
+import com.hyphenated.card.eval.RunoutEquity;
 import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.journal.HandEvent;
 import com.hyphenated.card.util.PlayerUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -47,23 +53,27 @@ import java.util.stream.Collectors;
 @Service
 public class PokerHandServiceImpl implements PokerHandService {
 
+    private static final Logger log = LogManager.getLogger();
+
     @Autowired
-    private GameDao gameDao;
+    private WriteBehindService writeBehindService;
     @Autowired
-    private PlayerDao playerDao;
+    private HandJournalService handJournalService;
     @Autowired
     private PlayerActionService playerActionService;
     @Autowired
     private TableTasksController tableTasksController;
+    @Autowired
+    private HandRankEvaluator handRankEvaluator;
 
-    @Transactional
     public void handleNextGameStatus(Game game) {
         if (game.getHand().getPlayers().size() < 2) {
             game.setGameStatusEndHand();
         } else {
+            dealSecondBoard(game);
             game.setNextGameStatus();
         }
-        gameDao.save(game);
+        writeBehindService.markDirty(game);
         resetRoundValues(game);
         switch (game.getGameStatus()) {
             case PREFLOP -> startNewHand(game);
@@ -73,12 +83,17 @@ public class PokerHandServiceImpl implements PokerHandService {
             case END_HAND -> {
                 if (endHand(game)) {
                     game.setGameStatusNotStarted();
-                    gameDao.save(game);
+                    writeBehindService.markDirty(game);
+                    handJournalService.end(game.getId());
                 } else {
                     game.setNextGameStatus();
-                    gameDao.save(game);
+                    writeBehindService.markDirty(game);
                     startNewHand(game);
                 }
+                //Hand boundary, the database holds every finished hand.  A replay writes once it is done.
+                if (!isReplaying(game)) {
+                    writeBehindService.flush(game);
+                }
             }
             default -> throw new IllegalStateException("Unexpected value: " + game.getGameStatus());
         }
@@ -86,9 +101,11 @@ public class PokerHandServiceImpl implements PokerHandService {
     }
 
     @Override
-    @Transactional
     public void startNewHand(Game game) {
-        HandEntity hand = new HandEntity();
+        //A replayed hand deals the cards it was dealt before the restart
+        HandEntity hand = handJournalService.nextReplayedDeck(game.getId()).map(HandEntity::new)
+                .orElseGet(HandEntity::new);
+        hand.addAllPlayers(game.getPlayers());
         Deck deck = hand.getDeck();
         hand.getPlayers().forEach(player -> player
                 .setPlayerHand(new PlayerHand(deck.dealCard(), deck.dealCard())));
@@ -119,20 +136,29 @@ public class PokerHandServiceImpl implements PokerHandService {
         game.setHand(hand);
         hand.getPlayers().forEach(player -> {
             PlayerHand playerHand = player.getPlayerHand();
-            tableTasksController.sendCardsToUser(
-                    new Cards(Arrays.stream(playerHand.getHand().getCards()).toList()),
-                    player.getId());
+            handJournalService.record(HandEvent.deal(game.getId(), player.getId(),
+                    player.getTableChips() + playerHand.getBetAmount(), playerHand.getCard1(), playerHand.getCard2()));
+            if (!isReplaying(game)) {
+                tableTasksController.sendCardsToUser(
+                        new Cards(Arrays.stream(playerHand.getHand().getCards()).toList()),
+                        player.getId());
+            }
         });
-        playerDao.save(bigBlind);
-        playerDao.save(smallBlind);
-        gameDao.save(game);
+        handJournalService.record(HandEvent.blind(game.getId(), smallBlind.getId(), sbBet));
+        handJournalService.record(HandEvent.blind(game.getId(), bigBlind.getId(), bbBet));
+        writeBehindService.markDirty(game, bigBlind, smallBlind);
     }
 
     @Override
-    @Transactional
     public boolean endHand(Game game) {
         HandEntity hand = game.getHand();
-        PlayersWonOrderDTO PlayersWonOrderDTO = handleWinners(hand);
+        Optional.ofNullable(hand.getSecondBoardEntity()).ifPresent(board ->
+                handJournalService.record(HandEvent.street(game.getId(), HandEvent.SECOND_BOARD, board.getCards())));
+        hand.getPlayers().stream().filter(player -> player.getPlayerHand() != null).forEach(player ->
+                handJournalService.record(HandEvent.showdown(game.getId(), player.getId(),
+                        player.getPlayerHand().getCard1(), player.getPlayerHand().getCard2())));
+        PlayersWonOrderDTO PlayersWonOrderDTO = handleWinners(game);
+        handJournalService.record(HandEvent.handEnd(game.getId()));
         Player playerInBTN = hand.findPlayerInBTN().orElse(game.getPlayers().first());
         game.getPlayers().stream().filter(player -> player.getTableChips() <= 0).forEach(game::removePlayer);
         if (game.getPlayers().size() < 2) {
@@ -157,28 +183,47 @@ public class PokerHandServiceImpl implements PokerHandService {
             hand.removePlayer(playerInBTN);
         }
         game.setHand(hand);
+        writeBehindService.markDirty(game);
+        if (isReplaying(game)) {
+            return false;
+        }
+        Optional.ofNullable(hand.getSecondBoardEntity()).ifPresent(board ->
+                tableTasksController.sendSecondBoard(new Cards(board.getCards()), game.getId()));
         tableTasksController.endGame(new PlayerCards(Map.copyOf(hand.getPlayers().stream().collect(Collectors.toConcurrentMap(Player::getPlayerDTO, player -> {
             PlayerHand playerHand = player.getPlayerHand();
             return List.of(playerHand.getCard1(), playerHand.getCard2());
         })))), game.getId(), PlayersWonOrderDTO);
-        gameDao.save(game);
         return false;
     }
 
 
     @Override
     public void flop(Game game) throws IllegalStateException {
-        tableTasksController.sendFlop(new Cards(game.getHand().getBoardEntity().getFlop()), game.getId());
+        List<Card> flop = game.getHand().getBoardEntity().getFlop();
+        handJournalService.record(HandEvent.street(game.getId(), GameStatus.FLOP.name(), flop));
+        if (!isReplaying(game)) {
+            tableTasksController.sendFlop(new Cards(flop), game.getId());
+            sendRunoutEquities(game, 3);
+        }
     }
 
     @Override
     public void turn(Game game) throws IllegalStateException {
-        tableTasksController.sendTurn(game.getHand().getBoardEntity().getTurn(), game.getId());
+        Card turn = game.getHand().getBoardEntity().getTurn();
+        handJournalService.record(HandEvent.street(game.getId(), GameStatus.TURN.name(), List.of(turn)));
+        if (!isReplaying(game)) {
+            tableTasksController.sendTurn(turn, game.getId());
+            sendRunoutEquities(game, 4);
+        }
     }
 
     @Override
     public void river(Game game) throws IllegalStateException {
-        tableTasksController.sendRiver(game.getHand().getBoardEntity().getRiver(), game.getId());
+        Card river = game.getHand().getBoardEntity().getRiver();
+        handJournalService.record(HandEvent.street(game.getId(), GameStatus.RIVER.name(), List.of(river)));
+        if (!isReplaying(game)) {
+            tableTasksController.sendRiver(river, game.getId());
+        }
     }
 
     @Override
@@ -202,7 +247,13 @@ public class PokerHandServiceImpl implements PokerHandService {
         return PlayerUtil.getNextPlayerToAct(hand, leftOfButton);
     }
 
-    @Transactional
+    /**
+     * While the journal of the game is replayed the players already got every message, nothing is sent again.
+     */
+    private boolean isReplaying(Game game) {
+        return handJournalService.isReplaying(game.getId());
+    }
+
     private void resetRoundValues(Game game) {
         HandEntity hand = game.getHand();
         hand.setBetAmount(0);
@@ -212,58 +263,134 @@ public class PokerHandServiceImpl implements PokerHandService {
             playerHand.setRoundBetAmount(0);
             playerHand.setRoundAction(null);
             player.setPlayerHand(playerHand);
-            playerDao.save(player);
+            writeBehindService.markDirty(game, player);
         });
         //Next player is to the left of the button.  Given that the button may have been eliminated
         //In a round of betting, we need to put the button back to determine relative position.
         Player btn = hand.findPlayerInBTN().orElseThrow(() -> new IllegalStateException("No Player in Button"));
         hand.setCurrentToAct(btn);
         game.setHand(hand);
-        gameDao.save(game);
+        writeBehindService.markDirty(game);
     }
 
-    private PlayersWonOrderDTO handleWinners(HandEntity hand) {
-        Map<Integer, List<Player>> playerBetAmountMap = hand.getPlayers().stream()
-                .filter(player -> player.getPlayerHand() != null)
-                .collect(Collectors.toConcurrentMap(player -> player.getPlayerHand().getBetAmount()
-                        , List::of, (s, a) -> {
-                            List<Player> players = new ArrayList<>();
-                            players.addAll(s);
-                            players.addAll(a);
-                            return List.copyOf(players);
-                        }));
-        TreeMap<Integer, List<Player>> sortedMap = new TreeMap<>(playerBetAmountMap);
-        sortedMap.put(0, Collections.emptyList());
-        return calculateWinners(hand.getBoard(), sortedMap, new TreeMap<>());
+    /**
+     * No one can act any more once every player left but one is all-in.
+     */
+    private boolean isAllIn(HandEntity hand) {
+        List<Player> players = hand.getPlayers().stream().filter(player -> player.getPlayerHand() != null).toList();
+        return players.size() >= 2 && players.stream().filter(player -> player.getTableChips() > 0).count() <= 1;
     }
 
-    @Transactional
-    private PlayersWonOrderDTO calculateWinners(Board board, TreeMap<Integer, List<Player>> playerBetAmountMap, TreeMap<Integer, List<PlayerDTO>> winnersMap) {
-        Map.Entry<Integer, List<Player>> lastEntry = playerBetAmountMap.lastEntry();
-        Optional<Map.Entry<Integer, List<Player>>> optionalLowerEntry = Optional.ofNullable(playerBetAmountMap.lowerEntry(lastEntry.getKey()));
-        while (optionalLowerEntry.isPresent()) {
-            int amountToWinNext = optionalLowerEntry.get().getKey();
-            int diff = lastEntry.getKey() - amountToWinNext;
-            List<Player> participatingPlayers = lastEntry.getValue();
-            List<Player> winners = PlayerUtil.getWinnersOfHand(board, participatingPlayers);
-            int amountToWin = diff * participatingPlayers.size() / winners.size();
-            int leftOnesToWin = diff * participatingPlayers.size() % winners.size();
-            int numberOfWinner = winnersMap.isEmpty() ? 1 : winnersMap.lastKey();
-            winnersMap.put(numberOfWinner, winners.stream().map(Player::getPlayerDTO).toList());
-            winners.forEach((winner) -> {
-                winner.addTableChips(amountToWin);
-                playerDao.save(winner);
-            });
-            for (int i = 0; i < leftOnesToWin; i++) {
-                winners.get(i).addTableChips(1);
-                playerDao.save(winners.get(i));
-            }
-            lastEntry = new TreeMap(playerBetAmountMap.headMap(lastEntry.getKey())).lastEntry();
-            optionalLowerEntry = Optional.ofNullable(playerBetAmountMap.lowerEntry(lastEntry.getKey()));
+    /**
+     * Deal the board of the second run as soon as the players are all-in, from the cards shown in the
+     * betting round which just ended.
+     */
+    private void dealSecondBoard(Game game) {
+        HandEntity hand = game.getHand();
+        int knownCards = switch (game.getGameStatus()) {
+            case PREFLOP -> 0;
+            case FLOP -> 3;
+            case TURN -> 4;
+            default -> 5;
+        };
+        if (game.isRunItTwice() && knownCards < 5 && hand.getSecondBoardEntity() == null && isAllIn(hand)) {
+            hand.dealSecondBoard(knownCards);
         }
-        return new PlayersWonOrderDTO(new HashMap<>(winnersMap));
     }
-}
 
+    /**
+     * Push the exact equity of each player over every runout when everyone is all-in.
+     *
+     * @param knownCards board cards shown, 3 on the flop or 4 on the turn
+     */
+    private void sendRunoutEquities(Game game, int knownCards) {
+        HandEntity hand = game.getHand();
+        if (!isAllIn(hand)) {
+            return;
+        }
+        List<Player> players = hand.getPlayers().stream().filter(player -> player.getPlayerHand() != null).toList();
+        int[] holeCards = new int[2 * players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            PlayerHand playerHand = players.get(i).getPlayerHand();
+            holeCards[2 * i] = EvaluationIndex.of(playerHand.getCard1());
+            holeCards[2 * i + 1] = EvaluationIndex.of(playerHand.getCard2());
+        }
+        List<Card> board = hand.getBoardEntity().getCards();
+        int[] boardCards = new int[knownCards];
+        for (int i = 0; i < knownCards; i++) {
+            boardCards[i] = EvaluationIndex.of(board.get(i));
+        }
+        double[] equities = RunoutEquity.calculate(handRankEvaluator, boardCards, holeCards);
+        Map<String, Double> equitiesByName = new LinkedHashMap<>();
+        for (int i = 0; i < players.size(); i++) {
+            equitiesByName.put(players.get(i).getName(), equities[i]);
+        }
+        tableTasksController.sendRunoutEquities(equitiesByName, game.getId());
+    }
 
+    /**
+     * Settle the main pot and the side pots of the hand in one pass and pay the players.  Folded players pay into
+     * the pots they reached, the chips nobody else matched go back to their owner.
+     * <br /><br />
+     * Bets which do not add up to the pot are logged, and the hand still ends so the table is not stuck: the bets
+     * are settled, and chips in the pot that no bet accounts for are shared back between the players of the hand.
+     *
+     * @return the winners of each pot, the main pot first
+     */
+    private PlayersWonOrderDTO handleWinners(Game game) {
+        HandEntity hand = game.getHand();
+        List<Player> players = new ArrayList<>(hand.getPlayers().stream()
+                .filter(player -> player.getPlayerHand() != null).toList());
+        int livePlayers = players.size();
+        players.addAll(hand.getFoldedBets().keySet());
+        int[] contributions = new int[players.size()];
+        int[] holeCards = new int[2 * players.size()];
+        boolean[] live = new boolean[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            PlayerHand playerHand = players.get(i).getPlayerHand();
+            contributions[i] = i < livePlayers ? playerHand.getBetAmount()
+                    : hand.getFoldedBets().get(players.get(i));
+            holeCards[2 * i] = EvaluationIndex.of(playerHand.getCard1());
+            holeCards[2 * i + 1] = EvaluationIndex.of(playerHand.getCard2());
+            live[i] = i < livePlayers;
+        }
+        int bets = Arrays.stream(contributions).sum();
+        int unaccounted = hand.getPot() - bets;
+        if (unaccounted != 0) {
+            log.error("Bets of " + bets + " do not add up to the pot of " + hand.getPot() + " in game "
+                    + game.getId() + ", only the bets are settled");
+        }
+        Board secondBoard = hand.getSecondBoard();
+        int[] board = EvaluationIndex.of(hand.getBoard().getCards());
+        int[][] boards = secondBoard == null
+                ? new int[][]{board}
+                : new int[][]{board, EvaluationIndex.of(secondBoard.getCards())};
+        PotSettlement settlement = PotSettlement.settle(handRankEvaluator, boards, holeCards, contributions,
+                live, 0);
 
+        int[] payouts = settlement.getPayouts();
+        for (int i = 0; i < players.size() && unaccounted > 0; i++) {
+            payouts[i] += unaccounted / players.size() + (i < unaccounted % players.size() ? 1 : 0);
+        }
+        List<Player> paid = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            if (payouts[i] > 0) {
+                Player player = players.get(i);
+                player.addTableChips(payouts[i]);
+                paid.add(player);
+                handJournalService.record(HandEvent.payout(game.getId(), player.getId(), payouts[i]));
+            }
+        }
+        //One write for every player paid
+        writeBehindService.markDirty(game, paid.toArray(Player[]::new));
+        Map<Integer, List<PlayerDTO>> winnersMap = new HashMap<>();
+        for (int pot = 0; pot < settlement.getPots(); pot++) {
+            List<PlayerDTO> winners = new ArrayList<>();
+            for (long bits = settlement.getPotWinners(pot); bits != 0; bits &= bits - 1) {
+                winners.add(players.get(Long.numberOfTrailingZeros(bits)).getPlayerDTO());
+            }
+            winnersMap.put(pot + 1, winners);
+        }
+        return new PlayersWonOrderDTO(winnersMap);
+    }
+}
@@ -0,0 +1,38 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.eval.RangeEquity;
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.HandRange;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Service to compute the equity of hand ranges against each other, for example to decide whether an
+ * NPC calls or to analyse a hand after the game.
+ */
+public interface RangeEquityCalculator {
+
+    /**
+     * Enumerate every completion of the board and every pair of combinations of the ranges that do not
+     * share a card, weighted by the weights of both combinations.
+     *
+     * @param range         range of the player
+     * @param opponentRange range of the single opponent
+     * @param board         0 to 5 known board cards, an empty set before the flop
+     * @return {@link RangeEquity} of the range and of the opponent range
+     * @throws IllegalArgumentException If the board is invalid or the ranges cannot be dealt together
+     */
+    RangeEquity calculate(HandRange range, HandRange opponentRange, CardSet board);
+
+    /**
+     * Estimate the equity of several ranges from random showdowns until the budget is spent.
+     *
+     * @param ranges ranges of every player in the pot
+     * @param board  0 to 5 known board cards, an empty set before the flop
+     * @param budget wall-clock time to spend
+     * @return {@link RangeEquity} of each range, in the order of the ranges
+     * @throws IllegalArgumentException If the board is invalid or the ranges cannot be dealt together
+     */
+    RangeEquity estimate(List<HandRange> ranges, CardSet board, Duration budget);
+}
@@ -0,0 +1,404 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.eval.HandRankEvaluator;
+import com.hyphenated.card.eval.RangeEquity;
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.Combinations;
+import com.hyphenated.card.holder.HandRange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+@Service
+public class RangeEquityCalculatorImpl implements RangeEquityCalculator {
+
+    //Samples a worker draws between checks of the budget
+    private static final int BATCH = 256;
+    //Attempts to deal combinations of every range without a shared card before giving up
+    private static final int MAX_REJECTIONS = 10_000;
+
+    private final HandRankEvaluator evaluator;
+
+    @Autowired
+    public RangeEquityCalculatorImpl(HandRankEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Each board is walked through the evaluator once, then every combination of both ranges is ranked with the
+     * board prefix and the two ranked lists are swept together.  For a combination, the weight of the opponent
+     * combinations below it is a running sum; the combinations sharing one of its cards are taken out with
+     * running sums per card, so a board costs a sort instead of a loop over every pair of combinations.
+     */
+    @Override
+    public RangeEquity calculate(HandRange range, HandRange opponentRange, CardSet board) {
+        long known = knownCards(board);
+        int missing = 5 - Long.bitCount(known);
+        long live = CardSet.DECK.getBits() & ~known;
+        Combos combos = new Combos(range, known);
+        Combos opponentCombos = new Combos(opponentRange, known);
+        double[] counts = ForkJoinPool.commonPool().invoke(new EnumerationTask(evaluator, known, live, missing,
+                combos, opponentCombos, opponentRange, 0, Combinations.count(Long.bitCount(live), missing)));
+        double wins = counts[0];
+        double ties = counts[1];
+        double total = counts[2];
+        if (total == 0) {
+            throw new IllegalArgumentException("Ranges cannot be dealt together on " + board);
+        }
+        double equity = (wins + ties / 2) / total;
+        return new RangeEquity(new double[]{equity, 1 - equity}, (long) counts[3]);
+    }
+
+    @Override
+    public RangeEquity estimate(List<HandRange> ranges, CardSet board, Duration budget) {
+        long known = knownCards(board);
+        Combos[] combos = new Combos[ranges.size()];
+        for (int p = 0; p < combos.length; p++) {
+            combos[p] = new Combos(ranges.get(p), known);
+            if (combos[p].count == 0) {
+                throw new IllegalArgumentException("Range " + p + " has no combination left on " + board);
+            }
+        }
+        if (combos.length < 2 || 5 - Long.bitCount(known) + 2 * combos.length > 52 - Long.bitCount(known)) {
+            throw new IllegalArgumentException("Cannot deal " + combos.length + " ranges on " + board);
+        }
+        Sampling sampling = new Sampling(System.nanoTime() + budget.toNanos(), combos.length);
+        int workers = ForkJoinPool.commonPool().getParallelism();
+        SplittableRandom random = new SplittableRandom();
+        SamplingTask[] tasks = new SamplingTask[workers];
+        for (int i = 0; i < workers; i++) {
+            tasks[i] = new SamplingTask(evaluator, known, combos, random.split(), sampling);
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        return sampling.toEquity();
+    }
+
+    private static long knownCards(CardSet board) {
+        long known = board.getBits();
+        if (board.size() > 5) {
+            throw new IllegalArgumentException("Cannot calculate range equities on " + board);
+        }
+        return known;
+    }
+
+    /**
+     * The combinations of a range which do not use a known board card, with their cards and weights.
+     */
+    private static class Combos {
+
+        private final int count;
+        private final int[] combo;
+        private final long[] cards;
+        private final int[] firstCard;
+        private final int[] secondCard;
+        private final double[] weight;
+        //Sum of the weights up to each combination, to draw a combination by weight
+        private final double[] cumulativeWeight;
+
+        Combos(HandRange range, long known) {
+            combo = range.combos(known);
+            count = combo.length;
+            cards = new long[count];
+            firstCard = new int[count];
+            secondCard = new int[count];
+            weight = new double[count];
+            cumulativeWeight = new double[count];
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                cards[i] = HandRange.cards(combo[i]);
+                firstCard[i] = Long.numberOfTrailingZeros(cards[i]);
+                secondCard[i] = 63 - Long.numberOfLeadingZeros(cards[i]);
+                weight[i] = range.getWeight(combo[i]);
+                sum += weight[i];
+                cumulativeWeight[i] = sum;
+            }
+        }
+
+        //Index of the combination holding the point of the weight line from 0 to the total weight
+        int draw(SplittableRandom random) {
+            double point = random.nextDouble() * cumulativeWeight[count - 1];
+            int low = 0;
+            int high = count - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulativeWeight[middle] > point) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Enumerates the completions of the board with a range of colex ranks, split in halves down to
+     * {@value #LEAF_BOARDS} boards.  Counts are wins, ties and total weight of the first range, then the boards.
+     */
+    private static class EnumerationTask extends RecursiveTask<double[]> {
+
+        private static final int LEAF_BOARDS = 16;
+
+        private final HandRankEvaluator evaluator;
+        private final long known;
+        private final long live;
+        private final int missing;
+        private final Combos combos;
+        private final Combos opponentCombos;
+        private final HandRange opponentRange;
+        private final long from;
+        private final long to;
+        private final double[] counts = new double[4];
+        private int[] board;
+        private long[] ranked;
+        private long[] opponentRanked;
+        private double[] belowWithCard;
+        private double[] tiedWithCard;
+        private double[] totalWithCard;
+
+        EnumerationTask(HandRankEvaluator evaluator, long known, long live, int missing, Combos combos,
+                        Combos opponentCombos, HandRange opponentRange, long from, long to) {
+            this.evaluator = evaluator;
+            this.known = known;
+            this.live = live;
+            this.missing = missing;
+            this.combos = combos;
+            this.opponentCombos = opponentCombos;
+            this.opponentRange = opponentRange;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > LEAF_BOARDS) {
+                long middle = (from + to) >>> 1;
+                EnumerationTask left = new EnumerationTask(evaluator, known, live, missing, combos, opponentCombos,
+                        opponentRange, from, middle);
+                EnumerationTask right = new EnumerationTask(evaluator, known, live, missing, combos, opponentCombos,
+                        opponentRange, middle, to);
+                left.fork();
+                double[] result = right.compute();
+                double[] leftResult = left.join();
+                for (int i = 0; i < result.length; i++) {
+                    result[i] += leftResult[i];
+                }
+                return result;
+            }
+            board = new int[5];
+            ranked = new long[combos.count];
+            opponentRanked = new long[opponentCombos.count];
+            belowWithCard = new double[52];
+            tiedWithCard = new double[52];
+            totalWithCard = new double[52];
+            Combinations.forEach(live, missing, from, to, this::play);
+            return counts;
+        }
+
+        private void play(long added) {
+            int i = 0;
+            for (long cards = known | added; cards != 0; cards &= cards - 1) {
+                board[i++] = Long.numberOfTrailingZeros(cards) + 1;
+            }
+            int prefix = evaluator.evaluateBoardPrefix(board[0], board[1], board[2], board[3], board[4]);
+            int count = rank(combos, prefix, added, ranked);
+            int opponentCount = rank(opponentCombos, prefix, added, opponentRanked);
+            Arrays.fill(belowWithCard, 0);
+            Arrays.fill(totalWithCard, 0);
+            double total = 0;
+            for (int o = 0; o < opponentCount; o++) {
+                int index = (int) opponentRanked[o] & 0x7FF;
+                double weight = opponentCombos.weight[index];
+                total += weight;
+                totalWithCard[opponentCombos.firstCard[index]] += weight;
+                totalWithCard[opponentCombos.secondCard[index]] += weight;
+            }
+            double below = 0;
+            double tied = 0;
+            int belowEnd = 0;
+            int tiedEnd = 0;
+            long tiedRank = -1;
+            for (int c = 0; c < count; c++) {
+                long rank = ranked[c] >>> 11;
+                int index = (int) ranked[c] & 0x7FF;
+                while (belowEnd < opponentCount && opponentRanked[belowEnd] >>> 11 < rank) {
+                    int opponent = (int) opponentRanked[belowEnd++] & 0x7FF;
+                    double weight = opponentCombos.weight[opponent];
+                    below += weight;
+                    belowWithCard[opponentCombos.firstCard[opponent]] += weight;
+                    belowWithCard[opponentCombos.secondCard[opponent]] += weight;
+                }
+                if (rank != tiedRank) {
+                    Arrays.fill(tiedWithCard, 0);
+                    tied = 0;
+                    for (tiedEnd = belowEnd; tiedEnd < opponentCount && opponentRanked[tiedEnd] >>> 11 == rank; tiedEnd++) {
+                        int opponent = (int) opponentRanked[tiedEnd] & 0x7FF;
+                        double weight = opponentCombos.weight[opponent];
+                        tied += weight;
+                        tiedWithCard[opponentCombos.firstCard[opponent]] += weight;
+                        tiedWithCard[opponentCombos.secondCard[opponent]] += weight;
+                    }
+                    tiedRank = rank;
+                }
+                int first = combos.firstCard[index];
+                int second = combos.secondCard[index];
+                //The opponent combination with both cards has the same rank, it was taken out twice
+                double same = opponentRange.getWeight(combos.combo[index]);
+                double weight = combos.weight[index];
+                counts[0] += weight * (below - belowWithCard[first] - belowWithCard[second]);
+                counts[1] += weight * (tied - tiedWithCard[first] - tiedWithCard[second] + same);
+                counts[2] += weight * (total - totalWithCard[first] - totalWithCard[second] + same);
+            }
+            counts[3]++;
+        }
+
+        //Rank the combinations which do not use the added cards, sorted by rank with their index in the low bits
+        private int rank(Combos combos, int prefix, long added, long[] ranked) {
+            int count = 0;
+            for (int i = 0; i < combos.count; i++) {
+                if ((combos.cards[i] & added) == 0) {
+                    int rank = evaluator.finish(prefix, combos.firstCard[i] + 1, combos.secondCard[i] + 1);
+                    ranked[count++] = (long) rank << 11 | i;
+                }
+            }
+            Arrays.sort(ranked, 0, count);
+            return count;
+        }
+    }
+
+    /**
+     * Totals of the pot shares of every range over the workers.
+     */
+    private static class Sampling {
+
+        private final long deadline;
+        private final double[] shares;
+        private long samples;
+        private boolean done;
+
+        Sampling(long deadline, int players) {
+            this.deadline = deadline;
+            this.shares = new double[players];
+        }
+
+        /**
+         * @return true if sampling should continue
+         */
+        synchronized boolean add(long batchSamples, double[] batchShares) {
+            samples += batchSamples;
+            for (int p = 0; p < shares.length; p++) {
+                shares[p] += batchShares[p];
+            }
+            done |= System.nanoTime() >= deadline;
+            return !done;
+        }
+
+        synchronized RangeEquity toEquity() {
+            double[] equities = new double[shares.length];
+            for (int p = 0; p < shares.length; p++) {
+                equities[p] = shares[p] / samples;
+            }
+            return new RangeEquity(equities, samples);
+        }
+    }
+
+    /**
+     * Deals a combination of every range by weight, starting over when two share a card, then a random board
+     * from the cards left.  Starting over the whole deal keeps the combinations in proportion to the products
+     * of their weights.
+     */
+    private static class SamplingTask extends RecursiveAction {
+
+        private final HandRankEvaluator evaluator;
+        private final long known;
+        private final Combos[] combos;
+        private final SplittableRandom random;
+        private final Sampling sampling;
+
+        SamplingTask(HandRankEvaluator evaluator, long known, Combos[] combos, SplittableRandom random,
+                     Sampling sampling) {
+            this.evaluator = evaluator;
+            this.known = known;
+            this.combos = combos;
+            this.random = random;
+            this.sampling = sampling;
+        }
+
+        @Override
+        protected void compute() {
+            int players = combos.length;
+            int[] dealt = new int[players];
+            int[] ranks = new int[players];
+            int[] board = new int[5];
+            double[] shares = new double[players];
+            do {
+                Arrays.fill(shares, 0);
+                for (int n = 0; n < BATCH; n++) {
+                    long used = deal(dealt);
+                    long boardCards = known;
+                    while (Long.bitCount(boardCards) < 5) {
+                        long card = 1L << random.nextInt(52);
+                        if (((used | boardCards) & card) == 0) {
+                            boardCards |= card;
+                        }
+                    }
+                    int i = 0;
+                    for (long cards = boardCards; cards != 0; cards &= cards - 1) {
+                        board[i++] = Long.numberOfTrailingZeros(cards) + 1;
+                    }
+                    int prefix = evaluator.evaluateBoardPrefix(board[0], board[1], board[2], board[3], board[4]);
+                    int best = 0;
+                    int winners = 0;
+                    for (int p = 0; p < players; p++) {
+                        Combos range = combos[p];
+                        ranks[p] = evaluator.finish(prefix, range.firstCard[dealt[p]] + 1, range.secondCard[dealt[p]] + 1);
+                        if (ranks[p] > best) {
+                            best = ranks[p];
+                            winners = 1;
+                        } else if (ranks[p] == best) {
+                            winners++;
+                        }
+                    }
+                    for (int p = 0; p < players; p++) {
+                        if (ranks[p] == best) {
+                            shares[p] += 1.0 / winners;
+                        }
+                    }
+                }
+            } while (sampling.add(BATCH, shares));
+        }
+
+        //Deal a combination of every range, returns the cards dealt including the board
+        private long deal(int[] dealt) {
+            for (int rejections = 0; rejections < MAX_REJECTIONS; rejections++) {
+                long used = known;
+                int p = 0;
+                for (; p < combos.length; p++) {
+                    dealt[p] = combos[p].draw(random);
+                    long cards = combos[p].cards[dealt[p]];
+                    if ((used & cards) != 0) {
+                        break;
+                    }
+                    used |= cards;
+                }
+                if (p == combos.length) {
+                    return used;
+                }
+            }
+            throw new IllegalArgumentException("Ranges cannot be dealt together without sharing cards");
+        }
+    }
+}
@@ -1,90 +1,150 @@
 package com.hyphenated.card.service;
 
 import com.hyphenated.card.controller.TableTasksController;
-import com.hyphenated.card.dao.PlayerDao;
 import com.hyphenated.card.domain.Game;
+import com.hyphenated.card.domain.HandEntity;
 import com.hyphenated.card.domain.Player;
 import com.hyphenated.card.domain.PlayerHand;
 import com.hyphenated.card.dto.PlayerBet;
 import com.hyphenated.card.dto.PlayerDTO;
 import com.hyphenated.card.enums.PlayerHandRoundAction;
+import com.hyphenated.card.journal.HandEvent;
+import com.hyphenated.card.journal.HandEventType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Player actions and their timeouts go through the {@link TableMailboxService}, so the actions of a table are
+ * applied one at a time in the order they arrived, whether they come from a request or from a timeout.
+ * Each action is written to the {@link HandJournalService} before it is applied.  When the server starts, the actions
+ * journaled after the last snapshot of a game are applied again to the game loaded from the database.  The replay is
+ * queued before the server takes requests, so it is the first thing the table does.
+ */
 @Service
-public class ScheduledPlayerActionServiceImpl implements ScheduledPlayerActionService {
+public class ScheduledPlayerActionServiceImpl implements ScheduledPlayerActionService, SmartInitializingSingleton {
+    //Only queues the timeouts into the mailboxes, the actions themselves run on the table threads
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private final int POOL_SIZE = 10;
+    private static final int TIMEOUT_SECONDS = 8;
+    private static final Logger log = LogManager.getLogger();
     @Autowired
     private PlayerActionService playerActionService;
     @Autowired
     private TableTasksController tableTasksController;
     @Autowired
-    private PlayerDao playerDao;
+    private WriteBehindService writeBehindService;
+    @Autowired
+    private HandJournalService handJournalService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     @Autowired
     private PokerHandService pokerHandService;
-    private final List<ThreadPoolTaskScheduler> schedulers = new ArrayList<>();
-
-    {
-        schedulers.add(newScheduler());
-        List<ThreadPoolTaskScheduler> idleSchedulers = new ArrayList<>();
-        scheduler.scheduleAtFixedRate(() -> {
-            schedulers.forEach(scheduler1 -> {
-                if (scheduler1.getActiveCount() == POOL_SIZE) {
-                    idleSchedulers.add(scheduler1);
-                }
-            });
-            if (idleSchedulers.size() > 1) {
-                idleSchedulers.remove(0);
-                idleSchedulers.forEach(ExecutorConfigurationSupport::destroy);
-            }
-        }, 0, 5, TimeUnit.SECONDS);
-    }
-
-    private ThreadPoolTaskScheduler newScheduler() {
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(POOL_SIZE);
-        schedulers.add(scheduler);
-        return scheduler;
-    }
-
-    private ThreadPoolTaskScheduler getIdleScheduler() {
-        return schedulers.stream()
-                .filter(scheduler1 -> scheduler1.getActiveCount() < POOL_SIZE)
-                .findAny()
-                .orElse(newScheduler());
-    }
+    @Autowired
+    private TableMailboxService tableMailboxService;
+    //Turn of each player waiting to act, a timeout only folds the player if the turn is still the same
+    private final Map<String, Object> turns = new ConcurrentHashMap<>();
 
     @Override
-    @Transactional
     public void scheduleDefaultAction(Player next, Game game) {
-        ScheduledExecutorService executor = getIdleScheduler().getScheduledExecutor();
-        executor.execute(() -> next.setThread(Thread.currentThread()));
-        executor.schedule(() -> {
-                    next.setThread(null);
+        Object turn = new Object();
+        turns.put(next.getId(), turn);
+        scheduler.schedule(() -> tableMailboxService.submit(game.getId(), () -> {
+                    if (!turns.remove(next.getId(), turn)) {
+                        return;
+                    }
                     next.addStrike();
                     if (next.getStrikes() > 2) {
                         game.removePlayer(next);
                     }
-                    playerDao.save(next);
-                    handlePlayerRoundAction(PlayerHandRoundAction.FOLD, next, 0, game);
-                },
-                8,
+                    writeBehindService.markDirty(game, next);
+                    applyPlayerRoundAction(PlayerHandRoundAction.FOLD, next, 0, game, false);
+                }),
+                TIMEOUT_SECONDS,
                 TimeUnit.SECONDS);
     }
 
     @Override
     public void handlePlayerRoundAction(PlayerHandRoundAction action, Player player, int betAmount, Game game) {
+        tableMailboxService.execute(game.getId(), () ->
+                applyPlayerRoundAction(action, findPlayer(game, player.getId()), betAmount, game, false));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        recoverJournaledActions();
+    }
+
+    /**
+     * Apply again the actions which were journaled but never written to the database, each table on its own thread.
+     * The game is the instance in memory, loaded before any request could load it.  The hands started again deal the
+     * journaled cards, and nothing is journaled or sent to the players until the replay is done.
+     */
+    public void recoverJournaledActions() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Map.Entry<String, List<HandEvent>> entry : handJournalService.recover().entrySet()) {
+            String gameId = entry.getKey();
+            tableMailboxService.submit(gameId, () -> transactionTemplate.executeWithoutResult(status -> {
+                Game game = writeBehindService.findGame(gameId).orElseThrow(() ->
+                        new IllegalStateException("Journal of unknown game " + gameId));
+                handJournalService.replay(gameId, entry.getValue(), () -> {
+                    for (HandEvent event : entry.getValue()) {
+                        if (event.getType() != HandEventType.ACTION) {
+                            continue;
+                        }
+                        try {
+                            applyPlayerRoundAction(event.getAction(), findPlayer(game, event.getPlayerId()),
+                                    event.getAmount(), game, true);
+                        } catch (RuntimeException e) {
+                            //The action was refused when it was first applied as well
+                            log.warn("Journaled " + event + " failed again: " + e.getMessage());
+                        }
+                    }
+                });
+                writeBehindService.markDirty(game);
+                writeBehindService.flush(game);
+                //The timeout of the player to act was lost with the restart
+                Optional.ofNullable(game.getHand()).map(HandEntity::getCurrentToAct)
+                        .ifPresent(player -> scheduleDefaultAction(player, game));
+            })).exceptionally(e -> {
+                log.error("Cannot recover game " + gameId + ": " + e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * The player object of the table in memory, the one the request loaded may be an older copy.
+     */
+    private Player findPlayer(Game game, String playerId) {
+        return game.getHand().getPlayers().stream()
+                .filter(player -> player.getId().equals(playerId))
+                .findAny()
+                .or(() -> game.getPlayers().stream().filter(player -> player.getId().equals(playerId)).findAny())
+                .orElseThrow(() -> new IllegalArgumentException("Player " + playerId + " is not at the table"));
+    }
+
+    /**
+     * @param replay the action comes from the journal, it is not written again and the actions players chose in
+     *               advance are not applied after it, they were journaled as well.  Nothing is sent to the players
+     *               and no timeout is scheduled.
+     */
+    private void applyPlayerRoundAction(PlayerHandRoundAction action, Player player, int betAmount, Game game,
+                                        boolean replay) {
+        if (!replay) {
+            handJournalService.record(HandEvent.action(game.getId(), player.getId(), action, betAmount)).join();
+        }
         Player nextPlayer = switch (action) {
             case FOLD -> playerActionService.fold(player, game);
             case CALL_ANY -> playerActionService.callAny(player, game);
@@ -92,10 +152,14 @@ public class ScheduledPlayerActionServiceImpl implements ScheduledPlayerActionSe
             case CHECK -> playerActionService.check(player, game);
             case BET -> playerActionService.bet(player, game, betAmount);
         };
+        //The player acted, the pending timeout must not fold them
+        turns.remove(player.getId());
         if (nextPlayer == null) {
             pokerHandService.handleNextGameStatus(game);
-            tableTasksController.gameStopped(game.getId());//TODO:CHECK if needed
-        } else {
+            if (!replay) {
+                tableTasksController.gameStopped(game.getId());//TODO:CHECK if needed
+            }
+        } else if (!replay) {
             PlayerDTO playerDTO = player.getPlayerDTO();
             String gameId = game.getId();
             PlayerHand playerHand = player.getPlayerHand();
@@ -111,14 +175,13 @@ public class ScheduledPlayerActionServiceImpl implements ScheduledPlayerActionSe
                         gameId);
             }
 
-            Optional.ofNullable(player.getThread()).ifPresent(Thread::interrupt);
             scheduleDefaultAction(nextPlayer, game);
             tableTasksController.playersTurn(player.getName(), gameId);
             if (nextPlayerHand.getRoundAction() != null) {
                 if (nextPlayerHand.getRoundAction() == PlayerHandRoundAction.CALL_CURRENT) {
-                    handlePlayerRoundAction(nextPlayerHand.getRoundAction(), nextPlayer, playerHand.getBetAmount(), game);
+                    applyPlayerRoundAction(nextPlayerHand.getRoundAction(), nextPlayer, playerHand.getBetAmount(), game, false);
                 }
-                handlePlayerRoundAction(nextPlayerHand.getRoundAction(), nextPlayer, 0, game);
+                applyPlayerRoundAction(nextPlayerHand.getRoundAction(), nextPlayer, 0, game, false);
             }
         }
     }
@@ -0,0 +1,125 @@
+package com.hyphenated.card.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordered queue of the actions of one table, applied by a single thread at a time.
+ * <br /><br />
+ * The message which finds the mailbox empty starts a drain on the executor, and the drain keeps going until
+ * it has applied every message that arrived meanwhile.  The count of pending messages is what decides who
+ * drains, so there is never more than one drain and the table state needs no locks.
+ * <br /><br />
+ * An idle mailbox can be closed, it then refuses new messages and the sender opens a new mailbox for the table.
+ */
+class TableMailbox {
+
+    private static final Logger log = LogManager.getLogger();
+    //Mailbox drained by the current thread, so that a message may send another one to its own table
+    private static final ThreadLocal<TableMailbox> draining = new ThreadLocal<>();
+    private static final int CLOSED = -1;
+
+    private final String gameId;
+    private final Executor executor;
+    private final Queue<Message> messages = new ConcurrentLinkedQueue<>();
+    //Messages queued or being applied, CLOSED once the mailbox was closed
+    private final AtomicInteger depth = new AtomicInteger();
+    private volatile long lastUsed = System.nanoTime();
+    //Written by the draining thread only
+    private volatile long processed;
+    private volatile long totalLatency;
+    private volatile long maxLatency;
+
+    TableMailbox(String gameId, Executor executor) {
+        this.gameId = gameId;
+        this.executor = executor;
+    }
+
+    /**
+     * @param action action to apply to the table
+     * @return completed once the action was applied, or with the exception it threw.  Null if the mailbox is
+     * closed, the action was not queued.
+     */
+    CompletableFuture<Void> submit(Runnable action) {
+        Message message = new Message(action, System.nanoTime());
+        if (draining.get() == this) {
+            //Already on the table's thread, queueing would wait for the current message to finish
+            apply(message);
+            return message.done;
+        }
+        messages.add(message);
+        int pending;
+        do {
+            pending = depth.get();
+            if (pending == CLOSED) {
+                //Nobody drains a closed mailbox, the message is dropped with it
+                return null;
+            }
+        } while (!depth.compareAndSet(pending, pending + 1));
+        if (pending == 0) {
+            executor.execute(this::drain);
+        }
+        return message.done;
+    }
+
+    /**
+     * Close the mailbox if no message was sent to it for the given time.
+     *
+     * @return true if the mailbox is closed
+     */
+    boolean closeIfIdle(long idleNanos) {
+        return System.nanoTime() - lastUsed >= idleNanos && depth.compareAndSet(0, CLOSED);
+    }
+
+    private void drain() {
+        draining.set(this);
+        try {
+            do {
+                apply(messages.poll());
+            } while (depth.decrementAndGet() > 0);
+        } finally {
+            draining.remove();
+        }
+    }
+
+    //Never throws, the drain must reach the decrement of the depth or the table stops for good
+    private void apply(Message message) {
+        try {
+            message.action.run();
+            message.done.complete(null);
+        } catch (Throwable e) {
+            log.error("Action on game " + gameId + " failed: " + e.getMessage());
+            message.done.completeExceptionally(e);
+        }
+        long now = System.nanoTime();
+        long latency = now - message.enqueued;
+        processed++;
+        totalLatency += latency;
+        maxLatency = Math.max(maxLatency, latency);
+        lastUsed = now;
+    }
+
+    TableMailboxStatistics getStatistics() {
+        long count = processed;
+        return new TableMailboxStatistics(gameId, Math.max(depth.get(), 0), count, count == 0 ? 0 : totalLatency / count,
+                maxLatency);
+    }
+
+    private static final class Message {
+
+        private final Runnable action;
+        private final long enqueued;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Message(Runnable action, long enqueued) {
+            this.action = action;
+            this.enqueued = enqueued;
+        }
+    }
+}
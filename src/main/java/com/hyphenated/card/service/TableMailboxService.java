@@ -0,0 +1,34 @@
+package com.hyphenated.card.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serializes everything that changes a table.  Each game owns a mailbox whose actions are applied in the
+ * order they were sent, one at a time, whichever thread sent them: requests of the players, timeouts or
+ * the game flow itself.
+ */
+public interface TableMailboxService {
+
+    /**
+     * Queue an action for a table.  An action sent while applying another action of the same table runs
+     * immediately, it is already on the table's thread.
+     *
+     * @param gameId id of the game the action changes
+     * @param action code to run on the table's thread
+     * @return completed once the action was applied, or with the exception it threw
+     */
+    CompletableFuture<Void> submit(String gameId, Runnable action);
+
+    /**
+     * Queue an action for a table and wait until it was applied.
+     *
+     * @throws RuntimeException the exception thrown by the action, an error is thrown as it is
+     */
+    void execute(String gameId, Runnable action);
+
+    /**
+     * @return queue depth and latency of every table
+     */
+    List<TableMailboxStatistics> getStatistics();
+}
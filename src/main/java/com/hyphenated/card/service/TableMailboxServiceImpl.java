@@ -0,0 +1,76 @@
+package com.hyphenated.card.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every drain runs on its own virtual thread, an idle table holds no thread at all.  Mailboxes which got no
+ * action for {@value #IDLE_MS} milliseconds are removed, so ended games do not stay in memory.
+ */
+@Service
+public class TableMailboxServiceImpl implements TableMailboxService {
+
+    static final int IDLE_MS = 60_000;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Map<String, TableMailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public TableMailboxServiceImpl() {
+        scheduler.scheduleWithFixedDelay(() -> removeIdle(TimeUnit.MILLISECONDS.toNanos(IDLE_MS)), IDLE_MS, IDLE_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(String gameId, Runnable action) {
+        while (true) {
+            TableMailbox mailbox = mailboxes.computeIfAbsent(gameId, id -> new TableMailbox(id, executor));
+            CompletableFuture<Void> done = mailbox.submit(action);
+            if (done != null) {
+                return done;
+            }
+            //Closed while idle, the next mailbox of the table takes the action
+            mailboxes.remove(gameId, mailbox);
+        }
+    }
+
+    @Override
+    public void execute(String gameId, Runnable action) {
+        try {
+            submit(gameId, action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    @Override
+    public List<TableMailboxStatistics> getStatistics() {
+        return mailboxes.values().stream().map(TableMailbox::getStatistics).toList();
+    }
+
+    void removeIdle(long idleNanos) {
+        mailboxes.forEach((gameId, mailbox) -> {
+            if (mailbox.closeIfIdle(idleNanos)) {
+                mailboxes.remove(gameId, mailbox);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,57 @@
+package com.hyphenated.card.service;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the mailbox of a table: how many actions wait and how long actions take from being sent
+ * until they are applied.
+ */
+public class TableMailboxStatistics {
+
+    private final String gameId;
+    private final int depth;
+    private final long processed;
+    private final long averageLatencyNanos;
+    private final long maxLatencyNanos;
+
+    public TableMailboxStatistics(String gameId, int depth, long processed, long averageLatencyNanos,
+                                  long maxLatencyNanos) {
+        this.gameId = gameId;
+        this.depth = depth;
+        this.processed = processed;
+        this.averageLatencyNanos = averageLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @return actions queued, including the one being applied
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * @return average time from sending an action until it was applied, waiting in the queue included
+     */
+    public Duration getAverageLatency() {
+        return Duration.ofNanos(averageLatencyNanos);
+    }
+
+    public Duration getMaxLatency() {
+        return Duration.ofNanos(maxLatencyNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "Game " + gameId + " mailbox (depth: " + depth + ", processed: " + processed + ", average latency: "
+                + averageLatencyNanos / 1000 + " us, max latency: " + maxLatencyNanos / 1000 + " us)";
+    }
+}
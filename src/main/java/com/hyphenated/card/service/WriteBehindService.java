@@ -0,0 +1,38 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.domain.Game;
+import com.hyphenated.card.domain.Player;
+
+import java.util.Optional;
+
+/**
+ * Keeps the state of the running tables in memory and writes it to the database behind the actions.
+ * <br /><br />
+ * Actions only change the objects in memory and mark them dirty.  Dirty games and players are written in one
+ * transaction per table, at the end of each hand and every {@value WriteBehindServiceImpl#FLUSH_INTERVAL_MS} ms,
+ * so an action never waits for the database.  Each write is a snapshot in the {@link HandJournalService}, the table
+ * is rebuilt from it and the actions journaled after it when the server starts after a crash.
+ */
+public interface WriteBehindService {
+
+    /**
+     * Find the game in memory, or load it from the database and keep it in memory.  Every caller gets the same
+     * instance, its state is newer than the database.
+     */
+    Optional<Game> findGame(String gameId);
+
+    /**
+     * Mark a game and some of its players as changed.  A game not in memory yet is kept in memory from now on.
+     *
+     * @throws IllegalStateException If another instance of the game is in memory, the changes would be lost
+     */
+    void markDirty(Game game, Player... players);
+
+    /**
+     * Write the changes of the game and its players in one transaction, then mark the snapshot in the journal.
+     * Must run on the table's thread, so that the state written is the state between two actions.
+     *
+     * @throws RuntimeException If the database cannot be written, the changes are kept for the next flush
+     */
+    void flush(Game game);
+}
@@ -0,0 +1,143 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.dao.GameDao;
+import com.hyphenated.card.dao.PlayerDao;
+import com.hyphenated.card.domain.Game;
+import com.hyphenated.card.domain.Player;
+import com.hyphenated.card.enums.GameStatus;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic flushes are sent to the {@link TableMailboxService} of each dirty table, so they never see a table
+ * in the middle of an action and never run at the same time as one.  A game which is not started, has no changes
+ * to write and was not used for {@value #IDLE_MS} ms is dropped from memory the same way.
+ */
+@Service
+public class WriteBehindServiceImpl implements WriteBehindService {
+
+    static final int FLUSH_INTERVAL_MS = 1000;
+    static final int IDLE_MS = 60_000;
+    private static final Logger log = LogManager.getLogger();
+
+    private final GameDao gameDao;
+    private final PlayerDao playerDao;
+    private final TransactionTemplate transactionTemplate;
+    private final TableMailboxService tableMailboxService;
+    private final HandJournalService handJournalService;
+    private final Map<String, Game> liveGames = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastUsed = new ConcurrentHashMap<>();
+    private final Set<String> dirtyGames = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Player>> dirtyPlayers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public WriteBehindServiceImpl(GameDao gameDao, PlayerDao playerDao, PlatformTransactionManager transactionManager,
+                                  TableMailboxService tableMailboxService, HandJournalService handJournalService) {
+        this.gameDao = gameDao;
+        this.playerDao = playerDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tableMailboxService = tableMailboxService;
+        this.handJournalService = handJournalService;
+        scheduler.scheduleWithFixedDelay(this::flushAll, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<Game> findGame(String gameId) {
+        Game game = liveGames.get(gameId);
+        if (game == null) {
+            Optional<Game> loaded = gameDao.findById(gameId);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            //Another thread may have loaded the game meanwhile, everybody must work on the same instance
+            game = liveGames.putIfAbsent(gameId, loaded.get());
+            if (game == null) {
+                game = loaded.get();
+            }
+        }
+        lastUsed.put(gameId, System.nanoTime());
+        return Optional.of(game);
+    }
+
+    @Override
+    public void markDirty(Game game, Player... players) {
+        Game live = liveGames.putIfAbsent(game.getId(), game);
+        if (live != null && live != game) {
+            throw new IllegalStateException("Game " + game.getId() + " is not the instance in memory, "
+                    + "its changes would never be written");
+        }
+        lastUsed.put(game.getId(), System.nanoTime());
+        if (players.length > 0) {
+            dirtyPlayers.computeIfAbsent(game.getId(), id -> ConcurrentHashMap.newKeySet()).addAll(Arrays.asList(players));
+        }
+        dirtyGames.add(game.getId());
+    }
+
+    @Override
+    public void flush(Game game) {
+        String gameId = game.getId();
+        if (!dirtyGames.remove(gameId)) {
+            return;
+        }
+        Set<Player> players = dirtyPlayers.remove(gameId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                gameDao.save(game);
+                if (players != null) {
+                    players.forEach(playerDao::save);
+                }
+            });
+        } catch (RuntimeException e) {
+            //The objects in memory still hold the changes, write them with the next flush
+            if (players != null) {
+                dirtyPlayers.computeIfAbsent(gameId, id -> ConcurrentHashMap.newKeySet()).addAll(players);
+            }
+            dirtyGames.add(gameId);
+            throw e;
+        }
+        handJournalService.snapshot(gameId);
+    }
+
+    private void flushAll() {
+        for (String gameId : dirtyGames) {
+            Game game = liveGames.get(gameId);
+            if (game != null) {
+                tableMailboxService.submit(gameId, () -> flush(game)).exceptionally(e -> {
+                    log.error("Cannot write game " + gameId + ": " + e.getMessage());
+                    return null;
+                });
+            }
+        }
+        long idleBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(IDLE_MS);
+        liveGames.forEach((gameId, game) -> {
+            if (isIdle(gameId, game, idleBefore)) {
+                tableMailboxService.submit(gameId, () -> {
+                    //Checked again on the table's thread, an action may have come first
+                    if (isIdle(gameId, game, idleBefore) && liveGames.remove(gameId, game)) {
+                        lastUsed.remove(gameId);
+                    }
+                });
+            }
+        });
+    }
+
+    private boolean isIdle(String gameId, Game game, long idleBefore) {
+        Long used = lastUsed.get(gameId);
+        return game.getGameStatus() == GameStatus.NOT_STARTED && !dirtyGames.contains(gameId)
+                && (used == null || used - idleBefore < 0);
+    }
+}
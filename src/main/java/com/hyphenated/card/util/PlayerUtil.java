@@ -25,17 +25,17 @@ package com.hyphenated.card.util;
 
 import com.hyphenated.card.domain.HandEntity;
 import com.hyphenated.card.domain.Player;
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.EvaluationIndex;
 import com.hyphenated.card.eval.HandRankEvaluator;
-import com.hyphenated.card.eval.TwoPlusTwoHandEvaluator;
 import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
-import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 /**
  * Utility class with helper methods for Player interactions
@@ -44,8 +44,6 @@ import java.util.stream.Collectors;
  */
 public class PlayerUtil {
 
-    private static final HandRankEvaluator evaluator = TwoPlusTwoHandEvaluator.getInstance();
-
     /**
      * Get the next player to act
      *
@@ -96,18 +94,52 @@ public class PlayerUtil {
      * passed into the parameter.  This allows for a separation of concerns when dealing with split
      * pots and multiple side pots.
      *
+     * @param evaluator evaluator used to rank the hands
+     * @return List of {@link Player}s who have won the hand.  If there is a tie, all players that have
+     * tied are returned in the list.
+     */
+    public static List<Player> getWinnersOfHand(HandRankEvaluator evaluator, Board board, List<Player> players) {
+        Hand[] hands = new Hand[players.size()];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = players.get(i).getPlayerHand().getHand();
+        }
+        return getWinnersByRank(players, evaluator.evaluateAll(board, hands));
+    }
+
+    /**
+     * Determine the winner(s) of a hand against a board evaluated once with
+     * {@link HandRankEvaluator#evaluateBoardPrefix(Board)}, so it can be shared by every side pot.
+     *
+     * @param evaluator the evaluator that computed the board prefix
      * @return List of {@link Player}s who have won the hand.  If there is a tie, all players that have
      * tied are returned in the list.
      */
-    public static List<Player> getWinnersOfHand(Board board, List<Player> players) {
-        return new TreeMap<>(players.stream()
-                .collect(Collectors.toConcurrentMap((player -> evaluator.evaluate(board, player.getPlayerHand().getHand())),
-                        List::of, (s, a) -> {
-                            List<Player> players1 = new ArrayList<>();
-                            players1.addAll(s);
-                            players1.addAll(a);
-                            return List.copyOf(players1);
-                        })))
-                .lastEntry().getValue();
+    public static List<Player> getWinnersOfHand(HandRankEvaluator evaluator, int boardPrefix, List<Player> players) {
+        int[] ranks = new int[players.size()];
+        for (int i = 0; i < ranks.length; i++) {
+            Card[] cards = players.get(i).getPlayerHand().getHand().getCards();
+            ranks[i] = evaluator.finish(boardPrefix, EvaluationIndex.of(cards[0]), EvaluationIndex.of(cards[1]));
+        }
+        return getWinnersByRank(players, ranks);
+    }
+
+    /**
+     * Single pass over the ranks, keeping every player tied for the best rank seen so far.
+     *
+     * @param ranks rank value of each player, in the order of the players
+     */
+    private static List<Player> getWinnersByRank(List<Player> players, int[] ranks) {
+        List<Player> winners = new ArrayList<>();
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < ranks.length; i++) {
+            if (ranks[i] > bestRank) {
+                bestRank = ranks[i];
+                winners.clear();
+            }
+            if (ranks[i] == bestRank) {
+                winners.add(players.get(i));
+            }
+        }
+        return winners;
     }
 }
@@ -0,0 +1,74 @@
+package com.hyphenated.card.batch;
+
+import com.hyphenated.card.holder.Combinations;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * JUnit tests for the chunked {@link CombinationFile}.
+ * Three card combinations in small chunks keep the files small while spanning many chunks.
+ */
+public class CombinationFileTest extends TestCase {
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static void checkRoundTrip(boolean compressed) throws IOException {
+        Path directory = Files.createTempDirectory("combinations");
+        try {
+            CombinationFile written = CombinationFile.create(directory, 3, 1000, compressed,
+                    cards -> Long.numberOfTrailingZeros(cards) * 100 + Long.bitCount(cards));
+            written.writeAll();
+            CombinationFile file = CombinationFile.open(directory);
+            assertEquals(23, file.getChunks());
+            for (long rank = 0; rank < file.getRows(); rank++) {
+                long cards = Combinations.unrank(rank, 3);
+                assertEquals(cards, file.getCombination(rank));
+                assertEquals(Long.numberOfTrailingZeros(cards) * 100 + 3, file.getResult(rank));
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    //test every row of a deflated file reads back by its rank
+    public void testCompressed() throws IOException {
+        checkRoundTrip(true);
+    }
+
+    @Test
+    //test every row of a plain file reads back by its rank
+    public void testUncompressed() throws IOException {
+        checkRoundTrip(false);
+    }
+
+    @Test
+    //test a damaged chunk is detected
+    public void testCorruptedChunk() throws IOException {
+        Path directory = Files.createTempDirectory("combinations");
+        try {
+            CombinationFile written = CombinationFile.create(directory, 3, 1000, false, null);
+            written.writeAll();
+            Path chunk = written.chunkPath(5);
+            byte[] bytes = Files.readAllBytes(chunk);
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(chunk, bytes);
+            CombinationFile.open(directory).getCombination(5500);
+            fail("Corrupted chunk was read");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("corrupted"));
+        } finally {
+            delete(directory);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.hyphenated.card.batch;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * JUnit tests for the checkpoints of a {@link CombinationJob}.
+ */
+public class CombinationJobTest extends TestCase {
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    //test a job killed half way only writes the missing chunks when it is run again
+    public void testResume() throws IOException {
+        Path directory = Files.createTempDirectory("combinations");
+        try {
+            //Fails in the last chunk, the 23 chunks of 1000 three card combinations end at 22100
+            CombinationFile failing = CombinationFile.create(directory, 3, 1000, false, cards -> {
+                if (cards == 0b111L << 49) {
+                    throw new IllegalStateException("killed");
+                }
+                return 1;
+            });
+            try {
+                new CombinationJob(failing).run(0, 1, progress -> { });
+                fail("Job was not killed");
+            } catch (IllegalStateException e) {
+                assertEquals("killed", e.getMessage());
+            }
+            AtomicLong calls = new AtomicLong();
+            CombinationJob job = new CombinationJob(CombinationFile.create(directory, 3, 1000, false, cards -> {
+                calls.incrementAndGet();
+                return 2;
+            }));
+            //Chunks running next to the failing one may or may not have finished
+            BitSet completed = job.getCompletedChunks();
+            assertFalse(completed.get(22));
+            long missingRows = 100 + 1000L * (22 - completed.cardinality());
+            job.run(0, 1, progress -> { });
+            assertEquals(missingRows, calls.get());
+            assertEquals(23, job.getFirstMissingChunk());
+            CombinationFile file = CombinationFile.open(directory);
+            assertEquals(completed.get(0) ? 1 : 2, file.getResult(0));
+            assertEquals(2, file.getResult(22099));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    //test two workers share the chunks and the checkpoint
+    public void testWorkers() throws IOException {
+        Path directory = Files.createTempDirectory("combinations");
+        try {
+            CombinationJob job = new CombinationJob(CombinationFile.create(directory, 3, 1000, true, null));
+            job.run(1, 2, progress -> { });
+            assertEquals(11, job.getCompletedChunks().cardinality());
+            assertEquals(0, job.getFirstMissingChunk());
+            job.run(0, 2, progress -> { });
+            assertEquals(23, job.getCompletedChunks().cardinality());
+            assertEquals(23, job.getFirstMissingChunk());
+        } finally {
+            delete(directory);
+        }
+    }
+}
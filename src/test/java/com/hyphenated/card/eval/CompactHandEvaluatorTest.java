@@ -0,0 +1,94 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * JUnit tests for the {@link CompactHandEvaluator}.
+ * Every rank must be the same value the 2+2 lookup table gives for the same cards.
+ */
+public class CompactHandEvaluatorTest extends TestCase {
+
+    private static final int SAMPLES = 1_000_000;
+
+    private final HandRankEvaluator compact = CompactHandEvaluator.getInstance();
+
+    @Test
+    //test random five, six and seven card hands against the lookup table, and its batch showdown ranking
+    public void testMatchesTwoPlusTwo() {
+        HandRankEvaluator twoPlusTwo = TwoPlusTwoHandEvaluator.getInstance();
+        Random random = new Random(7462);
+        int[] deck = new int[52];
+        int[] cards = new int[7];
+        int[] ranks = new int[1];
+        for (int n = 0; n < SAMPLES; n++) {
+            for (int i = 0; i < deck.length; i++) {
+                deck[i] = i + 1;
+            }
+            for (int i = 0; i < cards.length; i++) {
+                int j = i + random.nextInt(deck.length - i);
+                int swap = deck[i];
+                deck[i] = deck[j];
+                deck[j] = swap;
+                cards[i] = deck[i];
+            }
+            String message = "Cards " + Arrays.toString(cards);
+            assertEquals(message, twoPlusTwo.evaluate(cards, 0), compact.evaluate(cards, 0));
+            assertEquals(message, twoPlusTwo.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4], cards[5]),
+                    compact.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4], cards[5]));
+            assertEquals(message, twoPlusTwo.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]),
+                    compact.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]));
+            twoPlusTwo.evaluateAll(Arrays.copyOf(cards, 5), Arrays.copyOfRange(cards, 5, 7), ranks);
+            assertEquals(message, compact.evaluate(cards, 0), ranks[0]);
+        }
+    }
+
+    @Test
+    //test the board prefix gives the same ranks as a full evaluation
+    public void testBoardPrefix() {
+        Board board = new Board(Card.TWO_OF_CLUBS, Card.THREE_OF_CLUBS, Card.FOUR_OF_CLUBS,
+                Card.KING_OF_HEARTS, Card.ACE_OF_HEARTS);
+        int prefix = compact.evaluateBoardPrefix(board);
+        Hand[] hands = {new Hand(Card.FIVE_OF_CLUBS, Card.SIX_OF_DIAMONDS),
+                new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS),
+                new Hand(Card.SEVEN_OF_SPADES, Card.NINE_OF_DIAMONDS)};
+        for (Hand hand : hands) {
+            assertEquals(compact.evaluate(board, hand), compact.finishWithHand(prefix, hand));
+        }
+    }
+
+    @Test
+    //test known values of the 2+2 scale without loading the table
+    public void testScaleEnds() {
+        Board board = new Board(Card.TEN_OF_SPADES, Card.JACK_OF_SPADES, Card.QUEEN_OF_SPADES,
+                Card.TWO_OF_CLUBS, Card.THREE_OF_DIAMONDS);
+        HandRank royalFlush = compact.evaluate(board, new Hand(Card.KING_OF_SPADES, Card.ACE_OF_SPADES));
+        assertEquals(36874, royalFlush.getValue());
+
+        board = new Board(Card.TWO_OF_CLUBS, Card.THREE_OF_DIAMONDS, Card.FOUR_OF_HEARTS,
+                Card.FIVE_OF_SPADES, Card.SEVEN_OF_CLUBS);
+        //nine high is the weakest seven card hand, 48 five card high card hands rank below it
+        HandRank worst = compact.evaluate(board, new Hand(Card.EIGHT_OF_CLUBS, Card.NINE_OF_DIAMONDS));
+        assertEquals(4096 + 49, worst.getValue());
+    }
+
+    @Test
+    //test boards on the flop and the turn
+    public void testFlopAndTurn() {
+        Hand hand = new Hand(Card.KING_OF_SPADES, Card.ACE_OF_SPADES);
+        Board flop = new Board(Card.TEN_OF_SPADES, Card.JACK_OF_SPADES, Card.QUEEN_OF_SPADES);
+        assertEquals(36874, compact.evaluate(flop, hand).getValue());
+        //the two of clubs can not improve the hand
+        Board turn = new Board(Card.TEN_OF_SPADES, Card.JACK_OF_SPADES, Card.QUEEN_OF_SPADES, Card.TWO_OF_CLUBS);
+        assertEquals(36874, compact.evaluate(turn, hand).getValue());
+        //seven high, the lowest five card hand
+        flop = new Board(Card.TWO_OF_CLUBS, Card.THREE_OF_DIAMONDS, Card.FOUR_OF_HEARTS);
+        assertEquals(4097, compact.evaluate(flop, new Hand(Card.FIVE_OF_SPADES, Card.SEVEN_OF_CLUBS)).getValue());
+    }
+}
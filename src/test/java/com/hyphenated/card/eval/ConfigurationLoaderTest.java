@@ -0,0 +1,163 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.Hand;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * JUnit tests for loading the hand rank lookup table.
+ * The memory-mapped table must evaluate exactly like the table in the heap.
+ */
+public class ConfigurationLoaderTest extends TestCase {
+
+    //Hands and boards used by CardEvaluatorTest, evaluated in every pairing
+    private static final Hand[] HANDS = {
+            new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS),
+            new Hand(Card.KING_OF_CLUBS, Card.KING_OF_DIAMONDS),
+            new Hand(Card.NINE_OF_DIAMONDS, Card.SEVEN_OF_CLUBS),
+            new Hand(Card.KING_OF_CLUBS, Card.NINE_OF_SPADES),
+            new Hand(Card.NINE_OF_CLUBS, Card.THREE_OF_SPADES),
+            new Hand(Card.EIGHT_OF_CLUBS, Card.KING_OF_CLUBS),
+            new Hand(Card.TEN_OF_CLUBS, Card.EIGHT_OF_CLUBS),
+            new Hand(Card.KING_OF_SPADES, Card.KING_OF_DIAMONDS),
+            new Hand(Card.FIVE_OF_SPADES, Card.SIX_OF_DIAMONDS),
+            new Hand(Card.KING_OF_SPADES, Card.EIGHT_OF_DIAMONDS),
+            new Hand(Card.TEN_OF_DIAMONDS, Card.NINE_OF_HEARTS),
+            new Hand(Card.TEN_OF_DIAMONDS, Card.TEN_OF_CLUBS),
+            new Hand(Card.ACE_OF_DIAMONDS, Card.QUEEN_OF_SPADES),
+            new Hand(Card.TEN_OF_DIAMONDS, Card.NINE_OF_CLUBS),
+            new Hand(Card.JACK_OF_DIAMONDS, Card.FIVE_OF_CLUBS),
+            new Hand(Card.JACK_OF_DIAMONDS, Card.NINE_OF_CLUBS),
+            new Hand(Card.JACK_OF_DIAMONDS, Card.NINE_OF_DIAMONDS),
+            new Hand(Card.JACK_OF_DIAMONDS, Card.JACK_OF_CLUBS)
+    };
+    private static final Board[] BOARDS = {
+            new Board(Card.TWO_OF_DIAMONDS, Card.EIGHT_OF_SPADES, Card.FOUR_OF_CLUBS,
+                    Card.TEN_OF_HEARTS, Card.SIX_OF_SPADES),
+            new Board(Card.TWO_OF_DIAMONDS, Card.EIGHT_OF_SPADES, Card.FOUR_OF_CLUBS,
+                    Card.TEN_OF_HEARTS, Card.NINE_OF_HEARTS),
+            new Board(Card.NINE_OF_HEARTS, Card.THREE_OF_HEARTS, Card.TEN_OF_CLUBS,
+                    Card.TEN_OF_HEARTS, Card.KING_OF_HEARTS),
+            new Board(Card.TWO_OF_CLUBS, Card.THREE_OF_CLUBS, Card.FOUR_OF_CLUBS,
+                    Card.KING_OF_HEARTS, Card.SEVEN_OF_HEARTS),
+            new Board(Card.TWO_OF_CLUBS, Card.THREE_OF_CLUBS, Card.FOUR_OF_CLUBS,
+                    Card.KING_OF_HEARTS, Card.ACE_OF_HEARTS),
+            new Board(Card.TWO_OF_CLUBS, Card.TWO_OF_DIAMONDS, Card.TEN_OF_SPADES,
+                    Card.KING_OF_HEARTS, Card.ACE_OF_HEARTS),
+            new Board(Card.JACK_OF_CLUBS, Card.THREE_OF_HEARTS, Card.EIGHT_OF_DIAMONDS,
+                    Card.JACK_OF_SPADES, Card.EIGHT_OF_DIAMONDS),
+            new Board(Card.JACK_OF_CLUBS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS,
+                    Card.TWO_OF_SPADES, Card.EIGHT_OF_DIAMONDS),
+            new Board(Card.JACK_OF_CLUBS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS,
+                    Card.JACK_OF_SPADES, Card.EIGHT_OF_DIAMONDS),
+            new Board(Card.TEN_OF_CLUBS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS,
+                    Card.QUEEN_OF_SPADES, Card.EIGHT_OF_DIAMONDS),
+            new Board(Card.JACK_OF_CLUBS, Card.THREE_OF_HEARTS, Card.TWO_OF_DIAMONDS,
+                    Card.FIVE_OF_DIAMONDS, Card.EIGHT_OF_DIAMONDS),
+            new Board(Card.JACK_OF_HEARTS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS,
+                    Card.JACK_OF_SPADES, Card.EIGHT_OF_DIAMONDS),
+            new Board(Card.TEN_OF_DIAMONDS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS,
+                    Card.QUEEN_OF_DIAMONDS, Card.EIGHT_OF_DIAMONDS)
+    };
+
+    @Test
+    //test a mapped raw table against the same table in the heap
+    public void testMappedMatchesHeapTable() throws IOException {
+        int[] handRanks = HandRankGenerator.generate();
+        HandRankEvaluator heapEvaluator = new TwoPlusTwoHandEvaluator(IntBuffer.wrap(handRanks));
+        Path file = Files.createTempFile("HandRanks", ".dat");
+        try {
+            ByteBuffer raw = ByteBuffer.allocate(handRanks.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            raw.asIntBuffer().put(handRanks);
+            Files.write(file, raw.array());
+            HandRankEvaluator mappedEvaluator = new TwoPlusTwoHandEvaluator(new ConfigurationLoader().mapHandRankFile(file));
+            for (Board board : BOARDS) {
+                for (Hand hand : HANDS) {
+                    assertEquals("Board " + board + " Hand " + hand,
+                            heapEvaluator.evaluate(board, hand), mappedEvaluator.evaluate(board, hand));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    //a broken cached table is generated again and kept for the next start
+    public void testCachedTable() throws IOException {
+        Path directory = Files.createTempDirectory("handranks");
+        String previous = System.setProperty(ConfigurationLoader.HAND_RANK_CACHE_PROPERTY, directory.toString());
+        Path file = directory.resolve("HandRanks.dat");
+        try {
+            Files.write(file, new byte[1024]);
+            ConfigurationLoader loader = new ConfigurationLoader();
+            IntBuffer generated = loader.loadCachedHandRanks();
+            assertEquals(generated, loader.loadCachedHandRanks());
+            assertEquals(generated, loader.mapHandRankFile(file));
+        } finally {
+            if (previous == null) {
+                System.clearProperty(ConfigurationLoader.HAND_RANK_CACHE_PROPERTY);
+            } else {
+                System.setProperty(ConfigurationLoader.HAND_RANK_CACHE_PROPERTY, previous);
+            }
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    //a table found on the classpath is mapped, or copied into the heap, and ranks like the compact evaluator
+    public void testClasspathTable() throws Exception {
+        //The directory of the test classes is on the classpath as a directory, not an archive
+        Path classes = Path.of(ConfigurationLoaderTest.class.getProtectionDomain().getCodeSource().getLocation()
+                .toURI());
+        String name = "/HandRanks-" + System.nanoTime() + ".dat";
+        Path file = classes.resolve(name.substring(1));
+        try {
+            HandRankFile.write(IntBuffer.wrap(HandRankGenerator.generate()), file);
+            ConfigurationLoader loader = new ConfigurationLoader();
+            HandRankEvaluator compact = CompactHandEvaluator.getInstance();
+            HandRankEvaluator[] evaluators = {new TwoPlusTwoHandEvaluator(loader.loadHandRanks(name)),
+                    new TwoPlusTwoHandEvaluator(IntBuffer.wrap(loader.loadHandRankResource(name)))};
+            for (HandRankEvaluator evaluator : evaluators) {
+                for (Board board : BOARDS) {
+                    for (Hand hand : HANDS) {
+                        //The two evaluators only agree on seven different cards
+                        if (CardSet.of(board, hand).size() < 7) {
+                            continue;
+                        }
+                        assertEquals("Board " + board + " Hand " + hand,
+                                compact.evaluate(board, hand), evaluator.evaluate(board, hand));
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    //a short file must be rejected instead of producing wrong ranks
+    public void testMapTruncatedFile() throws IOException {
+        Path file = Files.createTempFile("HandRanks", ".dat");
+        try {
+            Files.write(file, new byte[1024]);
+            new ConfigurationLoader().mapHandRankFile(file);
+            fail("Truncated hand rank file was mapped");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("expected"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
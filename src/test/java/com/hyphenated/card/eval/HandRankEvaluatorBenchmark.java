@@ -0,0 +1,97 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for the seven card evaluation paths of {@link HandRankEvaluator}.
+ * Run {@link #main(String[])} to get the allocation rate per call from the GC profiler,
+ * the primitive overloads are expected to report 0 B/op.
+ * Each benchmark runs against the 2+2 lookup table and against {@link CompactHandEvaluator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class HandRankEvaluatorBenchmark {
+
+    private static final int HANDS = 4096;
+
+    @Param({"twoplustwo", "compact"})
+    private String evaluatorName;
+
+    private HandRankEvaluator evaluator;
+    private int[] cards;
+    private Board[] boards;
+    private Hand[] hands;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        System.setProperty(ConfigurationLoader.HAND_EVALUATOR_PROPERTY, evaluatorName);
+        evaluator = new ConfigurationLoader().loadHandRankEvaluator();
+        cards = new int[HANDS * 7];
+        boards = new Board[HANDS];
+        hands = new Hand[HANDS];
+        Random random = new Random(42);
+        int[] deck = new int[52];
+        for (int h = 0; h < HANDS; h++) {
+            for (int i = 0; i < deck.length; i++) {
+                deck[i] = i + 1;
+            }
+            //Partial Fisher-Yates shuffle, only the first seven cards are needed
+            for (int i = 0; i < 7; i++) {
+                int j = i + random.nextInt(deck.length - i);
+                int swap = deck[i];
+                deck[i] = deck[j];
+                deck[j] = swap;
+                cards[h * 7 + i] = deck[i];
+            }
+            int o = h * 7;
+            boards[h] = new Board(EvaluationIndex.card(cards[o]), EvaluationIndex.card(cards[o + 1]),
+                    EvaluationIndex.card(cards[o + 2]), EvaluationIndex.card(cards[o + 3]),
+                    EvaluationIndex.card(cards[o + 4]));
+            hands[h] = new Hand(EvaluationIndex.card(cards[o + 5]), EvaluationIndex.card(cards[o + 6]));
+        }
+    }
+
+    private int nextHand() {
+        next = (next + 1) & (HANDS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int evaluateArray() {
+        return evaluator.evaluate(cards, nextHand() * 7);
+    }
+
+    @Benchmark
+    public int evaluateCards() {
+        int o = nextHand() * 7;
+        int[] c = cards;
+        return evaluator.evaluate(c[o], c[o + 1], c[o + 2], c[o + 3], c[o + 4], c[o + 5], c[o + 6]);
+    }
+
+    @Benchmark
+    public HandRank evaluateBoardAndHand() {
+        int h = nextHand();
+        return evaluator.evaluate(boards[h], hands[h]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HandRankEvaluatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.hyphenated.card.eval;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * JUnit tests for the verified hand rank file format.
+ * Small synthetic tables stand in for the real table, the format does not depend on the content.
+ */
+public class HandRankFileTest extends TestCase {
+
+    //Spans several checksum chunks, the last one partial
+    private static final int ENTRIES = 3_000_000;
+
+    private static IntBuffer table() {
+        IntBuffer table = IntBuffer.allocate(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) {
+            table.put(i, i * 31 + 7);
+        }
+        return table;
+    }
+
+    @Test
+    //test a written table reads back unchanged
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("HandRanks", ".dat");
+        try {
+            HandRankFile.write(table(), file);
+            IntBuffer read = HandRankFile.read(ByteBuffer.wrap(Files.readAllBytes(file)), ENTRIES, file);
+            assertEquals(table(), read);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    //test a single flipped bit is detected
+    public void testCorruptedTable() throws IOException {
+        Path file = Files.createTempFile("HandRanks", ".dat");
+        try {
+            HandRankFile.write(table(), file);
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length - 4096] ^= 1;
+            HandRankFile.read(ByteBuffer.wrap(bytes), ENTRIES, file);
+            fail("Corrupted hand rank file was read");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("corrupted"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    //test a truncated table is rejected
+    public void testTruncatedTable() throws IOException {
+        Path file = Files.createTempFile("HandRanks", ".dat");
+        try {
+            HandRankFile.write(table(), file);
+            byte[] bytes = Files.readAllBytes(file);
+            HandRankFile.read(ByteBuffer.wrap(bytes, 0, bytes.length - 1), ENTRIES, file);
+            fail("Truncated hand rank file was read");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("expected"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    //test tables without header are still read as little endian
+    public void testRawTable() {
+        ByteBuffer raw = ByteBuffer.allocate(ENTRIES * 4).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asIntBuffer().put(table());
+        assertEquals(table(), HandRankFile.read(raw, ENTRIES, "raw"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.hyphenated.card.eval;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * JUnit tests for generating the 2+2 lookup table.
+ * Walking the generated table must give the ranks of the {@link CompactHandEvaluator}, which has been
+ * checked against the distributed table.
+ */
+public class HandRankGeneratorTest extends TestCase {
+
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    //test random five, six and seven card hands and flop prefixes on the generated table
+    public void testGeneratedTable() {
+        int[] handRanks = HandRankGenerator.generate();
+        assertEquals(ConfigurationLoader.HAND_RANK_SIZE, handRanks.length);
+        HandRankEvaluator generated = new TwoPlusTwoHandEvaluator(IntBuffer.wrap(handRanks));
+        HandRankEvaluator compact = CompactHandEvaluator.getInstance();
+        Random random = new Random(53);
+        int[] deck = new int[52];
+        int[] c = new int[7];
+        for (int n = 0; n < SAMPLES; n++) {
+            for (int i = 0; i < deck.length; i++) {
+                deck[i] = i + 1;
+            }
+            for (int i = 0; i < c.length; i++) {
+                int j = i + random.nextInt(deck.length - i);
+                int swap = deck[i];
+                deck[i] = deck[j];
+                deck[j] = swap;
+                c[i] = deck[i];
+            }
+            String message = "Cards " + Arrays.toString(c);
+            assertEquals(message, compact.evaluate(c, 0), generated.evaluate(c, 0));
+            assertEquals(message, compact.evaluate(c[0], c[1], c[2], c[3], c[4], c[5]),
+                    generated.evaluate(c[0], c[1], c[2], c[3], c[4], c[5]));
+            assertEquals(message, compact.evaluate(c[0], c[1], c[2], c[3], c[4]),
+                    generated.evaluate(c[0], c[1], c[2], c[3], c[4]));
+            assertEquals(message, compact.evaluate(c[0], c[1], c[2], c[3], c[4]),
+                    generated.finish(generated.evaluateBoardPrefix(c[0], c[1], c[2]), c[3], c[4]));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.enums.Card;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * JUnit tests for {@link PotSettlement}.
+ * Random all in hands are settled against a pot by pot reference, no chip may be created or lost.
+ */
+public class PotSettlementTest extends TestCase {
+
+    private final HandRankEvaluator evaluator = CompactHandEvaluator.getInstance();
+
+    @Test
+    //test a short all in, a side pot between two players and a folded player's dead money
+    public void testSidePot() {
+        int[] board = EvaluationIndex.of(new Card[]{Card.TWO_OF_CLUBS, Card.SEVEN_OF_DIAMONDS, Card.NINE_OF_HEARTS,
+                Card.JACK_OF_CLUBS, Card.KING_OF_SPADES});
+        int[] holeCards = {
+                EvaluationIndex.of(Card.ACE_OF_SPADES), EvaluationIndex.of(Card.ACE_OF_DIAMONDS),
+                EvaluationIndex.of(Card.KING_OF_HEARTS), EvaluationIndex.of(Card.QUEEN_OF_DIAMONDS),
+                EvaluationIndex.of(Card.THREE_OF_CLUBS), EvaluationIndex.of(Card.FOUR_OF_DIAMONDS),
+                EvaluationIndex.of(Card.FIVE_OF_HEARTS), EvaluationIndex.of(Card.SIX_OF_HEARTS)
+        };
+        PotSettlement settlement = PotSettlement.settle(evaluator, new int[][]{board}, holeCards,
+                new int[]{100, 300, 300, 50}, new boolean[]{true, true, true, false}, 0);
+
+        assertTrue(Arrays.equals(new int[]{350, 400, 0, 0}, settlement.getPayouts()));
+        assertEquals(2, settlement.getPots());
+        assertEquals(350, settlement.getPotAmount(0));
+        assertEquals(0b1, settlement.getPotWinners(0));
+        assertEquals(400, settlement.getPotAmount(1));
+        assertEquals(0b10, settlement.getPotWinners(1));
+    }
+
+    @Test
+    //test random all in hands, with folds, dead money and run twice, keep every chip
+    public void testChipConservation() {
+        Random random = new Random(25);
+        for (int hand = 0; hand < 20000; hand++) {
+            int players = 2 + random.nextInt(8);
+            int boards = random.nextInt(4) == 0 ? 2 : 1;
+            int[] deck = new int[52];
+            for (int i = 0; i < 52; i++) {
+                deck[i] = i + 1;
+            }
+            for (int i = 51; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+            int[][] boardCards = new int[boards][];
+            int[] boardPrefixes = new int[boards];
+            for (int b = 0; b < boards; b++) {
+                boardCards[b] = Arrays.copyOfRange(deck, 5 * b, 5 * b + 5);
+                boardPrefixes[b] = evaluator.evaluateBoardPrefix(deck[5 * b], deck[5 * b + 1], deck[5 * b + 2],
+                        deck[5 * b + 3], deck[5 * b + 4]);
+            }
+            int[] holeCards = Arrays.copyOfRange(deck, 10, 10 + 2 * players);
+            int[] contributions = new int[players];
+            boolean[] live = new boolean[players];
+            //Few distinct amounts, so players tie on their contributions
+            for (int p = 0; p < players; p++) {
+                contributions[p] = 50 * random.nextInt(5) + random.nextInt(3);
+                live[p] = random.nextInt(3) != 0;
+            }
+            live[random.nextInt(players)] = true;
+            int deadMoney = random.nextBoolean() ? 0 : random.nextInt(40);
+
+            PotSettlement settlement = PotSettlement.settle(evaluator, boardCards, holeCards, contributions,
+                    live, deadMoney);
+            int[] payouts = settlement.getPayouts();
+            int maxLive = 0;
+            for (int p = 0; p < players; p++) {
+                if (live[p]) {
+                    maxLive = Math.max(maxLive, contributions[p]);
+                }
+            }
+            int paid = 0;
+            int refunds = 0;
+            for (int p = 0; p < players; p++) {
+                assertTrue(payouts[p] >= 0);
+                paid += payouts[p];
+                int refund = Math.max(0, contributions[p] - maxLive);
+                refunds += refund;
+                if (!live[p]) {
+                    assertEquals(refund, payouts[p]);
+                }
+            }
+            assertEquals(Arrays.stream(contributions).sum() + deadMoney, paid);
+            int pots = 0;
+            for (int pot = 0; pot < settlement.getPots(); pot++) {
+                assertTrue(settlement.getPotWinners(pot) != 0);
+                pots += settlement.getPotAmount(pot);
+            }
+            assertEquals(paid - refunds, pots);
+            assertTrue(Arrays.equals(reference(boardPrefixes, holeCards, contributions, live, deadMoney), payouts));
+        }
+    }
+
+    /**
+     * Settle one pot at a time from the smallest contribution up, evaluating the hands again for every pot.  Pots
+     * contested by the same players are one pot, the dead money is contested by every live player.
+     */
+    private int[] reference(int[] boardPrefixes, int[] holeCards, int[] contributions, boolean[] live,
+                            int deadMoney) {
+        int players = contributions.length;
+        int[] payouts = new int[players];
+        int[] levels = Arrays.stream(contributions).distinct().sorted().toArray();
+        int pot = deadMoney;
+        boolean[] potContenders = live;
+        int lower = 0;
+        for (int level : levels) {
+            int layer = 0;
+            boolean[] contenders = new boolean[players];
+            boolean anyContender = false;
+            for (int p = 0; p < players; p++) {
+                if (contributions[p] >= level) {
+                    layer += level - lower;
+                    contenders[p] = live[p];
+                    anyContender |= live[p];
+                }
+            }
+            if (!anyContender) {
+                for (int p = 0; p < players; p++) {
+                    if (contributions[p] >= level) {
+                        payouts[p] += level - lower;
+                    }
+                }
+            } else if (layer > 0) {
+                if (!Arrays.equals(contenders, potContenders)) {
+                    if (pot > 0) {
+                        award(pot, boardPrefixes, holeCards, potContenders, payouts);
+                    }
+                    pot = 0;
+                    potContenders = contenders;
+                }
+                pot += layer;
+            }
+            lower = level;
+        }
+        if (pot > 0) {
+            award(pot, boardPrefixes, holeCards, potContenders, payouts);
+        }
+        return payouts;
+    }
+
+    private void award(int pot, int[] boardPrefixes, int[] holeCards, boolean[] contenders, int[] payouts) {
+        int boards = boardPrefixes.length;
+        for (int b = 0; b < boards; b++) {
+            int boardPot = b == 0 ? pot - pot / boards * (boards - 1) : pot / boards;
+            int[] ranks = new int[contenders.length];
+            int best = Integer.MIN_VALUE;
+            int count = 0;
+            for (int p = 0; p < contenders.length; p++) {
+                if (contenders[p]) {
+                    ranks[p] = evaluator.finish(boardPrefixes[b], holeCards[2 * p], holeCards[2 * p + 1]);
+                    best = Math.max(best, ranks[p]);
+                }
+            }
+            for (int p = 0; p < contenders.length; p++) {
+                if (contenders[p] && ranks[p] == best) {
+                    count++;
+                }
+            }
+            int oddChips = boardPot % count;
+            for (int p = 0; p < contenders.length; p++) {
+                if (contenders[p] && ranks[p] == best) {
+                    payouts[p] += boardPot / count + (oddChips-- > 0 ? 1 : 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.holder.Hand;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * JUnit tests for the {@link PreflopMatrix} file and lookups.
+ * A synthetic matrix stands in for the generated one, which takes a minute to compute.
+ */
+public class PreflopMatrixTest extends TestCase {
+
+    private static int[] cells() {
+        int[] cells = new int[PreflopMatrix.CLASSES * PreflopMatrix.CLASSES * 3];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        return cells;
+    }
+
+    @Test
+    //test hands that only differ by their suits share a class, and pairs, suited and offsuit hands do not
+    public void testClasses() {
+        int aces = PreflopMatrix.classOf(new Hand(Card.ACE_OF_SPADES, Card.ACE_OF_HEARTS));
+        assertEquals(aces, PreflopMatrix.classOf(new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS)));
+        int suited = PreflopMatrix.classOf(new Hand(Card.ACE_OF_SPADES, Card.KING_OF_SPADES));
+        assertEquals(suited, PreflopMatrix.classOf(new Hand(Card.KING_OF_HEARTS, Card.ACE_OF_HEARTS)));
+        int offsuit = PreflopMatrix.classOf(new Hand(Card.ACE_OF_SPADES, Card.KING_OF_HEARTS));
+        assertFalse(suited == offsuit);
+        assertEquals(offsuit, PreflopMatrix.classOf(new Hand(PreflopMatrix.representative(offsuit))));
+    }
+
+    @Test
+    //test a written matrix reads back and answers the cell of both classes
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("preflop", ".dat");
+        try {
+            PreflopMatrixGenerator.write(cells(), file);
+            PreflopMatrix matrix = PreflopMatrix.load(file);
+            Hand hand = new Hand(Card.ACE_OF_SPADES, Card.KING_OF_SPADES);
+            Hand opponent = new Hand(Card.SEVEN_OF_CLUBS, Card.TWO_OF_HEARTS);
+            int cell = (PreflopMatrix.classOf(hand) * PreflopMatrix.CLASSES + PreflopMatrix.classOf(opponent)) * 3;
+            Equity equity = matrix.equity(hand, opponent);
+            assertEquals(cell, equity.getWins());
+            assertEquals(cell + 1, equity.getDraws());
+            assertEquals(cell + 2, equity.getLosses());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    //test a single flipped bit is detected
+    public void testCorruptedMatrix() throws IOException {
+        Path file = Files.createTempFile("preflop", ".dat");
+        try {
+            PreflopMatrixGenerator.write(cells(), file);
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length - 100] ^= 1;
+            PreflopMatrix.read(ByteBuffer.wrap(bytes), file);
+            fail("Corrupted preflop matrix was read");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("corrupted"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.hyphenated.card.eval;
+
+import com.hyphenated.card.enums.Card;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+/**
+ * JUnit tests for {@link RunoutEquity}.
+ * The runouts built by extending the board prefix must rank exactly like seven card evaluations.
+ */
+public class RunoutEquityTest extends TestCase {
+
+    private static final int[] HOLE_CARDS = {
+            EvaluationIndex.of(Card.ACE_OF_CLUBS), EvaluationIndex.of(Card.ACE_OF_DIAMONDS),
+            EvaluationIndex.of(Card.KING_OF_HEARTS), EvaluationIndex.of(Card.QUEEN_OF_HEARTS),
+            EvaluationIndex.of(Card.SEVEN_OF_SPADES), EvaluationIndex.of(Card.SIX_OF_SPADES)
+    };
+    private static final int[] FLOP = {
+            EvaluationIndex.of(Card.JACK_OF_HEARTS), EvaluationIndex.of(Card.EIGHT_OF_SPADES),
+            EvaluationIndex.of(Card.TWO_OF_HEARTS)
+    };
+
+    @Test
+    //test the flop and turn equities of both evaluators against seven card evaluations
+    public void testRunouts() {
+        HandRankEvaluator[] evaluators = {CompactHandEvaluator.getInstance(),
+                new ConfigurationLoader().loadHandRankEvaluator()};
+        int[] turn = {FLOP[0], FLOP[1], FLOP[2], EvaluationIndex.of(Card.NINE_OF_HEARTS)};
+        for (HandRankEvaluator evaluator : evaluators) {
+            assertEquities(expected(FLOP), RunoutEquity.calculate(evaluator, FLOP, HOLE_CARDS));
+            assertEquities(expected(turn), RunoutEquity.calculate(evaluator, turn, HOLE_CARDS));
+        }
+    }
+
+    @Test
+    //test a card cannot be both on the board and in a hand
+    public void testDeadCard() {
+        try {
+            RunoutEquity.calculate(CompactHandEvaluator.getInstance(),
+                    new int[]{FLOP[0], FLOP[1], HOLE_CARDS[0]}, HOLE_CARDS);
+            fail("Card on the board and in a hand");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    private static void assertEquities(double[] expected, double[] equities) {
+        assertEquals(expected.length, equities.length);
+        double total = 0;
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals(expected[p], equities[p], 1e-12);
+            total += equities[p];
+        }
+        assertEquals(1, total, 1e-12);
+    }
+
+    private static double[] expected(int[] board) {
+        int[] cards = new int[7];
+        System.arraycopy(board, 0, cards, 0, board.length);
+        double[] shares = new double[HOLE_CARDS.length / 2];
+        int runouts = deal(cards, board.length, 1, shares);
+        for (int p = 0; p < shares.length; p++) {
+            shares[p] /= runouts;
+        }
+        return shares;
+    }
+
+    //Every way to complete the board with cards from the first card on, evaluated seven cards at a time
+    private static int deal(int[] cards, int dealt, int first, double[] shares) {
+        if (dealt == 5) {
+            int[] ranks = new int[shares.length];
+            int best = 0;
+            for (int p = 0; p < ranks.length; p++) {
+                cards[5] = HOLE_CARDS[2 * p];
+                cards[6] = HOLE_CARDS[2 * p + 1];
+                ranks[p] = CompactHandEvaluator.getInstance().evaluate(cards, 0);
+                best = Math.max(best, ranks[p]);
+            }
+            int winners = 0;
+            for (int rank : ranks) {
+                winners += rank == best ? 1 : 0;
+            }
+            for (int p = 0; p < ranks.length; p++) {
+                shares[p] += ranks[p] == best ? 1.0 / winners : 0;
+            }
+            return 1;
+        }
+        int runouts = 0;
+        for (int card = first; card <= 52; card++) {
+            if (!isDealt(cards, dealt, card)) {
+                cards[dealt] = card;
+                runouts += deal(cards, dealt + 1, card + 1, shares);
+            }
+        }
+        return runouts;
+    }
+
+    private static boolean isDealt(int[] cards, int dealt, int card) {
+        for (int i = 0; i < dealt; i++) {
+            if (cards[i] == card) {
+                return true;
+            }
+        }
+        for (int holeCard : HOLE_CARDS) {
+            if (holeCard == card) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
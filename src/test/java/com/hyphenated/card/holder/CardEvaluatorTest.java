@@ -228,6 +228,20 @@ public class CardEvaluatorTest extends TestCase {
         assertEquals(HandType.STRAIGHT_FLUSH, rank.getHandType());
     }
 
+    @Test
+    //test the best hand on the flop and on the turn
+    public void testFlopAndTurnType() {
+        Hand h1 = new Hand(Card.JACK_OF_DIAMONDS, Card.JACK_OF_CLUBS);
+        HandRankEvaluator evaluator = TwoPlusTwoHandEvaluator.getInstance();
+        Board flop = new Board(Card.JACK_OF_HEARTS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS);
+        assertEquals(HandType.THREE_OF_A_KIND, evaluator.evaluate(flop, h1).getHandType());
+        Board turn = new Board(Card.JACK_OF_HEARTS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS, Card.NINE_OF_SPADES);
+        assertEquals(HandType.FULL_HOUSE, evaluator.evaluate(turn, h1).getHandType());
+        Board river = new Board(Card.JACK_OF_HEARTS, Card.THREE_OF_HEARTS, Card.NINE_OF_DIAMONDS, Card.NINE_OF_SPADES,
+                Card.TWO_OF_CLUBS);
+        assertEquals(evaluator.evaluate(turn, h1), evaluator.evaluate(river, h1));
+    }
+
     //Compareto equivalent to h1.compareTo(h2) using Two Plus Two Algorithm
     private int compare(Hand h1, Hand h2, Board b) {
         HandRankEvaluator evaluator = TwoPlusTwoHandEvaluator.getInstance();
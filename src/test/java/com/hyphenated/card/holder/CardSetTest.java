@@ -0,0 +1,58 @@
+package com.hyphenated.card.holder;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.EvaluationIndex;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the bit mask {@link CardSet}.
+ */
+public class CardSetTest extends TestCase {
+
+    @Test
+    //test the dead cards of a hand and board leave the rest of the deck
+    public void testRemainingCards() {
+        Hand hand = new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS);
+        Board board = new Board(Card.TWO_OF_DIAMONDS, Card.EIGHT_OF_SPADES, Card.FOUR_OF_CLUBS);
+        CardSet dead = CardSet.of(hand, board);
+        CardSet remaining = dead.complement();
+        assertEquals(5, dead.size());
+        assertEquals(47, remaining.size());
+        assertFalse(remaining.intersects(dead));
+        assertEquals(CardSet.DECK, remaining.union(dead));
+        for (Card card : Card.values()) {
+            assertEquals(card.toString(), !dead.contains(card), remaining.contains(card));
+        }
+    }
+
+    @Test
+    //test cards come out in ascending evaluation order
+    public void testEvaluationIndexes() {
+        CardSet cards = CardSet.of(Card.KING_OF_HEARTS, Card.TWO_OF_CLUBS, Card.SEVEN_OF_SPADES);
+        int[] indexes = cards.toEvaluationIndexes();
+        assertEquals(3, indexes.length);
+        assertEquals(EvaluationIndex.of(Card.TWO_OF_CLUBS), indexes[0]);
+        assertEquals(EvaluationIndex.of(Card.SEVEN_OF_SPADES), indexes[1]);
+        assertEquals(EvaluationIndex.of(Card.KING_OF_HEARTS), indexes[2]);
+        Card[] ordered = cards.toCards();
+        assertEquals(Card.TWO_OF_CLUBS, ordered[0]);
+        assertEquals(Card.KING_OF_HEARTS, ordered[2]);
+    }
+
+    @Test
+    //test holders built from a set hold the same cards
+    public void testHolders() {
+        CardSet cards = CardSet.of(Card.JACK_OF_CLUBS, Card.JACK_OF_SPADES);
+        assertEquals(cards, new Hand(cards).getCardSet());
+        try {
+            new Hand(cards.with(Card.TWO_OF_CLUBS));
+            fail("Hand with three cards");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("2 cards"));
+        }
+        CardSet flop = cards.with(Card.TEN_OF_HEARTS);
+        assertEquals(3, new Board(flop).getCards().length);
+        assertEquals(flop, new Board(flop).getCardSet());
+    }
+}
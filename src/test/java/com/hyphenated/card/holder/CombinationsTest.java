@@ -0,0 +1,57 @@
+package com.hyphenated.card.holder;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * JUnit tests for the colex numbering of {@link Combinations}.
+ */
+public class CombinationsTest extends TestCase {
+
+    @Test
+    //test walking the combinations visits every rank once, in order, and unranks back to the same mask
+    public void testColexOrder() {
+        long combination = Combinations.unrank(0, 3);
+        assertEquals(0b111, combination);
+        for (long rank = 0; rank < Combinations.count(52, 3); rank++) {
+            assertEquals(rank, Combinations.rank(combination));
+            assertEquals(combination, Combinations.unrank(rank, 3));
+            combination = Combinations.next(combination);
+        }
+        assertTrue(combination > CardSet.DECK.getBits());
+    }
+
+    @Test
+    //test the ends of the seven card numbering
+    public void testSevenCards() {
+        assertEquals(133784560, Combinations.count(52, 7));
+        long last = Combinations.unrank(Combinations.count(52, 7) - 1, 7);
+        assertEquals(0x7FL << 45, last);
+        assertEquals(Combinations.count(52, 7) - 1, Combinations.rank(last));
+    }
+
+    @Test
+    //test a range of the combinations of some cards is the same slice the iterator walks through
+    public void testRangeOfCards() {
+        long cards = CardSet.DECK.getBits() & ~0xF0F0L;
+        long count = Combinations.count(44, 2);
+        PrimitiveIterator.OfLong iterator = Combinations.iterator(cards, 2);
+        for (int skip = 0; skip < 100; skip++) {
+            iterator.nextLong();
+        }
+        List<Long> range = new ArrayList<>();
+        Combinations.forEach(cards, 2, 100, count, range::add);
+        assertEquals(count - 100, range.size());
+        for (long combination : range) {
+            assertEquals(combination, iterator.nextLong());
+            assertEquals(0, combination & ~cards);
+            assertEquals(2, Long.bitCount(combination));
+        }
+        assertFalse(iterator.hasNext());
+        assertEquals(100, Combinations.rank(range.get(0), cards));
+    }
+}
@@ -0,0 +1,56 @@
+package com.hyphenated.card.holder;
+
+import com.hyphenated.card.enums.Card;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the range notation of {@link HandRange}.
+ */
+public class HandRangeTest extends TestCase {
+
+    @Test
+    //test the number of combinations of each form of the notation
+    public void testParse() {
+        assertEquals(4, HandRange.parse("AKs").size());
+        assertEquals(12, HandRange.parse("AKo").size());
+        assertEquals(16, HandRange.parse("AK").size());
+        assertEquals(30, HandRange.parse("TT+").size());
+        assertEquals(78, HandRange.parse("22+").size());
+        assertEquals(24, HandRange.parse("TT-77").size());
+        assertEquals(16, HandRange.parse("A5s-A2s").size());
+        assertEquals(12, HandRange.parse("KTs+").size());
+        assertEquals(1, HandRange.parse("AhKh").size());
+        assertEquals(HandRange.COMBOS, HandRange.all().size());
+        //overlapping parts are counted once
+        assertEquals(30, HandRange.parse("AKs, TT+, AKs").size() - 4);
+    }
+
+    @Test
+    //test a weight only applies to its own part of the range
+    public void testWeight() {
+        HandRange range = HandRange.parse("AKs:0.5, AA");
+        int suited = HandRange.combo(CardSet.of(Card.ACE_OF_HEARTS, Card.KING_OF_HEARTS).getBits());
+        int aces = HandRange.combo(CardSet.of(Card.ACE_OF_HEARTS, Card.ACE_OF_SPADES).getBits());
+        int offsuit = HandRange.combo(CardSet.of(Card.ACE_OF_HEARTS, Card.KING_OF_SPADES).getBits());
+        assertEquals(0.5, range.getWeight(suited));
+        assertEquals(1.0, range.getWeight(aces));
+        assertFalse(range.contains(offsuit));
+        assertEquals(0.0, range.getWeight(offsuit));
+        //the combinations left once the ace of hearts is dead
+        assertEquals(3 + 3, range.combos(CardSet.of(Card.ACE_OF_HEARTS).getBits()).length);
+    }
+
+    @Test
+    //test malformed notation is rejected
+    public void testInvalid() {
+        for (String notation : new String[]{"AAs", "AK+-", "XK", "AKs:2", "TT-AKs", "AhAh"}) {
+            try {
+                HandRange.parse(notation);
+                fail("Parsed " + notation);
+            } catch (IllegalArgumentException e) {
+                //expected
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hyphenated.card.holder;
+
+import com.hyphenated.card.enums.Card;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JUnit tests for the {@link SuitIsomorphism} classes of hands and boards.
+ */
+public class SuitIsomorphismTest extends TestCase {
+
+    @Test
+    //test the 1326 starting hands fall into the 13 pairs, 78 suited and 78 offsuit hands
+    public void testStartingHands() {
+        Map<CardSet, Integer> hands = SuitIsomorphism.startingHands();
+        assertEquals(169, hands.size());
+        assertEquals(1326, hands.values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(6, (int) hands.get(SuitIsomorphism.canonicalize(CardSet.of(Card.ACE_OF_SPADES, Card.ACE_OF_HEARTS))[0]));
+        assertEquals(4, (int) hands.get(SuitIsomorphism.canonicalize(CardSet.of(Card.ACE_OF_SPADES, Card.KING_OF_SPADES))[0]));
+        assertEquals(12, (int) hands.get(SuitIsomorphism.canonicalize(CardSet.of(Card.ACE_OF_SPADES, Card.KING_OF_HEARTS))[0]));
+    }
+
+    @Test
+    //test the 22100 flops fall into 1755 classes, and the weights count every flop of a class
+    public void testFlops() {
+        Map<Long, Integer> classes = new HashMap<>();
+        for (int a = 0; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                for (int c = b + 1; c < 52; c++) {
+                    long flop = 1L << a | 1L << b | 1L << c;
+                    classes.merge(SuitIsomorphism.canonicalize(flop)[0], 1, Integer::sum);
+                }
+            }
+        }
+        assertEquals(1755, classes.size());
+        classes.forEach((flop, count) -> {
+            assertTrue(SuitIsomorphism.isCanonical(flop));
+            assertEquals((int) count, SuitIsomorphism.weight(flop));
+        });
+    }
+
+    @Test
+    //test the representative keeps the ranks and the earlier rounds take precedence
+    public void testRounds() {
+        CardSet hand = CardSet.of(Card.ACE_OF_SPADES, Card.KING_OF_HEARTS);
+        CardSet board = CardSet.of(Card.QUEEN_OF_HEARTS, Card.JACK_OF_HEARTS, Card.TWO_OF_CLUBS);
+        CardSet[] canonical = SuitIsomorphism.canonicalize(hand, board);
+        assertEquals(CardSet.of(Card.ACE_OF_CLUBS, Card.KING_OF_DIAMONDS), canonical[0]);
+        assertEquals(CardSet.of(Card.QUEEN_OF_DIAMONDS, Card.JACK_OF_DIAMONDS, Card.TWO_OF_HEARTS), canonical[1]);
+        assertEquals(24, SuitIsomorphism.weight(hand.getBits(), board.getBits()));
+    }
+}
@@ -0,0 +1,107 @@
+package com.hyphenated.card.journal;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for the hand history format, in hands per second.
+ * Run {@link #main(String[])} to get the allocation rate from the GC profiler, decoding should only allocate the
+ * strings of each block.  The setup prints the bytes per hand of the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class HandHistoryBenchmark {
+
+    private static final int HANDS = 100_000;
+
+    @Param({"2", "6", "9"})
+    private int players;
+
+    private byte[] file;
+    private List<HandRecord> hands;
+    private Path directory;
+    private final HandRecord record = new HandRecord();
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        String[] playerIds = new String[players];
+        for (int i = 0; i < players; i++) {
+            playerIds[i] = UUID.randomUUID().toString();
+        }
+        directory = Files.createTempDirectory("history");
+        Path path = directory.resolve("hands.bin");
+        hands = new ArrayList<>(HANDS);
+        try (HandHistoryWriter writer = new HandHistoryWriter(path, HandHistoryWriter.DEFAULT_BLOCK_HANDS)) {
+            while (hands.size() < HANDS) {
+                HandRecordBuilder builder = new HandRecordBuilder();
+                for (HandEvent event : HandHistoryTest.randomHand(random, "game", playerIds, 1 + random.nextInt(4))) {
+                    HandRecord hand = builder.accept(event);
+                    if (hand != null) {
+                        writer.write(hand);
+                        hands.add(hand);
+                    }
+                }
+            }
+        }
+        file = Files.readAllBytes(path);
+        System.out.println(players + " players: " + (double) file.length / HANDS + " bytes per hand");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("hands.bin"));
+        Files.deleteIfExists(directory.resolve("encoded.bin"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public int decode() throws IOException {
+        int decoded = 0;
+        try (HandHistoryReader reader = new HandHistoryReader(new ByteArrayInputStream(file))) {
+            while (reader.next(record)) {
+                decoded++;
+            }
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public long encode() throws IOException {
+        Path path = directory.resolve("encoded.bin");
+        Files.deleteIfExists(path);
+        try (HandHistoryWriter writer = new HandHistoryWriter(path, HandHistoryWriter.DEFAULT_BLOCK_HANDS)) {
+            for (HandRecord hand : hands) {
+                writer.write(hand);
+            }
+            writer.flush();
+            return writer.getBytesWritten();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HandHistoryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
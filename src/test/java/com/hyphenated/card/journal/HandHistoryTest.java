@@ -0,0 +1,151 @@
+package com.hyphenated.card.journal;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.enums.PlayerHandRoundAction;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * JUnit tests for the hand history format of {@link HandHistoryWriter} and {@link HandHistoryReader}.
+ * Every hand built from the journal events must be read back the same, in under 100 bytes for a six handed hand.
+ */
+public class HandHistoryTest extends TestCase {
+
+    @Test
+    //test random hands are read back as they were written, across many blocks
+    public void testRoundTrip() throws Exception {
+        Path file = Files.createTempDirectory("history").resolve("hands.bin");
+        Random random = new Random(7);
+        String[] players = players(6);
+        List<String> written = new ArrayList<>();
+        HandRecordBuilder builder = new HandRecordBuilder();
+        try (HandHistoryWriter writer = new HandHistoryWriter(file, 64)) {
+            for (int h = 0; h < 1000; h++) {
+                for (HandEvent event : randomHand(random, "game", players, 2 + random.nextInt(5))) {
+                    HandRecord hand = builder.accept(event);
+                    if (hand != null) {
+                        written.add(json(hand));
+                        writer.write(hand);
+                    }
+                }
+            }
+        }
+        assertEquals(1000, written.size());
+        assertTrue("bytes per hand " + Files.size(file) / 1000, Files.size(file) < 100 * 1000);
+
+        HandRecord hand = new HandRecord();
+        List<String> read = new ArrayList<>();
+        try (HandHistoryReader reader = new HandHistoryReader(file)) {
+            while (reader.next(hand)) {
+                read.add(json(hand));
+            }
+        }
+        assertEquals(written, read);
+        assertEquals(1000, HandHistoryExporter.exportText(file, new StringWriter()));
+    }
+
+    @Test
+    //test a block cut by a crash is dropped and the blocks before it are read
+    public void testCutBlock() throws Exception {
+        Path file = Files.createTempDirectory("history").resolve("hands.bin");
+        Random random = new Random(11);
+        String[] players = players(3);
+        HandRecordBuilder builder = new HandRecordBuilder();
+        try (HandHistoryWriter writer = new HandHistoryWriter(file, 10)) {
+            for (int h = 0; h < 20; h++) {
+                for (HandEvent event : randomHand(random, "game", players, 3)) {
+                    HandRecord hand = builder.accept(event);
+                    if (hand != null) {
+                        writer.write(hand);
+                    }
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        HandRecord hand = new HandRecord();
+        int hands = 0;
+        try (HandHistoryReader reader = new HandHistoryReader(file)) {
+            while (reader.next(hand)) {
+                hands++;
+            }
+        }
+        assertEquals(10, hands);
+    }
+
+    private static String json(HandRecord hand) throws Exception {
+        StringWriter out = new StringWriter();
+        HandHistoryExporter.writeJson(hand, out);
+        return out.toString();
+    }
+
+    private static String[] players(int count) {
+        String[] players = new String[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = UUID.randomUUID().toString();
+        }
+        return players;
+    }
+
+    /**
+     * Events of a hand as the table journals them, with some players folding on each street.
+     */
+    static List<HandEvent> randomHand(Random random, String gameId, String[] players, int streets) {
+        List<HandEvent> events = new ArrayList<>();
+        List<Card> deck = new ArrayList<>(List.of(Card.values()));
+        Collections.shuffle(deck, random);
+        Map<String, List<Card>> holeCards = new HashMap<>();
+        for (String player : players) {
+            holeCards.put(player, List.of(deck.remove(0), deck.remove(0)));
+            events.add(HandEvent.deal(gameId, player, 500 + random.nextInt(2000), holeCards.get(player).get(0),
+                    holeCards.get(player).get(1)));
+        }
+        events.add(HandEvent.blind(gameId, players[0], 10));
+        events.add(HandEvent.blind(gameId, players[1], 20));
+        List<String> live = new ArrayList<>(List.of(players));
+        for (int street = 0; street < streets && street < 4; street++) {
+            if (street > 0) {
+                String name = street == 1 ? "FLOP" : street == 2 ? "TURN" : "RIVER";
+                events.add(HandEvent.street(gameId, name, new ArrayList<>(deck.subList(0, street == 1 ? 3 : 1))));
+                deck.subList(0, street == 1 ? 3 : 1).clear();
+            }
+            for (String player : new ArrayList<>(live)) {
+                int choice = random.nextInt(4);
+                if (choice == 0 && live.size() > 2) {
+                    events.add(HandEvent.action(gameId, player, PlayerHandRoundAction.FOLD, 0));
+                    live.remove(player);
+                } else if (choice == 1) {
+                    events.add(HandEvent.action(gameId, player, PlayerHandRoundAction.BET, 20 * (1 + random.nextInt(50))));
+                } else if (choice == 2) {
+                    events.add(HandEvent.action(gameId, player, PlayerHandRoundAction.CALL_CURRENT, 40));
+                } else {
+                    events.add(HandEvent.action(gameId, player, PlayerHandRoundAction.CHECK, 0));
+                }
+            }
+        }
+        if (random.nextInt(10) == 0) {
+            List<Card> second = new ArrayList<>(deck.subList(0, 5));
+            events.add(HandEvent.street(gameId, HandEvent.SECOND_BOARD, second));
+        }
+        for (String player : live) {
+            events.add(HandEvent.showdown(gameId, player, holeCards.get(player).get(0), holeCards.get(player).get(1)));
+        }
+        events.add(HandEvent.payout(gameId, live.get(random.nextInt(live.size())), 1 + random.nextInt(3000)));
+        events.add(HandEvent.handEnd(gameId));
+        return events;
+    }
+}
@@ -0,0 +1,130 @@
+package com.hyphenated.card.journal;
+
+import com.hyphenated.card.Deck;
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.enums.PlayerHandRoundAction;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JUnit tests for the {@link HandJournal}.
+ * A table must be rebuilt from the events after its last snapshot, whatever segment they were written to.
+ */
+public class HandJournalTest extends TestCase {
+
+    @Test
+    //test recovery returns the events after the last snapshot of each game, and a line cut by a crash is skipped
+    public void testRecover() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        HandJournal journal = new HandJournal(directory, HandJournal.DEFAULT_SEGMENT_BYTES);
+        journal.append(HandEvent.deal("game1", "alice", 1000, Card.ACE_OF_SPADES, Card.KING_OF_SPADES));
+        journal.append(HandEvent.action("game1", "alice", PlayerHandRoundAction.BET, 40));
+        journal.append(HandEvent.action("game2", "bob", PlayerHandRoundAction.CHECK, 0));
+        journal.append(HandEvent.snapshot("game1"));
+        journal.append(HandEvent.street("game1", "FLOP", List.of(Card.TWO_OF_CLUBS, Card.TWO_OF_HEARTS, Card.NINE_OF_DIAMONDS)));
+        journal.append(HandEvent.action("game1", "carol", PlayerHandRoundAction.FOLD, 0)).join();
+        journal.close();
+        Files.write(journal.segments().get(0), "ACTION\tgame2\tbob\t2".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        journal = new HandJournal(directory, HandJournal.DEFAULT_SEGMENT_BYTES);
+        Map<String, List<HandEvent>> events = journal.recover();
+        journal.close();
+        List<HandEvent> game1 = events.get("game1");
+        assertEquals(2, game1.size());
+        assertEquals(HandEventType.STREET, game1.get(0).getType());
+        assertEquals(List.of(Card.TWO_OF_CLUBS, Card.TWO_OF_HEARTS, Card.NINE_OF_DIAMONDS), game1.get(0).getCards());
+        assertEquals("carol", game1.get(1).getPlayerId());
+        assertEquals(PlayerHandRoundAction.FOLD, game1.get(1).getAction());
+        assertEquals(1, events.get("game2").size());
+        assertEquals(2, journal.segments().size());
+    }
+
+    @Test
+    //test a segment cut in the middle of a card list drops the cut event, the replay still deals the hand
+    public void testTruncatedCards() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        HandJournal journal = new HandJournal(directory, HandJournal.DEFAULT_SEGMENT_BYTES);
+        journal.append(HandEvent.deal("game1", "alice", 1000, Card.ACE_OF_SPADES, Card.KING_OF_SPADES));
+        journal.append(HandEvent.street("game1", "FLOP",
+                List.of(Card.TEN_OF_CLUBS, Card.JACK_OF_HEARTS, Card.NINE_OF_DIAMONDS))).join();
+        journal.close();
+        Path segment = journal.segments().get(0);
+        String written = Files.readString(segment, StandardCharsets.UTF_8);
+        //Still six fields, with two of the three flop cards
+        int cut = written.indexOf("JACK_OF_HEARTS") + "JACK_OF_HEARTS".length();
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            file.truncate(written.substring(0, cut).getBytes(StandardCharsets.UTF_8).length);
+        }
+
+        journal = new HandJournal(directory, HandJournal.DEFAULT_SEGMENT_BYTES);
+        List<HandEvent> events = journal.recover().get("game1");
+        journal.close();
+        assertEquals(1, events.size());
+        assertEquals(HandEventType.DEAL, events.get(0).getType());
+        Deck deck = new HandReplay(events).nextDeck().orElseThrow();
+        List<Card> dealt = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            dealt.add(deck.dealCard());
+        }
+        assertEquals(List.of(Card.ACE_OF_SPADES, Card.KING_OF_SPADES), dealt.subList(5, 7));
+    }
+
+    @Test
+    //test the checkpoint skips the segments of games since snapshot, but not those of a game still open
+    public void testCheckpoint() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        //Every batch fills a segment
+        HandJournal journal = new HandJournal(directory, 1);
+        journal.append(HandEvent.action("game1", "alice", PlayerHandRoundAction.BET, 40)).join();
+        journal.append(HandEvent.action("game2", "bob", PlayerHandRoundAction.BET, 80)).join();
+        journal.append(HandEvent.snapshot("game1")).join();
+        journal.append(HandEvent.action("game3", "carol", PlayerHandRoundAction.CHECK, 0)).join();
+        journal.append(HandEvent.snapshot("game3")).join();
+        journal.append(HandEvent.action("game1", "alice", PlayerHandRoundAction.CALL_ANY, 0)).join();
+        journal.close();
+
+        List<String> games = new ArrayList<>();
+        HandJournal reopened = new HandJournal(directory, 1);
+        reopened.recover().forEach((game, events) -> games.add(game + " " + events.size()));
+        reopened.close();
+        assertEquals(List.of("game2 1", "game1 1"), games);
+        assertEquals("1", Files.readString(directory.resolve("checkpoint")).trim());
+    }
+
+    @Test
+    //test a replayed hand deals the journaled board and hole cards, and the street never shown is any other card
+    public void testReplayDeck() {
+        List<HandEvent> events = List.of(
+                HandEvent.action("game1", "alice", PlayerHandRoundAction.CALL_ANY, 0),
+                HandEvent.deal("game1", "alice", 1000, Card.ACE_OF_SPADES, Card.KING_OF_SPADES),
+                HandEvent.deal("game1", "bob", 1000, Card.TWO_OF_CLUBS, Card.SEVEN_OF_HEARTS),
+                HandEvent.blind("game1", "alice", 10),
+                HandEvent.street("game1", "FLOP",
+                        List.of(Card.TEN_OF_CLUBS, Card.JACK_OF_HEARTS, Card.NINE_OF_DIAMONDS)),
+                HandEvent.street("game1", "TURN", List.of(Card.THREE_OF_HEARTS)));
+        HandReplay replay = new HandReplay(events);
+        Deck deck = replay.nextDeck().orElseThrow();
+        assertFalse(replay.nextDeck().isPresent());
+
+        List<Card> dealt = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            dealt.add(deck.dealCard());
+        }
+        assertEquals(List.of(Card.TEN_OF_CLUBS, Card.JACK_OF_HEARTS, Card.NINE_OF_DIAMONDS, Card.THREE_OF_HEARTS),
+                dealt.subList(0, 4));
+        assertEquals(List.of(Card.ACE_OF_SPADES, Card.KING_OF_SPADES, Card.TWO_OF_CLUBS, Card.SEVEN_OF_HEARTS),
+                dealt.subList(5, 9));
+        assertEquals(9, new HashSet<>(dealt).size());
+    }
+}
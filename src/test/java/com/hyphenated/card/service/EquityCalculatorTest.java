@@ -0,0 +1,109 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.CompactHandEvaluator;
+import com.hyphenated.card.eval.Equity;
+import com.hyphenated.card.eval.EquityEstimate;
+import com.hyphenated.card.eval.HandRankEvaluator;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.Hand;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.time.Duration;
+
+/**
+ * JUnit tests for the {@link EquityCalculator}.
+ * The parallel enumeration must count exactly what a plain loop over every board and opponent counts,
+ * the sampled estimate must agree with the enumeration within its confidence interval.
+ */
+public class EquityCalculatorTest extends TestCase {
+
+    private final HandRankEvaluator evaluator = CompactHandEvaluator.getInstance();
+    private final EquityCalculator calculator = new EquityCalculatorImpl(evaluator);
+
+    @Test
+    //test every turn and river card against every opponent on the flop
+    public void testFlop() {
+        Hand hand = new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS);
+        Board board = new Board(Card.KING_OF_HEARTS, Card.EIGHT_OF_HEARTS, Card.FOUR_OF_CLUBS);
+        Equity equity = calculator.calculate(hand, board);
+        assertEquals(1081L * 990, equity.getShowdowns());
+
+        int[] h = hand.getCardSet().toEvaluationIndexes();
+        int[] b = board.getCardSet().toEvaluationIndexes();
+        int[] remaining = CardSet.of(hand, board).complement().toEvaluationIndexes();
+        long wins = 0;
+        long draws = 0;
+        for (int t = 0; t < remaining.length; t++) {
+            for (int r = t + 1; r < remaining.length; r++) {
+                int rank = evaluator.evaluate(b[0], b[1], b[2], remaining[t], remaining[r], h[0], h[1]);
+                for (int i = 0; i < remaining.length; i++) {
+                    for (int j = i + 1; j < remaining.length; j++) {
+                        if (i == t || i == r || j == t || j == r) {
+                            continue;
+                        }
+                        int opponent = evaluator.evaluate(b[0], b[1], b[2], remaining[t], remaining[r],
+                                remaining[i], remaining[j]);
+                        if (rank > opponent) {
+                            wins++;
+                        } else if (rank == opponent) {
+                            draws++;
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(wins, equity.getWins());
+        assertEquals(draws, equity.getDraws());
+    }
+
+    @Test
+    //test a complete board only enumerates the opponents
+    public void testRiver() {
+        Hand hand = new Hand(Card.TEN_OF_SPADES, Card.NINE_OF_SPADES);
+        Board board = new Board(Card.JACK_OF_SPADES, Card.QUEEN_OF_SPADES, Card.KING_OF_SPADES,
+                Card.TWO_OF_CLUBS, Card.THREE_OF_DIAMONDS);
+        Equity equity = calculator.calculate(hand, board);
+        //king high straight flush, the royal flush needs our ten of spades
+        assertEquals(990, equity.getShowdowns());
+        assertEquals(990, equity.getWins());
+    }
+
+    @Test
+    //test a card can not be in the hand and on the board
+    public void testDeadCard() {
+        try {
+            calculator.calculate(new Hand(Card.TEN_OF_SPADES, Card.NINE_OF_SPADES),
+                    new Board(Card.TEN_OF_SPADES, Card.QUEEN_OF_SPADES, Card.KING_OF_SPADES));
+            fail("Card in the hand and on the board");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("equity"));
+        }
+    }
+
+    @Test
+    //test the estimate narrows down to the exact equity and stops at the target width
+    public void testEstimate() {
+        Hand hand = new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS);
+        Board board = new Board(Card.KING_OF_HEARTS, Card.EIGHT_OF_HEARTS, Card.FOUR_OF_CLUBS);
+        double exact = calculator.calculate(hand, board).getEquity();
+        EquityEstimate estimate = calculator.estimate(hand, board, 1, Duration.ofSeconds(30), 0.01);
+        assertTrue(estimate.getSamples() > 0);
+        assertTrue(estimate.getUpperBound() - estimate.getLowerBound() < 0.01);
+        //Wider than the 95% interval so the test does not fail once in twenty runs
+        assertEquals(exact, estimate.getEquity(), 3 * estimate.getStandardError());
+    }
+
+    @Test
+    //test a tie between several opponents only counts our share of the pot
+    public void testEstimateSplitPot() {
+        Hand hand = new Hand(Card.TWO_OF_CLUBS, Card.THREE_OF_CLUBS);
+        Board board = new Board(Card.TEN_OF_SPADES, Card.JACK_OF_SPADES, Card.QUEEN_OF_SPADES,
+                Card.KING_OF_SPADES, Card.ACE_OF_SPADES);
+        EquityEstimate estimate = calculator.estimate(hand, board, 3, Duration.ofMillis(5), 0);
+        assertTrue(estimate.getSamples() > 0);
+        assertEquals(0.25, estimate.getEquity(), 1e-9);
+    }
+}
@@ -0,0 +1,85 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.CompactHandEvaluator;
+import com.hyphenated.card.eval.EquityEstimate;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.Hand;
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * JUnit tests for the cache of the {@link EquityQueryService}.
+ */
+public class EquityQueryServiceTest extends TestCase {
+
+    private final EquityCalculator calculator = new EquityCalculatorImpl(CompactHandEvaluator.getInstance());
+
+    @Test
+    //test situations differing only by the suits share an entry, and the exact result is cached
+    public void testSuitIsomorphicHit() {
+        EquityQueryService service = new EquityQueryServiceImpl(calculator);
+        Board board = new Board(Card.KING_OF_HEARTS, Card.EIGHT_OF_HEARTS, Card.FOUR_OF_CLUBS);
+        EquityEstimate first = service.query(new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS), board, 1);
+        //clubs and spades swapped, hearts and diamonds swapped
+        Board swapped = new Board(Card.KING_OF_DIAMONDS, Card.EIGHT_OF_DIAMONDS, Card.FOUR_OF_SPADES);
+        EquityEstimate second = service.query(new Hand(Card.ACE_OF_SPADES, Card.ACE_OF_HEARTS), swapped, 1);
+        assertSame(first, second);
+        assertEquals(0.0, first.getStandardError());
+        assertEquals(calculator.calculate(new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS), board).getEquity(),
+                first.getEquity());
+        EquityCacheStatistics statistics = service.getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getSize());
+    }
+
+    @Test
+    //test the least recently used entry is dropped once the cache is full, and invalid queries are not cached
+    public void testEviction() {
+        EquityQueryService service = new EquityQueryServiceImpl(calculator, 2);
+        Board board = new Board(Card.KING_OF_HEARTS, Card.EIGHT_OF_HEARTS, Card.FOUR_OF_CLUBS, Card.TWO_OF_SPADES);
+        Hand aces = new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS);
+        Hand kings = new Hand(Card.KING_OF_CLUBS, Card.KING_OF_DIAMONDS);
+        Hand queens = new Hand(Card.QUEEN_OF_CLUBS, Card.QUEEN_OF_DIAMONDS);
+        service.query(aces, board, 1);
+        service.query(kings, board, 1);
+        service.query(aces, board, 1);
+        service.query(queens, board, 1);
+        //kings were the least recently used
+        service.query(aces, board, 1);
+        service.query(kings, board, 1);
+        EquityCacheStatistics statistics = service.getStatistics();
+        assertEquals(2, statistics.getHits());
+        assertEquals(4, statistics.getMisses());
+        assertEquals(2, statistics.getSize());
+        try {
+            service.query(new Hand(Card.KING_OF_HEARTS, Card.ACE_OF_SPADES), board, 1);
+            fail("Card in the hand and on the board");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        assertEquals(2, service.getStatistics().getSize());
+    }
+
+    @Test
+    //test an Error in the calculation reaches the caller and is not cached, the next query calculates again
+    public void testErrorNotCached() {
+        EquityCalculator failing = Mockito.spy(calculator);
+        Mockito.doThrow(new StackOverflowError()).doCallRealMethod().when(failing)
+                .calculate(Mockito.any(Hand.class), Mockito.any(Board.class));
+        EquityQueryService service = new EquityQueryServiceImpl(failing);
+        Hand hand = new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS);
+        Board board = new Board(Card.KING_OF_HEARTS, Card.EIGHT_OF_HEARTS, Card.FOUR_OF_CLUBS);
+        try {
+            service.query(hand, board, 1);
+            fail("The calculation failed");
+        } catch (StackOverflowError e) {
+            //expected
+        }
+        assertEquals(0, service.getStatistics().getSize());
+        assertEquals(calculator.calculate(hand, board).getEquity(), service.query(hand, board, 1).getEquity());
+        assertEquals(2, service.getStatistics().getMisses());
+    }
+}
@@ -0,0 +1,119 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.Deck;
+import com.hyphenated.card.controller.TableTasksController;
+import com.hyphenated.card.domain.Game;
+import com.hyphenated.card.domain.HandEntity;
+import com.hyphenated.card.domain.Player;
+import com.hyphenated.card.domain.PlayerHand;
+import com.hyphenated.card.enums.BlindLevel;
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.enums.GameStatus;
+import com.hyphenated.card.eval.CompactHandEvaluator;
+import com.hyphenated.card.journal.HandEvent;
+import com.hyphenated.card.journal.HandEventType;
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * JUnit tests for the hands played by the {@link PokerHandService}, with the journal, the database and the
+ * websocket mocked.
+ */
+public class PokerHandServiceTest extends TestCase {
+
+    private final PokerHandServiceImpl service = new PokerHandServiceImpl();
+    private final HandJournalService handJournalService = Mockito.mock(HandJournalService.class);
+
+    @Override
+    protected void setUp() {
+        ReflectionTestUtils.setField(service, "writeBehindService", Mockito.mock(WriteBehindService.class));
+        ReflectionTestUtils.setField(service, "handJournalService", handJournalService);
+        ReflectionTestUtils.setField(service, "tableTasksController", Mockito.mock(TableTasksController.class));
+        ReflectionTestUtils.setField(service, "handRankEvaluator", CompactHandEvaluator.getInstance());
+    }
+
+    @Test
+    //test a pot run twice preflop, each player wins one board and half of the pot
+    public void testRunItTwice() {
+        Game game = new Game(BlindLevel.BLIND_10_20, 2, "Run it twice", false, null);
+        game.setRunItTwice(true);
+        Player button = seat(game, "button", 0);
+        Player bigBlind = seat(game, "bigBlind", 1);
+        button.setPlayerInButton(true);
+        //Board, hole cards in the order of the seats, then the second board
+        Deck deck = new Deck(List.of(
+                Card.ACE_OF_SPADES, Card.SEVEN_OF_DIAMONDS, Card.FOUR_OF_CLUBS, Card.TWO_OF_HEARTS, Card.NINE_OF_CLUBS,
+                Card.ACE_OF_HEARTS, Card.ACE_OF_DIAMONDS,
+                Card.KING_OF_HEARTS, Card.KING_OF_DIAMONDS,
+                Card.KING_OF_CLUBS, Card.EIGHT_OF_SPADES, Card.FIVE_OF_DIAMONDS, Card.THREE_OF_SPADES,
+                Card.JACK_OF_HEARTS));
+        Mockito.when(handJournalService.nextReplayedDeck(game.getId())).thenReturn(Optional.of(deck), Optional.empty());
+        game.setGameStatus(GameStatus.PREFLOP);
+        service.startNewHand(game);
+        allIn(game.getHand(), button);
+        allIn(game.getHand(), bigBlind);
+
+        //Flop, turn, river, then the showdown
+        for (int street = 0; street < 4; street++) {
+            service.handleNextGameStatus(game);
+        }
+
+        ArgumentCaptor<HandEvent> events = ArgumentCaptor.forClass(HandEvent.class);
+        Mockito.verify(handJournalService, Mockito.atLeastOnce()).record(events.capture());
+        Map<String, Integer> payouts = events.getAllValues().stream()
+                .filter(event -> event.getType() == HandEventType.PAYOUT)
+                .collect(Collectors.toMap(HandEvent::getPlayerId, HandEvent::getAmount, Integer::sum));
+        assertEquals(Map.of(button.getId(), 1000, bigBlind.getId(), 1000), payouts);
+        assertTrue(events.getAllValues().stream().anyMatch(event -> HandEvent.SECOND_BOARD.equals(event.getName())
+                && event.getCards().equals(List.of(Card.KING_OF_CLUBS, Card.EIGHT_OF_SPADES,
+                Card.FIVE_OF_DIAMONDS, Card.THREE_OF_SPADES, Card.JACK_OF_HEARTS))));
+    }
+
+    @Test
+    //test a pot the bets do not add up to still ends the hand, and the chips no bet explains go back to the players
+    public void testUnaccountedPot() {
+        Game game = new Game(BlindLevel.BLIND_10_20, 2, "Unaccounted", false, null);
+        Player button = seat(game, "button", 0);
+        Player bigBlind = seat(game, "bigBlind", 1);
+        button.setPlayerInButton(true);
+        game.setGameStatus(GameStatus.PREFLOP);
+        service.startNewHand(game);
+        allIn(game.getHand(), button);
+        allIn(game.getHand(), bigBlind);
+        game.getHand().setPot(game.getHand().getPot() + 3);
+
+        for (int street = 0; street < 4; street++) {
+            service.handleNextGameStatus(game);
+        }
+
+        ArgumentCaptor<HandEvent> events = ArgumentCaptor.forClass(HandEvent.class);
+        Mockito.verify(handJournalService, Mockito.atLeastOnce()).record(events.capture());
+        assertEquals(2003, events.getAllValues().stream().filter(event -> event.getType() == HandEventType.PAYOUT)
+                .mapToInt(HandEvent::getAmount).sum());
+        assertTrue(events.getAllValues().stream().anyMatch(event -> event.getType() == HandEventType.HAND_END));
+    }
+
+    private Player seat(Game game, String name, int position) {
+        Player player = new Player(name, "password");
+        player.setGamePosition(position);
+        player.addTableChips(1000);
+        game.addPlayer(player);
+        return player;
+    }
+
+    private void allIn(HandEntity hand, Player player) {
+        PlayerHand playerHand = player.getPlayerHand();
+        int chips = player.getTableChips();
+        player.removeTableChips(chips);
+        playerHand.setBetAmount(playerHand.getBetAmount() + chips);
+        hand.setPot(hand.getPot() + chips);
+    }
+}
@@ -0,0 +1,68 @@
+package com.hyphenated.card.service;
+
+import com.hyphenated.card.enums.Card;
+import com.hyphenated.card.eval.CompactHandEvaluator;
+import com.hyphenated.card.eval.Equity;
+import com.hyphenated.card.eval.HandRankEvaluator;
+import com.hyphenated.card.eval.RangeEquity;
+import com.hyphenated.card.holder.Board;
+import com.hyphenated.card.holder.CardSet;
+import com.hyphenated.card.holder.Hand;
+import com.hyphenated.card.holder.HandRange;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * JUnit tests for the {@link RangeEquityCalculator}.
+ * A range of one hand against every hand must have the equity of the {@link EquityCalculator},
+ * the sampled estimate must agree with the enumeration.
+ */
+public class RangeEquityCalculatorTest extends TestCase {
+
+    private final HandRankEvaluator evaluator = CompactHandEvaluator.getInstance();
+    private final RangeEquityCalculator calculator = new RangeEquityCalculatorImpl(evaluator);
+
+    @Test
+    //test a single hand against every hand matches the hand equity
+    public void testHandAgainstAll() {
+        Hand hand = new Hand(Card.ACE_OF_CLUBS, Card.ACE_OF_DIAMONDS);
+        Board board = new Board(Card.KING_OF_HEARTS, Card.EIGHT_OF_HEARTS, Card.FOUR_OF_CLUBS);
+        Equity expected = new EquityCalculatorImpl(evaluator).calculate(hand, board);
+        RangeEquity equity = calculator.calculate(HandRange.of(hand), HandRange.all(), board.getCardSet());
+        //the boards are enumerated once for both ranges, the hand only takes out the boards holding its cards
+        assertEquals(1176, equity.getBoards());
+        assertEquals(expected.getEquity(), equity.getEquity(0), 1e-12);
+        assertEquals(1, equity.getEquity(0) + equity.getEquity(1), 1e-12);
+    }
+
+    @Test
+    //test the sampled heads up equity is close to the enumerated one
+    public void testEstimate() {
+        HandRange range = HandRange.parse("TT+, AKs");
+        HandRange opponentRange = HandRange.parse("AQs+, 88-66:0.5");
+        Board board = new Board(Card.KING_OF_HEARTS, Card.EIGHT_OF_HEARTS, Card.FOUR_OF_CLUBS);
+        RangeEquity exact = calculator.calculate(range, opponentRange, board.getCardSet());
+        RangeEquity estimate = calculator.estimate(List.of(range, opponentRange), board.getCardSet(), Duration.ofMillis(300));
+        assertTrue(estimate.getBoards() > 10_000);
+        assertEquals(exact.getEquity(0), estimate.getEquity(0), 0.02);
+    }
+
+    @Test
+    //test the shares of a multiway pot add up to the whole pot, and ranges which cannot be dealt are rejected
+    public void testMultiway() {
+        RangeEquity equity = calculator.estimate(List.of(HandRange.parse("AA"), HandRange.parse("KK"),
+                HandRange.parse("QQ, JJ")), CardSet.EMPTY, Duration.ofMillis(200));
+        assertEquals(3, equity.getPlayers());
+        assertEquals(1, equity.getEquity(0) + equity.getEquity(1) + equity.getEquity(2), 1e-9);
+        assertTrue(equity.getEquity(0) > equity.getEquity(1));
+        try {
+            calculator.calculate(HandRange.parse("AhKh"), HandRange.parse("AhQh"), CardSet.EMPTY);
+            fail("Ranges share every card");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.hyphenated.card.service;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JUnit tests for the {@link TableMailboxService}.
+ * Actions sent to a table from many threads must be applied one at a time, in the order of each sender.
+ */
+public class TableMailboxTest extends TestCase {
+
+    private final TableMailboxServiceImpl service = new TableMailboxServiceImpl();
+
+    @Override
+    protected void tearDown() {
+        service.close();
+    }
+
+    @Test
+    //test concurrent senders never overlap and the actions of each sender keep their order
+    public void testSingleWriter() throws Exception {
+        int senders = 8;
+        int actions = 2000;
+        List<Integer> applied = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(senders);
+        for (int s = 0; s < senders; s++) {
+            int sender = s;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < actions; i++) {
+                    int value = sender * actions + i;
+                    service.submit("table", () -> {
+                        if (running.incrementAndGet() != 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        //Not thread safe on purpose, the mailbox is the only guard
+                        applied.add(value);
+                        running.decrementAndGet();
+                    });
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        service.execute("table", () -> {
+        });
+        assertEquals(0, overlaps.get());
+        assertEquals(senders * actions, applied.size());
+        int[] last = new int[senders];
+        Arrays.fill(last, -1);
+        for (int value : applied) {
+            assertTrue(value % actions > last[value / actions]);
+            last[value / actions] = value % actions;
+        }
+        TableMailboxStatistics statistics = service.getStatistics().get(0);
+        assertEquals(senders * actions + 1, statistics.getProcessed());
+        assertEquals(0, statistics.getDepth());
+    }
+
+    @Test
+    //test an action may send another action to its own table, and a failing action does not stop the table
+    public void testNestedAndFailure() {
+        List<String> applied = new ArrayList<>();
+        service.execute("table", () -> {
+            applied.add("outer");
+            service.execute("table", () -> applied.add("inner"));
+            applied.add("after");
+        });
+        assertEquals(List.of("outer", "inner", "after"), applied);
+        try {
+            service.execute("table", () -> {
+                throw new IllegalStateException("Not your turn");
+            });
+            fail("Exception of the action");
+        } catch (IllegalStateException e) {
+            assertEquals("Not your turn", e.getMessage());
+        }
+        service.execute("table", () -> applied.add("next"));
+        assertEquals("next", applied.get(3));
+    }
+
+    @Test
+    //test an error does not stop the table, and an idle table loses its mailbox but takes actions again
+    public void testErrorAndIdleMailbox() {
+        try {
+            service.execute("table", () -> {
+                throw new LinkageError("Broken");
+            });
+            fail("Error of the action");
+        } catch (LinkageError e) {
+            assertEquals("Broken", e.getMessage());
+        }
+        List<String> applied = new ArrayList<>();
+        service.submit("table", () -> applied.add("after error")).join();
+        assertEquals(1, service.getStatistics().size());
+        service.removeIdle(0);
+        assertTrue(service.getStatistics().isEmpty());
+        service.execute("table", () -> applied.add("new mailbox"));
+        assertEquals(List.of("after error", "new mailbox"), applied);
+        assertEquals(1, service.getStatistics().get(0).getProcessed());
+    }
+}